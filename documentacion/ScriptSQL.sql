@@ -1,3 +1,7 @@
+-- Script de referencia que borra y recrea la base de datos desde cero.
+-- La aplicación crea y actualiza el esquema por sí misma al arrancar con las
+-- migraciones de src/main/resources/org/dam/fcojavier/gestionpersonal/bbdd.
+
 -- 0) Borrar base de datos anterior y crear una nueva
 DROP DATABASE IF EXISTS gestion_plantillas;
 CREATE DATABASE gestion_plantillas CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
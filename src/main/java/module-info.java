@@ -3,13 +3,13 @@ module org.dam.fcojavier.gestionpersonal {
     requires javafx.fxml;
     requires jbcrypt;
     requires java.base;
-    requires java.xml.bind;
+    requires java.xml;
     requires java.sql;
+    requires java.management;
     requires org.slf4j;
 
 
     opens org.dam.fcojavier.gestionpersonal to javafx.fxml;
-    opens org.dam.fcojavier.gestionpersonal.bbdd to java.xml.bind;
     opens org.dam.fcojavier.gestionpersonal.controllers to javafx.fxml;
     opens org.dam.fcojavier.gestionpersonal.model to javafx.base;
 
@@ -17,5 +17,6 @@ module org.dam.fcojavier.gestionpersonal {
     exports org.dam.fcojavier.gestionpersonal.controllers;
     exports org.dam.fcojavier.gestionpersonal.model;
     exports org.dam.fcojavier.gestionpersonal.enums;
+    exports org.dam.fcojavier.gestionpersonal.bbdd to java.management;
 
 }
\ No newline at end of file
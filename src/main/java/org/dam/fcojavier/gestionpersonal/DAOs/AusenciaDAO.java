@@ -4,12 +4,15 @@ import org.dam.fcojavier.gestionpersonal.bbdd.ConnectionDB;
 import org.dam.fcojavier.gestionpersonal.enums.DAOErrorTipo;
 import org.dam.fcojavier.gestionpersonal.exceptions.DAOException;
 import org.dam.fcojavier.gestionpersonal.interfaces.CrudDAO;
+import org.dam.fcojavier.gestionpersonal.interfaces.RowMapper;
 import org.dam.fcojavier.gestionpersonal.model.Ausencia;
+import org.dam.fcojavier.gestionpersonal.model.Empleado;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
+import java.sql.Date;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Clase que implementa el acceso a datos para la entidad Ausencia.
@@ -21,97 +24,134 @@ public class AusenciaDAO implements CrudDAO<Ausencia> {
     /** Consulta SQL para insertar una nueva ausencia */
     private final String insert_SQL = "INSERT INTO ausencia (motivo, fecha_inicio, fecha_fin, id_empleado) VALUES (?, ?, ?, ?)";
     
-    /** Consulta SQL para actualizar una ausencia existente */
-    private final String update_SQL = "UPDATE ausencia SET motivo = ?, fecha_inicio = ?, fecha_fin = ?, id_empleado = ? WHERE id_ausencia = ?";
+    /** Consulta SQL para actualizar una ausencia existente si conserva la versión leída */
+    private final String update_SQL = "UPDATE ausencia SET motivo = ?, fecha_inicio = ?, fecha_fin = ?, id_empleado = ?, " +
+            "version = version + 1 WHERE id_ausencia = ? AND version = ?";
+
+    /** Consulta SQL para comprobar si existe una ausencia */
+    private final String exists_SQL = "SELECT 1 FROM ausencia WHERE id_ausencia = ?";
     
     /** Consulta SQL para eliminar una ausencia */
     private final String delete_SQL = "DELETE FROM ausencia WHERE id_ausencia = ?";
     
+    /** Consulta SQL base que obtiene cada ausencia junto con su empleado y la empresa de este */
+    private final String selectConEmpleado_SQL = "SELECT a.id_ausencia, a.motivo, a.fecha_inicio, a.fecha_fin, " +
+            "a.version AS ausencia_version, " +
+            EmpleadoDAO.COLUMNAS_EMPLEADO_EMPRESA + " FROM ausencia a " +
+            "INNER JOIN empleado e ON a.id_empleado = e.id_empleado " +
+            "INNER JOIN empresa em ON e.id_empresa = em.id_empresa";
+
     /** Consulta SQL para buscar una ausencia por su ID */
-    private final String findById_SQL = "SELECT * FROM ausencia WHERE id_ausencia = ?";
+    private final String findById_SQL = selectConEmpleado_SQL + " WHERE a.id_ausencia = ?";
     
     /** Consulta SQL para obtener todas las ausencias */
-    private final String findAll_SQL = "SELECT * FROM ausencia";
+    private final String findAll_SQL = selectConEmpleado_SQL;
+
+    /** Consulta SQL para obtener una página de ausencias a partir de un ID */
+    private final String findPage_SQL = selectConEmpleado_SQL + " WHERE a.id_ausencia > ? ORDER BY a.id_ausencia LIMIT ?";
     
     /** Consulta SQL para obtener ausencias por empresa */
-    private final String findByEmpresa_SQL = "SELECT a.* FROM ausencia a " +
-            "INNER JOIN empleado e ON a.id_empleado = e.id_empleado " +
-            "WHERE e.id_empresa = ?";
+    private final String findByEmpresa_SQL = selectConEmpleado_SQL + " WHERE e.id_empresa = ?";
 
-    /** DAO para acceder a los datos de empleados */
-    private final EmpleadoDAO empleadoDAO;
+    /**
+     * Consulta SQL para buscar las ausencias de una empresa que se solapan con un intervalo.
+     * La fecha de inicio se compara sin transformar, de modo que MySQL recorre el rango de
+     * idx_ausencia_empleado_inicio de cada empleado; una fecha de fin nula es una ausencia abierta.
+     */
+    private final String findByEmpresaEntreFechas_SQL = selectConEmpleado_SQL +
+            " WHERE e.id_empresa = ? AND a.fecha_inicio <= ? AND (a.fecha_fin IS NULL OR a.fecha_fin >= ?)" +
+            " ORDER BY a.fecha_inicio";
 
     /**
-     * Constructor que inicializa el DAO con una referencia al DAO de empleados.
-     *
-     * @param empleadoDAO DAO para acceder a los datos de empleados
+     * Consulta SQL que cuenta las ausencias de los empleados de una empresa en curso en una
+     * fecha: ya empezadas y sin terminar, incluidas las que no tienen fecha de fin. Usa la
+     * misma condición que {@code findByEmpresaEntreFechas_SQL} con un solo día. La usa el
+     * resumen del panel principal de {@link EmpresaDAO} como subconsulta.
      */
-    public AusenciaDAO(EmpleadoDAO empleadoDAO) {
-        this.empleadoDAO = empleadoDAO;
-    }
+    static final String CUENTA_AUSENCIAS_ACTIVAS = "SELECT COUNT(*) FROM ausencia a " +
+            "INNER JOIN empleado e ON a.id_empleado = e.id_empleado " +
+            "WHERE e.id_empresa = ? AND a.fecha_inicio <= ? AND (a.fecha_fin IS NULL OR a.fecha_fin >= ?)";
+
+    /**
+     * Conversión de las filas con {@code selectConEmpleado_SQL}. Las ausencias de un mismo
+     * empleado comparten la instancia del empleado y de su empresa.
+     */
+    private static final RowMapper<Ausencia> AUSENCIA = metaData -> {
+        RowMapper.Lector<Empleado> empleado = EmpleadoDAO.EMPLEADO_CON_EMPRESA.preparar(metaData);
+        int idAusencia = RowMapper.columna(metaData, "id_ausencia");
+        int motivo = RowMapper.columna(metaData, "motivo");
+        int fechaInicio = RowMapper.columna(metaData, "fecha_inicio");
+        int fechaFin = RowMapper.columna(metaData, "fecha_fin");
+        int version = RowMapper.columna(metaData, "ausencia_version");
+        return rs -> {
+            Ausencia ausencia = new Ausencia();
+            ausencia.setIdAusencia(rs.getInt(idAusencia));
+            ausencia.setMotivo(rs.getString(motivo));
+            ausencia.setFechaInicio(rs.getDate(fechaInicio).toLocalDate());
+            Date fin = rs.getDate(fechaFin);
+            if (fin != null) {
+                ausencia.setFechaFin(fin.toLocalDate());
+            }
+            ausencia.setVersion(rs.getInt(version));
+            ausencia.setEmpleado(empleado.leer(rs));
+            return ausencia;
+        };
+    };
 
     /**
      * Inserta una nueva ausencia en la base de datos.
      *
      * @param ausencia La ausencia a insertar
-     * @return La ausencia insertada con su ID generado, o null si ya existe
-     * @throws DAOException Si ocurre un error durante la inserción
+     * @return La ausencia insertada con su ID generado, o null si no se indica ninguna
+     * @throws DAOException Si ocurre un error durante la inserción, de tipo
+     *         {@link DAOErrorTipo#FOREIGN_KEY_VIOLATION} si el empleado no existe
      */
     @Override
     public Ausencia insert(Ausencia ausencia) throws DAOException {
-        if (ausencia != null && findById(ausencia.getIdAusencia()) == null) {
-            try(PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(insert_SQL, PreparedStatement.RETURN_GENERATED_KEYS)) {
-                pstm.setString(1, ausencia.getMotivo());
-                pstm.setDate(2, java.sql.Date.valueOf(ausencia.getFechaInicio()));
-                pstm.setDate(3, ausencia.getFechaFin() != null ? java.sql.Date.valueOf(ausencia.getFechaFin()) : null);
-                pstm.setInt(4, ausencia.getEmpleado().getIdEmpleado());
-                
-                if (pstm.executeUpdate() == 0) {
-                    throw new DAOException("Error al crear la ausencia", DAOErrorTipo.INSERT_ERROR);
-                }
-
-                ResultSet rs = pstm.getGeneratedKeys();
-                if (rs.next()) {
-                    ausencia.setIdAusencia(rs.getInt(1));
-                }
+        if (ausencia != null) {
+            int idAusencia;
+            try {
+                idAusencia = EjecutorSql.insertar("AusenciaDAO.insert", ConnectionDB::getConnection, insert_SQL,
+                        ausencia.getMotivo(), ausencia.getFechaInicio(), ausencia.getFechaFin(),
+                        ausencia.getEmpleado().getIdEmpleado());
             } catch (SQLException e) {
-                throw new DAOException("Error al insertar la ausencia: " + e.getMessage(), DAOErrorTipo.CONNECTION_ERROR);
+                throw EjecutorSql.error("Error al insertar la ausencia", e, DAOErrorTipo.CONNECTION_ERROR);
+            }
+            if (idAusencia == 0) {
+                throw new DAOException("Error al crear la ausencia", DAOErrorTipo.INSERT_ERROR);
             }
-        } else {
-            ausencia = null;
+            ausencia.setIdAusencia(idAusencia);
         }
         return ausencia;
     }
 
     /**
-     * Actualiza una ausencia existente en la base de datos.
+     * Actualiza una ausencia existente en la base de datos, siempre que no haya cambiado
+     * desde que se leyó. Al actualizarla se incrementa su versión.
      *
      * @param ausencia La ausencia con los nuevos datos
-     * @return La ausencia actualizada, o null si no existe
-     * @throws DAOException Si ocurre un error durante la actualización
+     * @return La ausencia actualizada, o null si no se indica ninguna
+     * @throws DAOException Si ocurre un error durante la actualización, de tipo
+     *         {@link DAOErrorTipo#NOT_FOUND} si la ausencia no existe o
+     *         {@link DAOErrorTipo#VERSION_CONFLICT} si otro usuario la ha modificado
      */
     @Override
     public Ausencia update(Ausencia ausencia) throws DAOException {
         Ausencia ausenciaActualizada = null;
         if(ausencia != null) {
-            Ausencia ausenciaExistente = findById(ausencia.getIdAusencia());
-            if(ausenciaExistente != null) {
-                try(PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(update_SQL)) {
-                    pstm.setString(1, ausencia.getMotivo());
-                    pstm.setDate(2, java.sql.Date.valueOf(ausencia.getFechaInicio()));
-                    pstm.setDate(3, ausencia.getFechaFin() != null ? java.sql.Date.valueOf(ausencia.getFechaFin()) : null);
-                    pstm.setInt(4, ausencia.getEmpleado().getIdEmpleado());
-                    pstm.setInt(5, ausenciaExistente.getIdAusencia());
-                    
-                    if(pstm.executeUpdate() > 0) {
-                        ausenciaActualizada = ausencia;
-                    }
-                } catch (SQLException e) {
-                    throw new DAOException("Error al modificar la ausencia: " + e.getMessage(), DAOErrorTipo.UPDATE_ERROR);
-                }
-            } else {
-                throw new DAOException("La ausencia no existe", DAOErrorTipo.NOT_FOUND);
+            int filas;
+            try {
+                filas = EjecutorSql.actualizar("AusenciaDAO.update", ConnectionDB::getConnection, update_SQL,
+                        ausencia.getMotivo(), ausencia.getFechaInicio(), ausencia.getFechaFin(),
+                        ausencia.getEmpleado().getIdEmpleado(), ausencia.getIdAusencia(), ausencia.getVersion());
+            } catch (SQLException e) {
+                throw EjecutorSql.error("Error al modificar la ausencia", e, DAOErrorTipo.UPDATE_ERROR);
+            }
+            if (filas == 0) {
+                throw EjecutorSql.sinActualizar("AusenciaDAO.update", exists_SQL, ausencia.getIdAusencia(), "La ausencia");
             }
+            ausencia.setVersion(ausencia.getVersion() + 1);
+            ausenciaActualizada = ausencia;
         }
         return ausenciaActualizada;
     }
@@ -120,22 +160,18 @@ public class AusenciaDAO implements CrudDAO<Ausencia> {
      * Elimina una ausencia de la base de datos.
      *
      * @param ausencia La ausencia a eliminar
-     * @return true si se eliminó correctamente, false en caso contrario
+     * @return true si se eliminó correctamente, false si no existía
      * @throws DAOException Si ocurre un error durante la eliminación
      */
     @Override
     public boolean delete(Ausencia ausencia) throws DAOException {
         boolean deleted=false;
         if(ausencia!=null){
-            Ausencia ausenciaEncontrada= findById(ausencia.getIdAusencia());
-            if(ausenciaEncontrada!=null){
-                try(PreparedStatement pstm=ConnectionDB.getConnection().prepareStatement(delete_SQL)){
-                    pstm.setInt(1, ausenciaEncontrada.getIdAusencia());
-                    pstm.executeUpdate();
-                    deleted=true;
-                }catch (SQLException e){
-                    throw new DAOException("Error al borrar la ausencia: "+e.getMessage(), DAOErrorTipo.DELETE_ERROR);
-                }
+            try {
+                deleted = EjecutorSql.actualizar("AusenciaDAO.delete",
+                        ConnectionDB::getConnection, delete_SQL, ausencia.getIdAusencia()) > 0;
+            }catch (SQLException e){
+                throw EjecutorSql.error("Error al borrar la ausencia", e, DAOErrorTipo.DELETE_ERROR);
             }
         }
         return deleted;
@@ -150,28 +186,11 @@ public class AusenciaDAO implements CrudDAO<Ausencia> {
      */
     @Override
     public Ausencia findById(int id) throws DAOException {
-        Ausencia ausencia = null;
-
-        try (PreparedStatement stmt = ConnectionDB.getConnection().prepareStatement(findById_SQL)) {
-            stmt.setInt(1, id);
-            try(ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    ausencia = new Ausencia();
-                    ausencia.setIdAusencia(rs.getInt("id_ausencia"));
-                    ausencia.setMotivo(rs.getString("motivo"));
-                    ausencia.setFechaInicio(rs.getDate("fecha_inicio").toLocalDate());
-                    java.sql.Date fechaFin = rs.getDate("fecha_fin");
-                    if (fechaFin != null) {
-                        ausencia.setFechaFin(fechaFin.toLocalDate());
-                    }
-                    // Obtener el empleado completo usando el EmpleadoDAO
-                    ausencia.setEmpleado(empleadoDAO.findById(rs.getInt("id_empleado")));
-                }
-            }
+        try {
+            return EjecutorSql.primero("AusenciaDAO.findById", ConnectionDB::getConnection, findById_SQL, AUSENCIA, id);
         } catch (SQLException e) {
             throw new DAOException("Error al buscar la ausencia: " + e.getMessage(), DAOErrorTipo.CONNECTION_ERROR);
         }
-        return ausencia;
     }
 
     /**
@@ -182,30 +201,48 @@ public class AusenciaDAO implements CrudDAO<Ausencia> {
      */
     @Override
     public List<Ausencia> findAll() throws DAOException {
-        List<Ausencia> ausencias = new java.util.ArrayList<>();
-
-        try(
-                PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(findAll_SQL);
-                ResultSet rs = pstm.executeQuery()
-        ) {
-            while(rs.next()) {
-                Ausencia ausencia = new Ausencia();
-                ausencia.setIdAusencia(rs.getInt("id_ausencia"));
-                ausencia.setMotivo(rs.getString("motivo"));
-                ausencia.setFechaInicio(rs.getDate("fecha_inicio").toLocalDate());
-                java.sql.Date fechaFin = rs.getDate("fecha_fin");
-                if (fechaFin != null) {
-                    ausencia.setFechaFin(fechaFin.toLocalDate());
-                }
-                // Obtener el empleado completo usando el EmpleadoDAO
-                ausencia.setEmpleado(empleadoDAO.findById(rs.getInt("id_empleado")));
-                
-                ausencias.add(ausencia);
-            }
+        try {
+            return EjecutorSql.lista("AusenciaDAO.findAll", ConnectionDB::getReadConnection, findAll_SQL, AUSENCIA);
+        } catch (SQLException e) {
+            throw new DAOException("Error al listar las ausencias: " + e.getMessage(), DAOErrorTipo.CONNECTION_ERROR);
+        }
+    }
+
+    /**
+     * Recorre todas las ausencias registradas sin cargarlas a la vez en memoria, para
+     * exportaciones y procesos sobre el histórico completo. Las filas se leen del servidor
+     * a medida que se consume el flujo, que debe cerrarse para liberar la conexión:
+     *
+     * <pre>{@code
+     * try (Stream<Ausencia> ausencias = ausenciaDAO.streamAll()) {
+     *     ausencias.forEach(exportador::escribir);
+     * }
+     * }</pre>
+     *
+     * @return Flujo con todas las ausencias
+     * @throws DAOException Si ocurre un error al obtener los datos, también mientras se recorre el flujo
+     */
+    public Stream<Ausencia> streamAll() throws DAOException {
+        return EjecutorSql.flujo("AusenciaDAO.streamAll", ConnectionDB::getReadConnection, findAll_SQL, AUSENCIA,
+                e -> new DAOException("Error al recorrer las ausencias: " + e.getMessage(), DAOErrorTipo.CONNECTION_ERROR));
+    }
+
+    /**
+     * Obtiene una página de ausencias ordenadas por su ID.
+     *
+     * @param afterId ID de la última ausencia ya leída, 0 para la primera página
+     * @param limit Número máximo de ausencias de la página
+     * @return Lista con las ausencias de la página
+     * @throws DAOException Si ocurre un error al obtener los datos
+     */
+    @Override
+    public List<Ausencia> findPage(int afterId, int limit) throws DAOException {
+        try {
+            return EjecutorSql.lista("AusenciaDAO.findPage",
+                    ConnectionDB::getReadConnection, findPage_SQL, AUSENCIA, afterId, limit);
         } catch (SQLException e) {
             throw new DAOException("Error al listar las ausencias: " + e.getMessage(), DAOErrorTipo.CONNECTION_ERROR);
         }
-        return ausencias;
     }
 
     /**
@@ -216,27 +253,42 @@ public class AusenciaDAO implements CrudDAO<Ausencia> {
      * @throws DAOException Si ocurre un error durante la búsqueda
      */
     public List<Ausencia> findByEmpresa(int idEmpresa) throws DAOException {
-        List<Ausencia> ausencias = new java.util.ArrayList<>();
-
-        try(PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(findByEmpresa_SQL)) {
-            pstm.setInt(1, idEmpresa);
-            try(ResultSet rs = pstm.executeQuery()) {
-                while(rs.next()) {
-                    Ausencia ausencia = new Ausencia();
-                    ausencia.setIdAusencia(rs.getInt("id_ausencia"));
-                    ausencia.setMotivo(rs.getString("motivo"));
-                    ausencia.setFechaInicio(rs.getDate("fecha_inicio").toLocalDate());
-                    java.sql.Date fechaFin = rs.getDate("fecha_fin");
-                    if (fechaFin != null) {
-                        ausencia.setFechaFin(fechaFin.toLocalDate());
-                    }
-                    ausencia.setEmpleado(empleadoDAO.findById(rs.getInt("id_empleado")));
-                    ausencias.add(ausencia);
-                }
-            }
+        try {
+            return EjecutorSql.lista("AusenciaDAO.findByEmpresa",
+                    ConnectionDB::getReadConnection, findByEmpresa_SQL, AUSENCIA, idEmpresa);
         } catch (SQLException e) {
             throw new DAOException("Error al listar las ausencias por empresa: " + e.getMessage(), DAOErrorTipo.CONNECTION_ERROR);
         }
-        return ausencias;
     }
-}
\ No newline at end of file
+
+    /**
+     * Busca las ausencias de los empleados de una empresa que se solapan con un intervalo,
+     * ordenadas por fecha de inicio. Incluye las que empiezan antes del intervalo y siguen
+     * abiertas o terminan dentro de él, y las que no tienen fecha de fin.
+     *
+     * @param idEmpresa ID de la empresa
+     * @param desde Primera fecha del intervalo
+     * @param hasta Última fecha del intervalo
+     * @return Lista de ausencias que se solapan con el intervalo
+     * @throws DAOException Si ocurre un error durante la búsqueda
+     */
+    public List<Ausencia> findByEmpresaEntreFechas(int idEmpresa, LocalDate desde, LocalDate hasta) throws DAOException {
+        try {
+            return EjecutorSql.lista("AusenciaDAO.findByEmpresaEntreFechas",
+                    ConnectionDB::getReadConnection, findByEmpresaEntreFechas_SQL, AUSENCIA,
+                    idEmpresa, hasta, desde);
+        } catch (SQLException e) {
+            throw new DAOException("Error al listar las ausencias por fecha: " + e.getMessage(), DAOErrorTipo.CONNECTION_ERROR);
+        }
+    }
+
+    /**
+     * Obtiene las sentencias SQL que usa el panel principal de la empresa,
+     * para prepararlas durante el arranque de la aplicación.
+     *
+     * @return Lista de sentencias SQL
+     */
+    public List<String> getSentenciasFrecuentes() {
+        return List.of(findByEmpresa_SQL);
+    }
+}
@@ -0,0 +1,100 @@
+package org.dam.fcojavier.gestionpersonal.DAOs;
+
+import org.dam.fcojavier.gestionpersonal.model.Turno;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Copia en memoria de la tabla de turnos, compartida por toda la aplicación.
+ * {@link TurnoDAO} la carga entera de una vez, responde desde ella a las lecturas y la
+ * mantiene al día con sus propias escrituras. Pasado el tiempo de vida configurado se
+ * vuelve a cargar, para recoger los cambios hechos desde otros equipos.
+ * Los turnos guardados no se entregan nunca directamente: el DAO devuelve copias.
+ */
+final class CatalogoTurnos {
+    /** Turnos por su ID, en orden de ID; null si el catálogo no está cargado */
+    private Map<Integer, Turno> turnos;
+
+    /** Instante (ns) de la última carga completa */
+    private long cargado;
+
+    /** Contador de escrituras, para descartar cargas que coincidan con una modificación */
+    private long version;
+
+    /**
+     * Obtiene los turnos si el catálogo está cargado y no ha caducado.
+     *
+     * @param ttl Tiempo de vida del catálogo en milisegundos
+     * @return Turnos por su ID, o null si hay que cargarlos
+     */
+    synchronized Map<Integer, Turno> vigente(long ttl) {
+        if (turnos == null || System.nanoTime() - cargado > ttl * 1_000_000) {
+            return null;
+        }
+        return turnos;
+    }
+
+    /**
+     * Obtiene la versión actual, que debe leerse antes de consultar la base de datos.
+     *
+     * @return Versión del catálogo
+     */
+    synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Sustituye el catálogo por los turnos leídos de la base de datos, salvo que se haya
+     * modificado algún turno mientras se leían.
+     *
+     * @param leidos Turnos leídos, por su ID
+     * @param versionLeida Versión obtenida antes de la lectura
+     * @return Turnos leídos en orden de ID, tanto si se han guardado en el catálogo como si no
+     */
+    synchronized Map<Integer, Turno> cargar(Map<Integer, Turno> leidos, long versionLeida) {
+        Map<Integer, Turno> ordenados = Collections.unmodifiableMap(new TreeMap<>(leidos));
+        if (version == versionLeida) {
+            turnos = ordenados;
+            cargado = System.nanoTime();
+        }
+        return ordenados;
+    }
+
+    /**
+     * Añade o sustituye un turno tras insertarlo o modificarlo.
+     *
+     * @param turno Copia del turno guardado
+     */
+    synchronized void guardar(Turno turno) {
+        version++;
+        if (turnos != null) {
+            Map<Integer, Turno> actualizados = new TreeMap<>(turnos);
+            actualizados.put(turno.getIdTurno(), turno);
+            turnos = Collections.unmodifiableMap(actualizados);
+        }
+    }
+
+    /**
+     * Quita un turno tras borrarlo.
+     *
+     * @param idTurno ID del turno borrado
+     */
+    synchronized void quitar(int idTurno) {
+        version++;
+        if (turnos != null) {
+            Map<Integer, Turno> actualizados = new TreeMap<>(turnos);
+            actualizados.remove(idTurno);
+            turnos = Collections.unmodifiableMap(actualizados);
+        }
+    }
+
+    /**
+     * Descarta el catálogo para que la siguiente lectura lo cargue de nuevo.
+     */
+    synchronized void invalidar() {
+        version++;
+        turnos = null;
+    }
+}
@@ -0,0 +1,123 @@
+package org.dam.fcojavier.gestionpersonal.DAOs;
+
+import org.dam.fcojavier.gestionpersonal.bbdd.ConnectionDB;
+import org.dam.fcojavier.gestionpersonal.enums.DAOErrorTipo;
+import org.dam.fcojavier.gestionpersonal.exceptions.DAOException;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fachada asíncrona sobre un DAO: cada llamada se ejecuta en un hilo virtual y devuelve
+ * un {@link CompletableFuture}, de modo que las pantallas no bloquean el hilo de JavaFX
+ * y pueden lanzar a la vez consultas independientes:
+ *
+ * <pre>{@code
+ * DAOAsincrono<EmpleadoDAO> empleados = DAOAsincrono.de(new EmpleadoDAO());
+ * empleados.ejecutar(dao -> dao.findByEmpresa(empresa))
+ *         .whenComplete((lista, error) -> Platform.runLater(() -> mostrar(lista, error)));
+ * }</pre>
+ *
+ * Los errores del DAO llegan al futuro como la propia {@link DAOException}. Si la llamada
+ * supera el tiempo configurado en {@code asyncTimeout}, el futuro termina con una
+ * {@link DAOException} de tipo {@link DAOErrorTipo#TIMEOUT}; al agotarse el tiempo o
+ * cancelar el futuro se interrumpe el hilo que ejecuta la llamada.
+ * Cada llamada corre en un hilo nuevo, así que no ve la {@link org.dam.fcojavier.gestionpersonal.bbdd.UnidadTrabajo}
+ * ni el {@link org.dam.fcojavier.gestionpersonal.bbdd.MapaIdentidad} del hilo que la lanza.
+ *
+ * @param <D> tipo del DAO
+ */
+public final class DAOAsincrono<D> {
+    /** Ejecutor compartido que lanza un hilo virtual por llamada */
+    private static final ExecutorService EJECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dao-", 0).factory());
+
+    /** DAO sobre el que se ejecutan las llamadas */
+    private final D dao;
+
+    /**
+     * Llamada a un DAO que devuelve un resultado.
+     *
+     * @param <D> tipo del DAO
+     * @param <T> tipo del resultado
+     */
+    @FunctionalInterface
+    public interface Operacion<D, T> {
+        /**
+         * Ejecuta la llamada sobre el DAO.
+         *
+         * @param dao DAO sobre el que se ejecuta
+         * @return Resultado de la llamada
+         * @throws DAOException Si el DAO falla
+         */
+        T ejecutar(D dao) throws DAOException;
+    }
+
+    private DAOAsincrono(D dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * Crea la fachada asíncrona de un DAO.
+     *
+     * @param dao DAO sobre el que se ejecutarán las llamadas
+     * @param <D> tipo del DAO
+     * @return Fachada asíncrona del DAO
+     */
+    public static <D> DAOAsincrono<D> de(D dao) {
+        return new DAOAsincrono<>(dao);
+    }
+
+    /**
+     * Ejecuta una llamada al DAO en un hilo virtual con el tiempo máximo configurado.
+     *
+     * @param operacion Llamada que se ejecutará
+     * @param <T> tipo del resultado
+     * @return Futuro con el resultado de la llamada, o ya terminado con una {@link DAOException}
+     *         de tipo {@link DAOErrorTipo#CONNECTION_ERROR} si no puede iniciarse el acceso a datos
+     */
+    public <T> CompletableFuture<T> ejecutar(Operacion<D, T> operacion) {
+        long timeout;
+        try {
+            timeout = ConnectionDB.getAsyncTimeout();
+        } catch (SQLException e) {
+            return CompletableFuture.failedFuture(
+                    EjecutorSql.error("Error al conectar con la base de datos", e, DAOErrorTipo.CONNECTION_ERROR));
+        }
+        return ejecutar(operacion, timeout);
+    }
+
+    /**
+     * Ejecuta una llamada al DAO en un hilo virtual con un tiempo máximo propio.
+     *
+     * @param operacion Llamada que se ejecutará
+     * @param timeout Tiempo máximo en milisegundos, 0 sin límite
+     * @param <T> tipo del resultado
+     * @return Futuro con el resultado de la llamada
+     */
+    public <T> CompletableFuture<T> ejecutar(Operacion<D, T> operacion, long timeout) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        Future<?> tarea = EJECUTOR.submit(() -> {
+            try {
+                resultado.complete(operacion.ejecutar(dao));
+            } catch (Throwable e) {
+                resultado.completeExceptionally(e);
+            }
+        });
+        resultado.whenComplete((_, error) -> {
+            if (error != null) {
+                tarea.cancel(true);
+            }
+        });
+        if (timeout > 0) {
+            CompletableFuture.delayedExecutor(timeout, TimeUnit.MILLISECONDS).execute(() ->
+                    resultado.completeExceptionally(new DAOException(
+                            "La consulta ha superado el tiempo máximo de " + timeout + " ms", DAOErrorTipo.TIMEOUT)));
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,382 @@
+package org.dam.fcojavier.gestionpersonal.DAOs;
+
+import org.dam.fcojavier.gestionpersonal.bbdd.ConnectionDB;
+import org.dam.fcojavier.gestionpersonal.enums.DAOErrorTipo;
+import org.dam.fcojavier.gestionpersonal.exceptions.DAOException;
+import org.dam.fcojavier.gestionpersonal.interfaces.RowMapper;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Ejecución de sentencias SQL para los DAOs. Obtiene la conexión, prepara la sentencia,
+ * asigna los parámetros y convierte las filas con un {@link RowMapper}, cerrando siempre
+ * la conexión, la sentencia y los resultados. Los errores se propagan como SQLException
+ * para que cada DAO los traduzca a su propio {@code DAOException}.
+ * Cada ejecución se mide y se registra con {@link ConnectionDB#recordStatement} bajo el
+ * identificador que indica el DAO: el método público que la lanza, por ejemplo
+ * {@code EmpleadoDAO.findByEmpresa}, también cuando la ejecuta desde un método auxiliar.
+ */
+final class EjecutorSql {
+    private EjecutorSql() {
+    }
+
+    /**
+     * Origen de la conexión con la que se ejecuta una sentencia, normalmente
+     * {@code ConnectionDB::getConnection} o {@code ConnectionDB::getReadConnection}.
+     */
+    @FunctionalInterface
+    interface Conexion {
+        /**
+         * Obtiene una conexión que se cerrará al terminar la sentencia.
+         *
+         * @return Conexión a la base de datos
+         * @throws SQLException Si no puede obtenerse la conexión
+         */
+        Connection obtener() throws SQLException;
+    }
+
+    /**
+     * Ejecución de una sentencia cuya duración se mide.
+     *
+     * @param <T> Tipo del resultado
+     */
+    @FunctionalInterface
+    private interface Ejecucion<T> {
+        /**
+         * Ejecuta la sentencia.
+         *
+         * @return Resultado de la sentencia
+         * @throws SQLException Si falla la sentencia
+         */
+        T ejecutar() throws SQLException;
+    }
+
+    /**
+     * Ejecuta una consulta y convierte todas las filas.
+     *
+     * @param sentencia Identificador de la sentencia en las métricas, con la forma {@code Clase.metodo}
+     * @param origen Origen de la conexión
+     * @param sql Consulta SQL
+     * @param mapper Conversión de las filas
+     * @param parametros Valores de los parámetros de la consulta, en orden
+     * @param <T> Tipo de objeto de cada fila
+     * @return Lista con un objeto por fila
+     * @throws SQLException Si falla la consulta o la conversión
+     */
+    static <T> List<T> lista(String sentencia, Conexion origen, String sql, RowMapper<T> mapper, Object... parametros) throws SQLException {
+        return medir(sentencia, sql, parametros, () -> {
+            List<T> resultado = new ArrayList<>();
+            try (Connection con = origen.obtener();
+                 PreparedStatement pstm = con.prepareStatement(sql)) {
+                asignar(pstm, parametros);
+                try (ResultSet rs = pstm.executeQuery()) {
+                    RowMapper.Lector<T> lector = mapper.preparar(rs.getMetaData());
+                    while (rs.next()) {
+                        resultado.add(lector.leer(rs));
+                    }
+                }
+            }
+            return resultado;
+        });
+    }
+
+    /**
+     * Ejecuta una consulta y convierte la primera fila.
+     *
+     * @param sentencia Identificador de la sentencia en las métricas, con la forma {@code Clase.metodo}
+     * @param origen Origen de la conexión
+     * @param sql Consulta SQL
+     * @param mapper Conversión de la fila
+     * @param parametros Valores de los parámetros de la consulta, en orden
+     * @param <T> Tipo de objeto de la fila
+     * @return Objeto de la primera fila, o null si la consulta no devuelve filas
+     * @throws SQLException Si falla la consulta o la conversión
+     */
+    static <T> T primero(String sentencia, Conexion origen, String sql, RowMapper<T> mapper, Object... parametros) throws SQLException {
+        return medir(sentencia, sql, parametros, () -> {
+            try (Connection con = origen.obtener();
+                 PreparedStatement pstm = con.prepareStatement(sql)) {
+                asignar(pstm, parametros);
+                try (ResultSet rs = pstm.executeQuery()) {
+                    return rs.next() ? mapper.preparar(rs.getMetaData()).leer(rs) : null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Ejecuta una consulta y devuelve sus filas como un flujo que se lee bajo demanda.
+     * El servidor envía las filas de una en una, así que la memoria usada no depende
+     * del tamaño del resultado. La conexión queda ocupada hasta cerrar el flujo, que
+     * debe usarse siempre en un try-with-resources; mientras tanto no pueden ejecutarse
+     * otras consultas en la misma conexión. Solo se mide hasta que la consulta
+     * devuelve su resultado, no la lectura del flujo.
+     *
+     * @param sentencia Identificador de la sentencia en las métricas, con la forma {@code Clase.metodo}
+     * @param origen Origen de la conexión
+     * @param sql Consulta SQL
+     * @param mapper Conversión de las filas
+     * @param traducir Conversión de los errores de la consulta, que también se producen al leer el flujo
+     * @param parametros Valores de los parámetros de la consulta, en orden
+     * @param <T> Tipo de objeto de cada fila
+     * @return Flujo con un objeto por fila, que cierra la consulta y la conexión al cerrarse
+     * @throws DAOException Si falla la ejecución de la consulta
+     */
+    static <T> Stream<T> flujo(String sentencia, Conexion origen, String sql, RowMapper<T> mapper,
+                               Function<SQLException, DAOException> traducir, Object... parametros) {
+        long inicio = System.nanoTime();
+        Connection con = null;
+        PreparedStatement pstm = null;
+        ResultSet rs = null;
+        try {
+            con = origen.obtener();
+            pstm = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstm.setFetchSize(Integer.MIN_VALUE);
+            asignar(pstm, parametros);
+            rs = pstm.executeQuery();
+            Cursor<T> cursor = new Cursor<>(con, pstm, rs, mapper.preparar(rs.getMetaData()), traducir);
+            ConnectionDB.recordStatement(sentencia, sql, parametros, System.nanoTime() - inicio, false);
+            return StreamSupport.stream(cursor, false).onClose(cursor::cerrar);
+        } catch (SQLException e) {
+            ConnectionDB.recordStatement(sentencia, sql, parametros, System.nanoTime() - inicio, true);
+            SQLException alCerrar = cerrar(rs, pstm, con);
+            if (alCerrar != null) {
+                e.addSuppressed(alCerrar);
+            }
+            throw traducir.apply(e);
+        }
+    }
+
+    /**
+     * Ejecuta una sentencia de modificación.
+     *
+     * @param sentencia Identificador de la sentencia en las métricas, con la forma {@code Clase.metodo}
+     * @param origen Origen de la conexión
+     * @param sql Sentencia SQL
+     * @param parametros Valores de los parámetros de la sentencia, en orden
+     * @return Número de filas afectadas
+     * @throws SQLException Si falla la sentencia
+     */
+    static int actualizar(String sentencia, Conexion origen, String sql, Object... parametros) throws SQLException {
+        return medir(sentencia, sql, parametros, () -> {
+            try (Connection con = origen.obtener();
+                 PreparedStatement pstm = con.prepareStatement(sql)) {
+                asignar(pstm, parametros);
+                return pstm.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Ejecuta una inserción y obtiene la clave generada.
+     *
+     * @param sentencia Identificador de la sentencia en las métricas, con la forma {@code Clase.metodo}
+     * @param origen Origen de la conexión
+     * @param sql Sentencia INSERT
+     * @param parametros Valores de los parámetros de la sentencia, en orden
+     * @return Clave generada, o 0 si no se insertó ninguna fila
+     * @throws SQLException Si falla la sentencia
+     */
+    static int insertar(String sentencia, Conexion origen, String sql, Object... parametros) throws SQLException {
+        return medir(sentencia, sql, parametros, () -> {
+            try (Connection con = origen.obtener();
+                 PreparedStatement pstm = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                asignar(pstm, parametros);
+                if (pstm.executeUpdate() == 0) {
+                    return 0;
+                }
+                try (ResultSet rs = pstm.getGeneratedKeys()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            }
+        });
+    }
+
+    /**
+     * Ejecuta una sentencia midiendo su duración, que se registra junto con sus
+     * parámetros aunque termine con error.
+     *
+     * @param sentencia Identificador de la sentencia en las métricas, con la forma {@code Clase.metodo}
+     * @param sql Sentencia SQL
+     * @param parametros Valores de los parámetros de la sentencia
+     * @param ejecucion Ejecución de la sentencia
+     * @param <T> Tipo del resultado
+     * @return Resultado de la ejecución
+     * @throws SQLException Si falla la sentencia
+     */
+    private static <T> T medir(String sentencia, String sql, Object[] parametros, Ejecucion<T> ejecucion) throws SQLException {
+        long inicio = System.nanoTime();
+        boolean fallida = true;
+        try {
+            T resultado = ejecucion.ejecutar();
+            fallida = false;
+            return resultado;
+        } finally {
+            ConnectionDB.recordStatement(sentencia, sql, parametros, System.nanoTime() - inicio, fallida);
+        }
+    }
+
+    /**
+     * Crea la excepción de una actualización condicionada por la versión que no ha modificado
+     * ninguna fila. Solo en ese caso se consulta si la fila sigue existiendo: si existe, otro
+     * usuario la ha modificado desde que se leyó y se indica como
+     * {@link DAOErrorTipo#VERSION_CONFLICT}; si no, como {@link DAOErrorTipo#NOT_FOUND}.
+     *
+     * @param sentencia Identificador de la actualización en las métricas, que se usa también para la comprobación
+     * @param existe_SQL Consulta que devuelve alguna fila si existe la del ID indicado
+     * @param id ID de la fila que se intentó actualizar
+     * @param entidad Nombre de la entidad para los mensajes, con su artículo
+     * @return Excepción con el tipo de error correspondiente
+     */
+    static DAOException sinActualizar(String sentencia, String existe_SQL, int id, String entidad) {
+        try {
+            if (primero(sentencia, ConnectionDB::getConnection, existe_SQL, _ -> _ -> Boolean.TRUE, id) == null) {
+                return new DAOException(entidad + " no existe", DAOErrorTipo.NOT_FOUND);
+            }
+            return new DAOException(entidad + " ha cambiado en la base de datos desde que se leyó",
+                    DAOErrorTipo.VERSION_CONFLICT);
+        } catch (SQLException e) {
+            return error("Error al comprobar " + entidad.toLowerCase(), e, DAOErrorTipo.UPDATE_ERROR);
+        }
+    }
+
+    /**
+     * Crea la excepción de una sentencia fallida. Las violaciones de restricciones se
+     * reconocen por el código de error de MySQL, de modo que una clave única repetida se
+     * indica como {@link DAOErrorTipo#DUPLICATE_KEY} y una referencia a una fila que no
+     * existe, o que aún se usa, como {@link DAOErrorTipo#FOREIGN_KEY_VIOLATION}.
+     *
+     * @param mensaje Descripción de la operación que ha fallado
+     * @param e Error de la sentencia
+     * @param tipo Tipo de error si no se trata de una violación de restricciones
+     * @return Excepción con el tipo de error correspondiente
+     */
+    static DAOException error(String mensaje, SQLException e, DAOErrorTipo tipo) {
+        DAOErrorTipo traducido = switch (e.getErrorCode()) {
+            case 1062 -> DAOErrorTipo.DUPLICATE_KEY;
+            case 1216, 1217, 1451, 1452 -> DAOErrorTipo.FOREIGN_KEY_VIOLATION;
+            default -> tipo;
+        };
+        return new DAOException(mensaje + ": " + e.getMessage(), traducido);
+    }
+
+    /**
+     * Cierra los recursos de una consulta en orden inverso a su apertura.
+     *
+     * @param recursos Recursos a cerrar; se ignoran los nulos
+     * @return El primer error producido al cerrar, o null si no hubo ninguno
+     */
+    private static SQLException cerrar(AutoCloseable... recursos) {
+        SQLException error = null;
+        for (AutoCloseable recurso : recursos) {
+            if (recurso != null) {
+                try {
+                    recurso.close();
+                } catch (Exception e) {
+                    if (error == null) {
+                        error = e instanceof SQLException sql ? sql : new SQLException(e);
+                    } else {
+                        error.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        return error;
+    }
+
+    /**
+     * Recorrido de un resultado abierto para {@link #flujo}: lee una fila en cada avance
+     * y cierra el resultado, la sentencia y la conexión cuando se cierra el flujo.
+     *
+     * @param <T> Tipo de objeto de cada fila
+     */
+    private static final class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Connection con;
+        private final PreparedStatement pstm;
+        private final ResultSet rs;
+        private final RowMapper.Lector<T> lector;
+        private final Function<SQLException, DAOException> traducir;
+
+        /** Indica si los recursos ya se han cerrado */
+        private boolean cerrado;
+
+        private Cursor(Connection con, PreparedStatement pstm, ResultSet rs, RowMapper.Lector<T> lector,
+                       Function<SQLException, DAOException> traducir) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.con = con;
+            this.pstm = pstm;
+            this.rs = rs;
+            this.lector = lector;
+            this.traducir = traducir;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> accion) {
+            if (cerrado) {
+                return false;
+            }
+            try {
+                if (!rs.next()) {
+                    return false;
+                }
+                accion.accept(lector.leer(rs));
+                return true;
+            } catch (SQLException e) {
+                throw traducir.apply(e);
+            }
+        }
+
+        /**
+         * Cierra el resultado, la sentencia y la conexión. Solo tiene efecto la primera vez.
+         *
+         * @throws DAOException Si falla el cierre de algún recurso
+         */
+        private void cerrar() {
+            if (!cerrado) {
+                cerrado = true;
+                SQLException error = EjecutorSql.cerrar(rs, pstm, con);
+                if (error != null) {
+                    throw traducir.apply(error);
+                }
+            }
+        }
+    }
+
+    /**
+     * Asigna los parámetros de una sentencia. Las fechas y horas se convierten a sus
+     * tipos JDBC y los enumerados se guardan por su nombre.
+     *
+     * @param pstm Sentencia preparada
+     * @param parametros Valores de los parámetros, en orden
+     * @throws SQLException Si falla la asignación de algún parámetro
+     */
+    static void asignar(PreparedStatement pstm, Object... parametros) throws SQLException {
+        for (int i = 0; i < parametros.length; i++) {
+            Object valor = parametros[i];
+            if (valor instanceof LocalDate fecha) {
+                valor = Date.valueOf(fecha);
+            } else if (valor instanceof LocalTime hora) {
+                valor = Time.valueOf(hora);
+            } else if (valor instanceof Enum<?> constante) {
+                valor = constante.name();
+            }
+            pstm.setObject(i + 1, valor);
+        }
+    }
+}
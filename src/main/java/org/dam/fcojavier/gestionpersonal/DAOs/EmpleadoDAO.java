@@ -1,17 +1,28 @@
 package org.dam.fcojavier.gestionpersonal.DAOs;
 
 import org.dam.fcojavier.gestionpersonal.bbdd.ConnectionDB;
+import org.dam.fcojavier.gestionpersonal.bbdd.MapaIdentidad;
+import org.dam.fcojavier.gestionpersonal.bbdd.UnidadTrabajo;
 import org.dam.fcojavier.gestionpersonal.enums.DAOErrorTipo;
+import org.dam.fcojavier.gestionpersonal.enums.OrdenEmpleado;
 import org.dam.fcojavier.gestionpersonal.enums.TipoEmpleado;
 import org.dam.fcojavier.gestionpersonal.exceptions.DAOException;
 import org.dam.fcojavier.gestionpersonal.interfaces.CrudDAO;
+import org.dam.fcojavier.gestionpersonal.interfaces.RowMapper;
 import org.dam.fcojavier.gestionpersonal.model.Empleado;
+import org.dam.fcojavier.gestionpersonal.model.EmpleadoResumen;
 import org.dam.fcojavier.gestionpersonal.model.Empresa;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Clase que implementa el acceso a datos para la entidad Empleado.
@@ -23,97 +34,408 @@ public class EmpleadoDAO implements CrudDAO<Empleado> {
     /** Consulta SQL para insertar un nuevo empleado */
     private final String insert_SQL = "INSERT INTO empleado (id_empresa, nombre, apellidos, departamento, telefono, email, puesto, rol, activo) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
     
-    /** Consulta SQL para actualizar un empleado existente */
-    private final String update_SQL = "UPDATE empleado SET id_empresa = ?, nombre = ?, apellidos = ?, telefono = ?, email = ?, activo = ?, departamento = ?, rol = ? WHERE id_empleado = ?";
+    /** Consulta SQL para actualizar un empleado existente si conserva la versión leída */
+    private final String update_SQL = "UPDATE empleado SET id_empresa = ?, nombre = ?, apellidos = ?, telefono = ?, email = ?, activo = ?, departamento = ?, rol = ?, " +
+            "version = version + 1 WHERE id_empleado = ? AND version = ?";
+
+    /** Consulta SQL para comprobar si existe un empleado */
+    private final String exists_SQL = "SELECT 1 FROM empleado WHERE id_empleado = ?";
     
     /** Consulta SQL para eliminar un empleado */
     private final String delete_SQL = "DELETE FROM empleado WHERE id_empleado = ?";
     
+    /**
+     * Columnas de un empleado (alias {@code e}) y de su empresa (alias {@code em}) para las
+     * consultas con JOIN, sin el hash de la contraseña. Las usan también otros DAOs que
+     * cargan el empleado junto con sus propias filas.
+     */
+    static final String COLUMNAS_EMPLEADO_EMPRESA = "e.id_empleado, e.nombre, e.apellidos, e.departamento, e.telefono, " +
+            "e.email, e.puesto, e.activo, e.rol, e.version AS empleado_version, " +
+            "em.id_empresa AS empresa_id, em.nombre AS empresa_nombre, em.direccion AS empresa_direccion, " +
+            "em.telefono AS empresa_telefono, em.email AS empresa_email, em.version AS empresa_version";
+
+    /** Consulta SQL base que obtiene cada empleado junto con su empresa */
+    private final String selectConEmpresa_SQL = "SELECT " + COLUMNAS_EMPLEADO_EMPRESA +
+            " FROM empleado e INNER JOIN empresa em ON e.id_empresa = em.id_empresa";
+
     /** Consulta SQL para buscar un empleado por su ID */
-    private final String findById_SQL = "SELECT * FROM empleado WHERE id_empleado = ?";
+    private final String findById_SQL = selectConEmpresa_SQL + " WHERE e.id_empleado = ?";
     
     /** Consulta SQL para obtener todos los empleados */
-    private final String findAll_SQL = "SELECT * FROM empleado";
+    private final String findAll_SQL = selectConEmpresa_SQL;
     
     /** Consulta SQL para buscar un empleado por su email */
-    private final String findByEmail_SQL = "SELECT * FROM empleado WHERE email = ?";
+    private final String findByEmail_SQL = selectConEmpresa_SQL + " WHERE e.email = ?";
     
+    /** Columnas propias de un empleado, sin la empresa, para las consultas sobre una sola empresa */
+    private static final String COLUMNAS_EMPLEADO = "id_empleado, nombre, apellidos, departamento, telefono, " +
+            "email, puesto, activo, rol, version AS empleado_version";
+
     /** Consulta SQL para obtener empleados por empresa */
-    private final String findByEmpresa_SQL = "SELECT * FROM empleado WHERE id_empresa = ?";
+    private final String findByEmpresa_SQL = "SELECT " + COLUMNAS_EMPLEADO + " FROM empleado WHERE id_empresa = ?";
+
+    /** Consulta SQL para verificar si una empresa tiene algún empleado */
+    private final String existsByEmpresa_SQL = "SELECT EXISTS(SELECT 1 FROM empleado WHERE id_empresa = ?)";
+
+    /**
+     * Consulta SQL que cuenta los empleados de una empresa. La usa el resumen del panel
+     * principal de {@link EmpresaDAO} como subconsulta.
+     */
+    static final String CUENTA_EMPLEADOS = "SELECT COUNT(*) FROM empleado WHERE id_empresa = ?";
+
+    /** Consulta SQL para obtener el resumen de los empleados de una empresa */
+    private final String findResumenByEmpresa_SQL = "SELECT id_empleado, nombre, apellidos, departamento, rol, activo " +
+            "FROM empleado WHERE id_empresa = ? ORDER BY apellidos, nombre";
+
+    /** Consulta SQL para obtener una página de empleados a partir de un ID */
+    private final String findPage_SQL = selectConEmpresa_SQL + " WHERE e.id_empleado > ? ORDER BY e.id_empleado LIMIT ?";
+
+    /** Consulta SQL para obtener una página de los empleados de una empresa a partir de un ID */
+    private final String findPageByEmpresa_SQL = "SELECT " + COLUMNAS_EMPLEADO + " FROM empleado WHERE id_empresa = ? AND id_empleado > ? " +
+            "ORDER BY id_empleado LIMIT ?";
+
+    /** Número máximo de empleados por sentencia en las operaciones por lotes */
+    private static final int TAMANO_LOTE = 500;
+
+    /** Empleado ya registrado que coincide por email o teléfono con uno de un lote */
+    private record Existente(int idEmpleado, int idEmpresa, String email, String telefono) {
+    }
+
+    /** Conversión de las filas con el ID, la empresa, el email y el teléfono de un empleado */
+    private static final RowMapper<Existente> EXISTENTE = metaData -> {
+        int idEmpleado = RowMapper.columna(metaData, "id_empleado");
+        int idEmpresa = RowMapper.columna(metaData, "id_empresa");
+        int email = RowMapper.columna(metaData, "email");
+        int telefono = RowMapper.columna(metaData, "telefono");
+        return rs -> new Existente(rs.getInt(idEmpleado), rs.getInt(idEmpresa), rs.getString(email),
+                rs.getString(telefono));
+    };
+
+    /** Conversión de los datos propios de un empleado, sin asignarle la empresa */
+    private static final RowMapper<Empleado> EMPLEADO = metaData -> {
+        int idEmpleado = RowMapper.columna(metaData, "id_empleado");
+        int nombre = RowMapper.columna(metaData, "nombre");
+        int apellidos = RowMapper.columna(metaData, "apellidos");
+        int departamento = RowMapper.columna(metaData, "departamento");
+        int telefono = RowMapper.columna(metaData, "telefono");
+        int email = RowMapper.columna(metaData, "email");
+        int puesto = RowMapper.columna(metaData, "puesto");
+        int activo = RowMapper.columna(metaData, "activo");
+        int rol = RowMapper.columna(metaData, "rol");
+        int version = RowMapper.columna(metaData, "empleado_version");
+        return rs -> {
+            Empleado empleado = new Empleado();
+            empleado.setIdEmpleado(rs.getInt(idEmpleado));
+            empleado.setNombre(rs.getString(nombre));
+            empleado.setApellido(rs.getString(apellidos));
+            empleado.setDepartamento(rs.getString(departamento));
+            empleado.setTelefono(rs.getString(telefono));
+            empleado.setEmail(rs.getString(email));
+            empleado.setPuesto(rs.getString(puesto));
+            empleado.setActivo(rs.getBoolean(activo));
+            empleado.setRol(TipoEmpleado.valueOf(rs.getString(rol)));
+            empleado.setVersion(rs.getInt(version));
+            return empleado;
+        };
+    };
+
+    /** Conversión de las filas de {@code findResumenByEmpresa_SQL} */
+    private static final RowMapper<EmpleadoResumen> RESUMEN = metaData -> {
+        int idEmpleado = RowMapper.columna(metaData, "id_empleado");
+        int nombre = RowMapper.columna(metaData, "nombre");
+        int apellidos = RowMapper.columna(metaData, "apellidos");
+        int departamento = RowMapper.columna(metaData, "departamento");
+        int rol = RowMapper.columna(metaData, "rol");
+        int activo = RowMapper.columna(metaData, "activo");
+        return rs -> new EmpleadoResumen(rs.getInt(idEmpleado), rs.getString(nombre), rs.getString(apellidos),
+                rs.getString(departamento), TipoEmpleado.valueOf(rs.getString(rol)), rs.getBoolean(activo));
+    };
+
+    /**
+     * Conversión de las filas con {@link #COLUMNAS_EMPLEADO_EMPRESA}. Las filas de un mismo
+     * empleado comparten una única instancia, igual que las de una misma empresa, que no
+     * incluye el hash de la contraseña. Con un {@link MapaIdentidad} abierto se reutilizan
+     * además las instancias ya leídas en el mapa.
+     */
+    static final RowMapper<Empleado> EMPLEADO_CON_EMPRESA = metaData -> {
+        RowMapper.Lector<Empleado> datos = EMPLEADO.preparar(metaData);
+        int idEmpleado = RowMapper.columna(metaData, "id_empleado");
+        int idEmpresa = RowMapper.columna(metaData, "empresa_id");
+        int nombre = RowMapper.columna(metaData, "empresa_nombre");
+        int direccion = RowMapper.columna(metaData, "empresa_direccion");
+        int telefono = RowMapper.columna(metaData, "empresa_telefono");
+        int email = RowMapper.columna(metaData, "empresa_email");
+        int version = RowMapper.columna(metaData, "empresa_version");
+        Map<Integer, Empleado> empleados = MapaIdentidad.entidades(Empleado.class);
+        Map<Integer, Empresa> empresas = MapaIdentidad.entidades(Empresa.class);
+        return rs -> {
+            Empleado empleado = empleados.get(rs.getInt(idEmpleado));
+            if (empleado == null) {
+                Empresa empresa = empresas.get(rs.getInt(idEmpresa));
+                if (empresa == null) {
+                    empresa = new Empresa();
+                    empresa.setIdEmpresa(rs.getInt(idEmpresa));
+                    empresa.setNombre(rs.getString(nombre));
+                    empresa.setDireccion(rs.getString(direccion));
+                    empresa.setTelefono(rs.getString(telefono));
+                    empresa.setEmail(rs.getString(email));
+                    empresa.setVersion(rs.getInt(version));
+                    empresas.put(empresa.getIdEmpresa(), empresa);
+                }
+                empleado = datos.leer(rs);
+                empleado.setEmpresa(empresa);
+                empleados.put(empleado.getIdEmpleado(), empleado);
+            }
+            return empleado;
+        };
+    };
 
     /**
      * Inserta un nuevo empleado en la base de datos.
-     * Verifica que el empleado no exista previamente por su email.
+     * El email y el teléfono deben ser únicos; si alguno ya está registrado la base de
+     * datos rechaza la inserción.
      *
      * @param empleado El empleado a insertar
-     * @return El empleado insertado con su ID generado, o null si ya existe
-     * @throws DAOException Si ocurre un error durante la inserción
+     * @return El empleado insertado con su ID generado, o null si no se indica ninguno
+     * @throws DAOException Si ocurre un error durante la inserción, de tipo
+     *         {@link DAOErrorTipo#DUPLICATE_KEY} si ya existe un empleado con el mismo email o teléfono
      */
     @Override
     public Empleado insert(Empleado empleado) throws DAOException {
-        if(empleado!=null && findByEmail(empleado.getEmail())==null) {
-            try(PreparedStatement pstm= ConnectionDB.getConnection().prepareStatement(insert_SQL, PreparedStatement.RETURN_GENERATED_KEYS)){
-                pstm.setInt(1, empleado.getEmpresa().getIdEmpresa());
-                pstm.setString(2, empleado.getNombre());
-                pstm.setString(3, empleado.getApellido());
-                pstm.setString(4, empleado.getDepartamento());
-                pstm.setString(5, empleado.getTelefono());
-                pstm.setString(6, empleado.getEmail());
-                pstm.setString(7, empleado.getPuesto());
-                pstm.setString(8, empleado.getRol().name());
-                pstm.setBoolean(9, empleado.getActivo());
-
-                if (pstm.executeUpdate() == 0) {
-                    throw new DAOException("Error al crear el empleado", DAOErrorTipo.INSERT_ERROR);
-                }
-
-                ResultSet rs = pstm.getGeneratedKeys();
-                if (rs.next()) {
-                    empleado.setIdEmpleado(rs.getInt(1));
-                }
-
+        if(empleado!=null) {
+            int idEmpleado;
+            try {
+                idEmpleado = EjecutorSql.insertar("EmpleadoDAO.insert", ConnectionDB::getConnection, insert_SQL,
+                        empleado.getEmpresa().getIdEmpresa(), empleado.getNombre(), empleado.getApellido(),
+                        empleado.getDepartamento(), empleado.getTelefono(), empleado.getEmail(),
+                        empleado.getPuesto(), empleado.getRol(), empleado.getActivo());
             }catch (SQLException e){
-                throw new DAOException(e.getMessage(), DAOErrorTipo.CONNECTION_ERROR);
+                throw EjecutorSql.error("Error al insertar el empleado", e, DAOErrorTipo.CONNECTION_ERROR);
             }
-        }else{
-            empleado=null;
+            if (idEmpleado == 0) {
+                throw new DAOException("Error al crear el empleado", DAOErrorTipo.INSERT_ERROR);
+            }
+            empleado.setIdEmpleado(idEmpleado);
         }
         return empleado;
     }
 
     /**
-     * Actualiza un empleado existente en la base de datos.
+     * Inserta o actualiza varios empleados de una vez, en una sola transacción, como en la
+     * sincronización con el sistema de personal. Un empleado cuyo email o teléfono ya está
+     * registrado actualiza esa fila con sus datos; el resto se insertan. Los empleados se
+     * envían en sentencias de hasta {@value #TAMANO_LOTE} filas con
+     * {@code INSERT ... ON DUPLICATE KEY UPDATE}, y a los guardados se les asigna su ID.
+     * No se guarda, y se devuelve entre los duplicados, un empleado cuyo email pertenece a
+     * un empleado de otra empresa, cuyo teléfono pertenece a otro empleado con otro email,
+     * o que repite el email o el teléfono de uno anterior del lote: así no se mezclan los
+     * datos de dos personas ni se mueven empleados de una empresa a otra.
+     *
+     * @param empleados Empleados a guardar
+     * @return Resultado con los empleados insertados, los actualizados y los descartados
+     * @throws DAOException Si ocurre un error al guardar; en ese caso no se guarda ninguno.
+     *         Es de tipo {@link DAOErrorTipo#INSERT_ERROR}, sin llegar a consultar la base de
+     *         datos, si algún empleado no tiene email o teléfono
+     */
+    public ResultadoLote<Empleado> upsertAll(Collection<Empleado> empleados) throws DAOException {
+        List<Empleado> insertados = new ArrayList<>();
+        List<Empleado> actualizados = new ArrayList<>();
+        List<Empleado> duplicados = new ArrayList<>();
+        List<Empleado> todos = new ArrayList<>(empleados);
+        for (int i = 0; i < todos.size(); i++) {
+            Empleado empleado = todos.get(i);
+            if (empleado.getEmail() == null || empleado.getTelefono() == null) {
+                throw new DAOException("El empleado " + (i + 1) + " del lote no tiene email o teléfono",
+                        DAOErrorTipo.INSERT_ERROR);
+            }
+        }
+
+        try (UnidadTrabajo unidad = UnidadTrabajo.iniciar()) {
+            for (int desde = 0; desde < todos.size(); desde += TAMANO_LOTE) {
+                List<Empleado> bloque = todos.subList(desde, Math.min(desde + TAMANO_LOTE, todos.size()));
+                guardarBloque(bloque, insertados, actualizados, duplicados);
+            }
+            unidad.confirmar();
+        } catch (SQLException e) {
+            throw EjecutorSql.error("Error al sincronizar los empleados", e, DAOErrorTipo.INSERT_ERROR);
+        }
+        return new ResultadoLote<>(insertados, actualizados, duplicados);
+    }
+
+    /**
+     * Guarda un bloque de empleados de {@link #upsertAll}. Primero bloquea las filas que ya
+     * existen con esos emails o teléfonos, para saber cuáles se actualizarán y descartar los
+     * empleados de otra empresa, los que tienen el teléfono de otra persona y los que repiten
+     * el email o el teléfono de uno anterior del bloque; después envía la sentencia con el
+     * resto y, si hubo inserciones, consulta los IDs generados.
+     *
+     * @param bloque Empleados del bloque, todos con email y teléfono
+     * @param insertados Lista a la que se añaden los empleados insertados
+     * @param actualizados Lista a la que se añaden los empleados actualizados
+     * @param duplicados Lista a la que se añaden los empleados descartados
+     * @throws SQLException Si falla alguna de las sentencias
+     */
+    private void guardarBloque(List<Empleado> bloque, List<Empleado> insertados, List<Empleado> actualizados,
+                               List<Empleado> duplicados) throws SQLException {
+        Object[] claves = new Object[bloque.size() * 2];
+        for (int i = 0; i < bloque.size(); i++) {
+            claves[i] = bloque.get(i).getEmail();
+            claves[bloque.size() + i] = bloque.get(i).getTelefono();
+        }
+        Map<String, Existente> porEmail = new HashMap<>();
+        Map<String, Existente> porTelefono = new HashMap<>();
+        for (Existente existente : EjecutorSql.lista("EmpleadoDAO.upsertAll", ConnectionDB::getConnection,
+                existentesLote_SQL(bloque.size()), EXISTENTE, claves)) {
+            porEmail.put(normalizar(existente.email()), existente);
+            porTelefono.put(existente.telefono(), existente);
+        }
+
+        List<Empleado> validos = new ArrayList<>();
+        Set<String> emailsDelBloque = new HashSet<>();
+        Set<String> telefonosDelBloque = new HashSet<>();
+        for (Empleado empleado : bloque) {
+            String email = normalizar(empleado.getEmail());
+            Existente delEmail = porEmail.get(email);
+            Existente delTelefono = porTelefono.get(empleado.getTelefono());
+            if ((delEmail != null && delEmail.idEmpresa() != empleado.getEmpresa().getIdEmpresa())
+                    || (delTelefono != null && !delTelefono.equals(delEmail))
+                    || emailsDelBloque.contains(email) || telefonosDelBloque.contains(empleado.getTelefono())) {
+                duplicados.add(empleado);
+            } else {
+                emailsDelBloque.add(email);
+                telefonosDelBloque.add(empleado.getTelefono());
+                validos.add(empleado);
+            }
+        }
+        if (validos.isEmpty()) {
+            return;
+        }
+
+        Object[] valores = new Object[validos.size() * 9];
+        int v = 0;
+        for (Empleado empleado : validos) {
+            valores[v++] = empleado.getEmpresa().getIdEmpresa();
+            valores[v++] = empleado.getNombre();
+            valores[v++] = empleado.getApellido();
+            valores[v++] = empleado.getDepartamento();
+            valores[v++] = empleado.getTelefono();
+            valores[v++] = empleado.getEmail();
+            valores[v++] = empleado.getPuesto();
+            valores[v++] = empleado.getRol();
+            valores[v++] = empleado.getActivo();
+        }
+        EjecutorSql.actualizar("EmpleadoDAO.upsertAll", ConnectionDB::getConnection, upsertLote_SQL(validos.size()), valores);
+
+        List<Empleado> nuevos = new ArrayList<>();
+        for (Empleado empleado : validos) {
+            Existente existente = porEmail.get(normalizar(empleado.getEmail()));
+            if (existente == null) {
+                nuevos.add(empleado);
+            } else {
+                empleado.setIdEmpleado(existente.idEmpleado());
+                actualizados.add(empleado);
+                MapaIdentidad.quitar(Empleado.class, existente.idEmpleado());
+            }
+        }
+
+        if (!nuevos.isEmpty()) {
+            Map<String, Integer> generados = new HashMap<>();
+            for (Existente existente : EjecutorSql.lista("EmpleadoDAO.upsertAll", ConnectionDB::getConnection,
+                    generadosLote_SQL(nuevos.size()), EXISTENTE, nuevos.stream().map(Empleado::getEmail).toArray())) {
+                generados.put(normalizar(existente.email()), existente.idEmpleado());
+            }
+            for (Empleado empleado : nuevos) {
+                Integer idEmpleado = generados.get(normalizar(empleado.getEmail()));
+                if (idEmpleado != null) {
+                    empleado.setIdEmpleado(idEmpleado);
+                }
+                insertados.add(empleado);
+            }
+        }
+    }
+
+    /**
+     * Construye la inserción de varios empleados en una sola sentencia. Si el email o el
+     * teléfono de alguno ya existe, se actualizan los datos de esa fila salvo la empresa,
+     * que no cambia nunca.
+     *
+     * @param filas Número de empleados
+     * @return Sentencia SQL con nueve parámetros por empleado, en el orden de {@code insert_SQL}
+     */
+    private String upsertLote_SQL(int filas) {
+        return "INSERT INTO empleado (id_empresa, nombre, apellidos, departamento, telefono, email, puesto, rol, activo) VALUES " +
+                String.join(", ", Collections.nCopies(filas, "(?, ?, ?, ?, ?, ?, ?, ?, ?)")) +
+                " ON DUPLICATE KEY UPDATE nombre = VALUES(nombre), " +
+                "apellidos = VALUES(apellidos), departamento = VALUES(departamento), telefono = VALUES(telefono), " +
+                "email = VALUES(email), puesto = VALUES(puesto), rol = VALUES(rol), activo = VALUES(activo), " +
+                "version = version + 1";
+    }
+
+    /**
+     * Construye la consulta que bloquea los empleados ya registrados con alguno de los
+     * emails o teléfonos de un bloque.
+     *
+     * @param filas Número de empleados del bloque
+     * @return Consulta SQL con los emails como primeros parámetros y los teléfonos a continuación
+     */
+    private String existentesLote_SQL(int filas) {
+        String marcas = String.join(", ", Collections.nCopies(filas, "?"));
+        return "SELECT id_empleado, id_empresa, email, telefono FROM empleado WHERE email IN (" + marcas + ") " +
+                "OR telefono IN (" + marcas + ") FOR UPDATE";
+    }
+
+    /**
+     * Construye la consulta que obtiene los IDs de los empleados recién insertados por su email.
+     *
+     * @param filas Número de empleados insertados
+     * @return Consulta SQL con un parámetro por email
+     */
+    private String generadosLote_SQL(int filas) {
+        return "SELECT id_empleado, id_empresa, email, telefono FROM empleado WHERE email IN (" +
+                String.join(", ", Collections.nCopies(filas, "?")) + ")";
+    }
+
+    /**
+     * Normaliza un email para compararlo igual que la base de datos, sin distinguir mayúsculas.
+     *
+     * @param email Email a normalizar
+     * @return Email en minúsculas
+     */
+    private static String normalizar(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Actualiza un empleado existente en la base de datos, siempre que no haya cambiado
+     * desde que se leyó. Al actualizarlo se incrementa su versión.
      *
      * @param empleado El empleado con los nuevos datos
-     * @return El empleado actualizado, o null si no existe
-     * @throws DAOException Si ocurre un error durante la actualización
+     * @return El empleado actualizado, o null si no se indica ninguno
+     * @throws DAOException Si ocurre un error durante la actualización, de tipo
+     *         {@link DAOErrorTipo#NOT_FOUND} si el empleado no existe, {@link DAOErrorTipo#VERSION_CONFLICT}
+     *         si otro usuario lo ha modificado o {@link DAOErrorTipo#DUPLICATE_KEY}
+     *         si el email o el teléfono pertenecen a otro empleado
      */
     @Override
     public Empleado update(Empleado empleado) throws DAOException {
         Empleado empleadoActualizado = null;
         if(empleado != null) {
-            Empleado empleadoExistente = findById(empleado.getIdEmpleado());
-            if(empleadoExistente != null) {
-                try(PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(update_SQL)) {
-                    pstm.setInt(1, empleado.getEmpresa().getIdEmpresa());
-                    pstm.setString(2, empleado.getNombre());
-                    pstm.setString(3, empleado.getApellido());
-                    pstm.setString(4, empleado.getTelefono());
-                    pstm.setString(5, empleado.getEmail());
-                    pstm.setBoolean(6, empleado.getActivo());
-                    pstm.setString(7, empleado.getDepartamento());
-                    pstm.setString(8, empleado.getRol().name());
-                    pstm.setInt(9, empleadoExistente.getIdEmpleado());
-
-                    if(pstm.executeUpdate() > 0) {
-                        empleadoActualizado = empleado;
-                    }
-                } catch (SQLException e) {
-                    throw new DAOException("Error al modificar el empleado: " + e.getMessage(), DAOErrorTipo.UPDATE_ERROR);
-                }
-            } else {
-                throw new DAOException("El empleado no existe", DAOErrorTipo.NOT_FOUND);
+            int filas;
+            try {
+                filas = EjecutorSql.actualizar("EmpleadoDAO.update", ConnectionDB::getConnection, update_SQL,
+                        empleado.getEmpresa().getIdEmpresa(), empleado.getNombre(), empleado.getApellido(),
+                        empleado.getTelefono(), empleado.getEmail(), empleado.getActivo(),
+                        empleado.getDepartamento(), empleado.getRol(), empleado.getIdEmpleado(),
+                        empleado.getVersion());
+            } catch (SQLException e) {
+                throw EjecutorSql.error("Error al modificar el empleado", e, DAOErrorTipo.UPDATE_ERROR);
+            }
+            if (filas == 0) {
+                throw EjecutorSql.sinActualizar("EmpleadoDAO.update", exists_SQL, empleado.getIdEmpleado(), "El empleado");
             }
+            empleado.setVersion(empleado.getVersion() + 1);
+            empleadoActualizado = empleado;
+            MapaIdentidad.quitar(Empleado.class, empleado.getIdEmpleado());
         }
         return empleadoActualizado;
     }
@@ -122,22 +444,19 @@ public class EmpleadoDAO implements CrudDAO<Empleado> {
      * Elimina un empleado de la base de datos.
      *
      * @param empleado El empleado a eliminar
-     * @return true si se eliminó correctamente, false en caso contrario
+     * @return true si se eliminó correctamente, false si no existía
      * @throws DAOException Si ocurre un error durante la eliminación
      */
     @Override
     public boolean delete(Empleado empleado) throws DAOException {
         boolean deleted=false;
         if(empleado!=null){
-            Empleado empleadoEncontrado= findById(empleado.getIdEmpleado());
-            if(empleadoEncontrado!=null){
-                try(PreparedStatement pstm=ConnectionDB.getConnection().prepareStatement(delete_SQL)){
-                    pstm.setInt(1, empleadoEncontrado.getIdEmpleado());
-                    pstm.executeUpdate();
-                    deleted=true;
-                }catch (SQLException e){
-                    throw new DAOException("Error al borrar el empleado: "+e.getMessage(), DAOErrorTipo.DELETE_ERROR);
-                }
+            try {
+                deleted = EjecutorSql.actualizar("EmpleadoDAO.delete",
+                        ConnectionDB::getConnection, delete_SQL, empleado.getIdEmpleado()) > 0;
+                MapaIdentidad.quitar(Empleado.class, empleado.getIdEmpleado());
+            }catch (SQLException e){
+                throw EjecutorSql.error("Error al borrar el empleado", e, DAOErrorTipo.DELETE_ERROR);
             }
         }
         return deleted;
@@ -152,30 +471,17 @@ public class EmpleadoDAO implements CrudDAO<Empleado> {
      */
     @Override
     public Empleado findById(int id) throws DAOException {
-        Empleado empleado = null;
-        EmpresaDAO EmpresaDAO = new EmpresaDAO();
-
-        try (PreparedStatement stmt=ConnectionDB.getConnection().prepareStatement(findById_SQL)){
-            stmt.setInt(1, id);
-            try(ResultSet rs=stmt.executeQuery()){
-                if (rs.next()) {
-                    empleado = new Empleado();
-                    empleado.setIdEmpleado(rs.getInt("id_empleado"));
-                    empleado.setEmpresa(EmpresaDAO.findById(rs.getInt("id_empresa")));
-                    empleado.setNombre(rs.getString("nombre"));
-                    empleado.setApellido(rs.getString("apellidos"));
-                    empleado.setDepartamento(rs.getString("departamento"));
-                    empleado.setTelefono(rs.getString("telefono"));
-                    empleado.setEmail(rs.getString("email"));
-                    empleado.setPuesto(rs.getString("puesto"));
-                    empleado.setActivo(rs.getBoolean("activo"));
-                    empleado.setRol(TipoEmpleado.valueOf(rs.getString("rol")));
-                }
-            }
+        Empleado empleado = MapaIdentidad.buscar(Empleado.class, id);
+        if (empleado != null) {
+            return empleado;
+        }
+
+        try {
+            return EjecutorSql.primero("EmpleadoDAO.findById",
+                    ConnectionDB::getConnection, findById_SQL, EMPLEADO_CON_EMPRESA, id);
         }catch (SQLException e){
             throw new DAOException("Error al buscar el empleado: "+e.getMessage(), DAOErrorTipo.NOT_FOUND);
         }
-        return empleado;
     }
 
     /**
@@ -186,29 +492,12 @@ public class EmpleadoDAO implements CrudDAO<Empleado> {
      */
     @Override
     public List<Empleado> findAll() throws DAOException {
-        List<Empleado> empleados = new java.util.ArrayList<>();
-        EmpresaDAO EmpresaDAO = new EmpresaDAO();
-
-        try(PreparedStatement pstm=ConnectionDB.getConnection().prepareStatement(findAll_SQL)){
-            ResultSet rs=pstm.executeQuery();
-            while(rs.next()){
-                Empleado empleado=new Empleado();
-                empleado.setIdEmpleado(rs.getInt("id_empleado"));
-                empleado.setEmpresa(EmpresaDAO.findById(rs.getInt("id_empresa")));
-                empleado.setNombre(rs.getString("nombre"));
-                empleado.setApellido(rs.getString("apellidos"));
-                empleado.setDepartamento(rs.getString("departamento"));
-                empleado.setTelefono(rs.getString("telefono"));
-                empleado.setEmail(rs.getString("email"));
-                empleado.setPuesto(rs.getString("puesto"));
-                empleado.setActivo(rs.getBoolean("activo"));
-                empleado.setRol(TipoEmpleado.valueOf(rs.getString("rol")));
-                empleados.add(empleado);
-            }
+        try {
+            return EjecutorSql.lista("EmpleadoDAO.findAll",
+                    ConnectionDB::getReadConnection, findAll_SQL, EMPLEADO_CON_EMPRESA);
         }catch (SQLException e){
             throw new DAOException("Error al listar los empleados: "+e.getMessage(), DAOErrorTipo.NOT_FOUND);
         }
-        return empleados;
     }
 
     /**
@@ -219,30 +508,12 @@ public class EmpleadoDAO implements CrudDAO<Empleado> {
      * @throws DAOException Si ocurre un error durante la búsqueda
      */
     public Empleado findByEmail(String email) throws DAOException {
-        Empleado empleado = null;
-        EmpresaDAO empresaDAO = new EmpresaDAO();
-
-        try (PreparedStatement stmt = ConnectionDB.getConnection().prepareStatement(findByEmail_SQL)){
-            stmt.setString(1, email);
-            try(ResultSet rs = stmt.executeQuery()){
-                if (rs.next()) {
-                    empleado = new Empleado();
-                    empleado.setIdEmpleado(rs.getInt("id_empleado"));
-                    empleado.setEmpresa(empresaDAO.findById(rs.getInt("id_empresa")));
-                    empleado.setNombre(rs.getString("nombre"));
-                    empleado.setApellido(rs.getString("apellidos"));
-                    empleado.setDepartamento(rs.getString("departamento"));
-                    empleado.setTelefono(rs.getString("telefono"));
-                    empleado.setEmail(rs.getString("email"));
-                    empleado.setPuesto(rs.getString("puesto"));
-                    empleado.setActivo(rs.getBoolean("activo"));
-                    empleado.setRol(TipoEmpleado.valueOf(rs.getString("rol")));
-                }
-            }
+        try {
+            return EjecutorSql.primero("EmpleadoDAO.findByEmail",
+                    ConnectionDB::getConnection, findByEmail_SQL, EMPLEADO_CON_EMPRESA, email);
         } catch (SQLException e){
             throw new DAOException("Error al buscar el empleado por email: " + e.getMessage(), DAOErrorTipo.NOT_FOUND);
         }
-        return empleado;
     }
 
     /**
@@ -253,17 +524,15 @@ public class EmpleadoDAO implements CrudDAO<Empleado> {
      * @throws DAOException Si ocurre un error durante la verificación
      */
     public boolean hayEmpleadosByEmpresa(int idEmpresa) throws DAOException {
-        int cantidadEmpleados = 0;
-        try (PreparedStatement stmt = ConnectionDB.getConnection().prepareStatement(findByEmpresa_SQL)) {
-            stmt.setInt(1, idEmpresa);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                cantidadEmpleados= rs.getInt(1);
-            }
+        Boolean hayEmpleados;
+        try {
+            hayEmpleados = EjecutorSql.primero("EmpleadoDAO.hayEmpleadosByEmpresa",
+                    ConnectionDB::getReadConnection, existsByEmpresa_SQL,
+                    _ -> rs -> rs.getBoolean(1), idEmpresa);
         } catch (SQLException e) {
             throw new DAOException("Error al verificar empleados de la empresa", DAOErrorTipo.NOT_FOUND);
         }
-        return cantidadEmpleados>0;
+        return hayEmpleados != null && hayEmpleados;
     }
 
     /**
@@ -274,29 +543,159 @@ public class EmpleadoDAO implements CrudDAO<Empleado> {
      * @throws DAOException Si ocurre un error durante la búsqueda
      */
     public List<Empleado> findByEmpresa(Empresa empresa) throws DAOException {
-        List<Empleado> empleados = new java.util.ArrayList<>();
-
-        try (PreparedStatement stmt = ConnectionDB.getConnection().prepareStatement(findByEmpresa_SQL)) {
-            stmt.setInt(1, empresa.getIdEmpresa());
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Empleado empleado = new Empleado();
-                    empleado.setIdEmpleado(rs.getInt("id_empleado"));
-                    empleado.setEmpresa(empresa);
-                    empleado.setNombre(rs.getString("nombre"));
-                    empleado.setApellido(rs.getString("apellidos"));
-                    empleado.setDepartamento(rs.getString("departamento"));
-                    empleado.setTelefono(rs.getString("telefono"));
-                    empleado.setEmail(rs.getString("email"));
-                    empleado.setPuesto(rs.getString("puesto"));
-                    empleado.setActivo(rs.getBoolean("activo"));
-                    empleado.setRol(TipoEmpleado.valueOf(rs.getString("rol")));
-                    empleados.add(empleado);
-                }
+        try {
+            return EjecutorSql.lista("EmpleadoDAO.findByEmpresa",
+                    ConnectionDB::getReadConnection, findByEmpresa_SQL, deLaEmpresa(empresa),
+                    empresa.getIdEmpresa());
+        } catch (SQLException e) {
+            throw new DAOException("Error al buscar empleados de la empresa: " + e.getMessage(), DAOErrorTipo.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Obtiene el resumen de los empleados de una empresa, ordenados por apellidos y nombre.
+     * Lee solo las columnas que muestran las listas y selectores; el empleado completo
+     * se carga con {@link #findById(int)} cuando se va a editar.
+     *
+     * @param idEmpresa ID de la empresa cuyos empleados se desean obtener
+     * @return Lista con el resumen de cada empleado de la empresa
+     * @throws DAOException Si ocurre un error durante la búsqueda
+     */
+    public List<EmpleadoResumen> findResumenByEmpresa(int idEmpresa) throws DAOException {
+        try {
+            return EjecutorSql.lista("EmpleadoDAO.findResumenByEmpresa",
+                    ConnectionDB::getReadConnection, findResumenByEmpresa_SQL, RESUMEN, idEmpresa);
+        } catch (SQLException e) {
+            throw new DAOException("Error al buscar empleados de la empresa: " + e.getMessage(), DAOErrorTipo.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Obtiene una página de empleados ordenados por su ID.
+     *
+     * @param afterId ID del último empleado ya leído, 0 para la primera página
+     * @param limit Número máximo de empleados de la página
+     * @return Lista con los empleados de la página
+     * @throws DAOException Si ocurre un error al obtener los datos
+     */
+    @Override
+    public List<Empleado> findPage(int afterId, int limit) throws DAOException {
+        try {
+            return EjecutorSql.lista("EmpleadoDAO.findPage",
+                    ConnectionDB::getReadConnection, findPage_SQL, EMPLEADO_CON_EMPRESA, afterId, limit);
+        } catch (SQLException e) {
+            throw new DAOException("Error al listar los empleados: " + e.getMessage(), DAOErrorTipo.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Obtiene una página de los empleados de una empresa, ordenados por su ID.
+     * La consulta recorre el índice de la empresa a partir del último ID leído, así que
+     * cada página cuesta lo mismo sea cual sea el tamaño de la plantilla.
+     *
+     * @param empresa La empresa cuyos empleados se desean obtener
+     * @param afterId ID del último empleado ya leído, 0 para la primera página
+     * @param limit Número máximo de empleados de la página
+     * @return Lista con los empleados de la página
+     * @throws DAOException Si ocurre un error durante la búsqueda
+     */
+    public List<Empleado> findPageByEmpresa(Empresa empresa, int afterId, int limit) throws DAOException {
+        try {
+            return EjecutorSql.lista("EmpleadoDAO.findPageByEmpresa",
+                    ConnectionDB::getReadConnection, findPageByEmpresa_SQL, deLaEmpresa(empresa),
+                    empresa.getIdEmpresa(), afterId, limit);
+        } catch (SQLException e) {
+            throw new DAOException("Error al buscar empleados de la empresa: " + e.getMessage(), DAOErrorTipo.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Obtiene una página de los empleados de una empresa en el orden indicado. Los
+     * empleados con el mismo valor del criterio se ordenan por su ID, y cada página continúa
+     * a partir del valor y el ID del último empleado leído, así que las páginas llegan ya en
+     * su orden final, sin repetir ni saltar ningún empleado.
+     *
+     * @param empresa La empresa cuyos empleados se desean obtener
+     * @param orden Criterio de ordenación
+     * @param ultimo Último empleado ya leído en ese orden, o null para la primera página
+     * @param limit Número máximo de empleados de la página
+     * @return Lista con los empleados de la página
+     * @throws DAOException Si ocurre un error durante la búsqueda
+     */
+    public List<Empleado> findPageByEmpresa(Empresa empresa, OrdenEmpleado orden, Empleado ultimo, int limit) throws DAOException {
+        try {
+            if (ultimo == null) {
+                return EjecutorSql.lista("EmpleadoDAO.findPageByEmpresa", ConnectionDB::getReadConnection,
+                        findPageByEmpresa_SQL(orden, false), deLaEmpresa(empresa), empresa.getIdEmpresa(), limit);
             }
+            Object clave = switch (orden) {
+                case NOMBRE_ASC, NOMBRE_DESC -> ultimo.getNombre();
+                case DEPARTAMENTO_ASC, DEPARTAMENTO_DESC -> ultimo.getDepartamento() == null ? "" : ultimo.getDepartamento();
+                case ROL -> ultimo.getRol().name();
+                case ACTIVOS_PRIMERO, INACTIVOS_PRIMERO -> ultimo.getActivo();
+            };
+            return EjecutorSql.lista("EmpleadoDAO.findPageByEmpresa", ConnectionDB::getReadConnection,
+                    findPageByEmpresa_SQL(orden, true), deLaEmpresa(empresa),
+                    empresa.getIdEmpresa(), clave, clave, ultimo.getIdEmpleado(), limit);
         } catch (SQLException e) {
             throw new DAOException("Error al buscar empleados de la empresa: " + e.getMessage(), DAOErrorTipo.NOT_FOUND);
         }
-        return empleados;
     }
-}
\ No newline at end of file
+
+    /**
+     * Construye la consulta de una página de los empleados de una empresa en un orden.
+     * El departamento vacío se ordena como una cadena vacía y el rol por su nombre, igual
+     * que los valores con los que se compara el último empleado leído.
+     *
+     * @param orden Criterio de ordenación
+     * @param siguiente true para continuar tras un empleado ya leído, false para la primera página
+     * @return Consulta SQL con la empresa, el valor del criterio dos veces y el ID del último
+     *         empleado si es una página siguiente, y el límite
+     */
+    private String findPageByEmpresa_SQL(OrdenEmpleado orden, boolean siguiente) {
+        String clave = switch (orden) {
+            case NOMBRE_ASC, NOMBRE_DESC -> "nombre";
+            case DEPARTAMENTO_ASC, DEPARTAMENTO_DESC -> "COALESCE(departamento, '')";
+            case ROL -> "CAST(rol AS CHAR)";
+            case ACTIVOS_PRIMERO, INACTIVOS_PRIMERO -> "activo";
+        };
+        String despues = siguiente ? " AND (" + clave + (orden.isDescendente() ? " < ?" : " > ?") +
+                " OR (" + clave + " = ? AND id_empleado > ?))" : "";
+        return "SELECT " + COLUMNAS_EMPLEADO + " FROM empleado WHERE id_empresa = ?" + despues +
+                " ORDER BY " + clave + (orden.isDescendente() ? " DESC" : "") + ", id_empleado LIMIT ?";
+    }
+
+    /**
+     * Crea la conversión de las filas de la tabla empleado de una empresa ya cargada,
+     * que se asigna a todos los empleados leídos.
+     *
+     * @param empresa Empresa de los empleados
+     * @return Conversión de las filas
+     */
+    private static RowMapper<Empleado> deLaEmpresa(Empresa empresa) {
+        return metaData -> {
+            RowMapper.Lector<Empleado> datos = EMPLEADO.preparar(metaData);
+            int idEmpleado = RowMapper.columna(metaData, "id_empleado");
+            Map<Integer, Empleado> porId = MapaIdentidad.entidades(Empleado.class);
+            return rs -> {
+                Empleado empleado = porId.get(rs.getInt(idEmpleado));
+                if (empleado == null) {
+                    empleado = datos.leer(rs);
+                    empleado.setEmpresa(empresa);
+                    porId.put(empleado.getIdEmpleado(), empleado);
+                }
+                return empleado;
+            };
+        };
+    }
+
+    /**
+     * Obtiene las sentencias SQL que usa el panel principal de la empresa,
+     * para prepararlas durante el arranque de la aplicación.
+     *
+     * @return Lista de sentencias SQL
+     */
+    public List<String> getSentenciasFrecuentes() {
+        return List.of(findAll_SQL, findById_SQL, findByEmpresa_SQL, findPageByEmpresa_SQL);
+    }
+}
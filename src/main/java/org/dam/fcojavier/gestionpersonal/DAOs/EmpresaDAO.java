@@ -1,16 +1,17 @@
 package org.dam.fcojavier.gestionpersonal.DAOs;
 
 import org.dam.fcojavier.gestionpersonal.bbdd.ConnectionDB;
+import org.dam.fcojavier.gestionpersonal.bbdd.MapaIdentidad;
 import org.dam.fcojavier.gestionpersonal.enums.DAOErrorTipo;
 import org.dam.fcojavier.gestionpersonal.exceptions.DAOException;
 import org.dam.fcojavier.gestionpersonal.interfaces.CrudDAO;
+import org.dam.fcojavier.gestionpersonal.interfaces.RowMapper;
 import org.dam.fcojavier.gestionpersonal.model.Empresa;
+import org.dam.fcojavier.gestionpersonal.model.ResumenEmpresa;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.ArrayList;
 
 /**
  * Clase que implementa el acceso a datos para la entidad Empresa.
@@ -23,82 +24,140 @@ public class EmpresaDAO implements CrudDAO<Empresa> {
     /** Consulta SQL para insertar una nueva empresa */
     private final String insert_SQL = "INSERT INTO empresa (nombre, direccion, telefono, email, password_hash) VALUES (?, ?, ?, ?, ?)";
     
-    /** Consulta SQL para actualizar una empresa existente */
-    private final String update_SQL = "UPDATE empresa SET nombre = ?, direccion = ?, telefono = ?, email = ?, password_hash = ? WHERE id_empresa = ?";
+    /**
+     * Consulta SQL para actualizar una empresa existente. El hash de la contraseña solo
+     * se sustituye si se indica uno nuevo, porque las empresas leídas sin él lo tienen a null.
+     * Solo se actualiza si la empresa conserva la versión leída.
+     */
+    private final String update_SQL = "UPDATE empresa SET nombre = ?, direccion = ?, telefono = ?, email = ?, password_hash = COALESCE(?, password_hash), " +
+            "version = version + 1 WHERE id_empresa = ? AND version = ?";
+
+    /** Consulta SQL para comprobar si existe una empresa */
+    private final String exists_SQL = "SELECT 1 FROM empresa WHERE id_empresa = ?";
     
     /** Consulta SQL para eliminar una empresa */
     private final String delete_SQL = "DELETE FROM empresa WHERE id_empresa = ?";
     
+    /** Columnas de la empresa que se leen fuera del inicio de sesión, sin el hash de la contraseña */
+    private static final String COLUMNAS_EMPRESA = "id_empresa, nombre, direccion, telefono, email, version";
+
     /** Consulta SQL para buscar una empresa por su ID */
-    private final String findById_SQL = "SELECT * FROM empresa WHERE id_empresa = ?";
+    private final String findById_SQL = "SELECT " + COLUMNAS_EMPRESA + " FROM empresa WHERE id_empresa = ?";
     
     /** Consulta SQL para obtener todas las empresas */
-    private final String findAll_SQL = "SELECT * FROM empresa";
+    private final String findAll_SQL = "SELECT " + COLUMNAS_EMPRESA + " FROM empresa";
+
+    /** Consulta SQL para obtener una página de empresas a partir de un ID */
+    private final String findPage_SQL = "SELECT " + COLUMNAS_EMPRESA + " FROM empresa WHERE id_empresa > ? ORDER BY id_empresa LIMIT ?";
     
-    /** Consulta SQL para buscar una empresa por su email */
-    private final String findByEmail_SQL = "SELECT * FROM empresa WHERE email = ?";
+    /** Consulta SQL para buscar una empresa por su email, incluido el hash de la contraseña */
+    private final String findByEmail_SQL = "SELECT " + COLUMNAS_EMPRESA + ", password_hash FROM empresa WHERE email = ?";
+
+    /**
+     * Consulta SQL con las cifras del panel principal de una empresa en una fecha.
+     * Cada cifra es una subconsulta filtrada por la empresa, así que el coste no depende
+     * de los datos del resto de empresas.
+     */
+    private final String resumen_SQL = "SELECT (" + EmpleadoDAO.CUENTA_EMPLEADOS + ") AS empleados, " +
+            "(" + PerteneceTurnoDAO.CUENTA_ASIGNACIONES_FECHA + ") AS trabajando, " +
+            "(" + AusenciaDAO.CUENTA_AUSENCIAS_ACTIVAS + ") AS ausencias";
+
+    /** Conversión de la fila de {@code resumen_SQL} */
+    private static final RowMapper<ResumenEmpresa> RESUMEN = metaData -> {
+        int empleados = RowMapper.columna(metaData, "empleados");
+        int trabajando = RowMapper.columna(metaData, "trabajando");
+        int ausencias = RowMapper.columna(metaData, "ausencias");
+        return rs -> new ResumenEmpresa(rs.getInt(empleados), rs.getInt(trabajando), rs.getInt(ausencias));
+    };
+
+    /** Conversión de las filas de la tabla empresa sin el hash de la contraseña */
+    private static final RowMapper<Empresa> EMPRESA = metaData -> {
+        int idEmpresa = RowMapper.columna(metaData, "id_empresa");
+        int nombre = RowMapper.columna(metaData, "nombre");
+        int direccion = RowMapper.columna(metaData, "direccion");
+        int telefono = RowMapper.columna(metaData, "telefono");
+        int email = RowMapper.columna(metaData, "email");
+        int version = RowMapper.columna(metaData, "version");
+        return rs -> {
+            Empresa empresa = new Empresa();
+            empresa.setIdEmpresa(rs.getInt(idEmpresa));
+            empresa.setNombre(rs.getString(nombre));
+            empresa.setDireccion(rs.getString(direccion));
+            empresa.setTelefono(rs.getString(telefono));
+            empresa.setEmail(rs.getString(email));
+            empresa.setVersion(rs.getInt(version));
+            return empresa;
+        };
+    };
+
+    /** Conversión de las filas de la tabla empresa incluido el hash de la contraseña, para el inicio de sesión */
+    private static final RowMapper<Empresa> EMPRESA_CON_PASSWORD = metaData -> {
+        RowMapper.Lector<Empresa> datos = EMPRESA.preparar(metaData);
+        int password = RowMapper.columna(metaData, "password_hash");
+        return rs -> {
+            Empresa empresa = datos.leer(rs);
+            empresa.setPassword(rs.getString(password));
+            return empresa;
+        };
+    };
 
     /**
      * Inserta una nueva empresa en la base de datos.
-     * Verifica que la empresa no exista previamente por su email.
+     * El nombre, el email y el teléfono deben ser únicos; si alguno ya está registrado
+     * la base de datos rechaza la inserción.
      *
      * @param empresa La empresa a insertar
-     * @return La empresa insertada con su ID generado, o null si ya existe
-     * @throws DAOException Si ocurre un error durante la inserción o si ya existe una empresa con el mismo email
+     * @return La empresa insertada con su ID generado, o null si no se indica ninguna
+     * @throws DAOException Si ocurre un error durante la inserción, de tipo
+     *         {@link DAOErrorTipo#DUPLICATE_KEY} si ya existe una empresa con el mismo nombre, email o teléfono
      */
     @Override
     public Empresa insert(Empresa empresa) throws DAOException {
-        if(empresa!=null && findByEmail(empresa.getEmail())==null) {
-            try(PreparedStatement pstm=ConnectionDB.getConnection().prepareStatement(insert_SQL, PreparedStatement.RETURN_GENERATED_KEYS)){
-                pstm.setString(1, empresa.getNombre());
-                pstm.setString(2, empresa.getDireccion());
-                pstm.setString(3, empresa.getTelefono());
-                pstm.setString(4, empresa.getEmail());
-                pstm.setString(5, empresa.getPassword());
-                pstm.executeUpdate();
-                ResultSet rs=pstm.getGeneratedKeys();
-                if(rs.next()){
-                    empresa.setIdEmpresa(rs.getInt(1));
+        if(empresa!=null) {
+            try {
+                int idEmpresa = EjecutorSql.insertar("EmpresaDAO.insert", ConnectionDB::getConnection, insert_SQL,
+                        empresa.getNombre(), empresa.getDireccion(), empresa.getTelefono(),
+                        empresa.getEmail(), empresa.getPassword());
+                if(idEmpresa > 0){
+                    empresa.setIdEmpresa(idEmpresa);
                 }
             }catch (SQLException e){
-                throw new DAOException("Error al insertar la empresa: "+e.getMessage(), DAOErrorTipo.INSERT_ERROR);
+                throw EjecutorSql.error("Error al insertar la empresa", e, DAOErrorTipo.INSERT_ERROR);
             }
-        }else{
-            empresa=null;
         }
         return empresa;
     }
 
     /**
      * Actualiza una empresa existente en la base de datos.
+     * Si la empresa no tiene contraseña asignada se conserva la que ya estaba guardada.
+     * Solo se actualiza si no ha cambiado desde que se leyó, y al hacerlo se incrementa su versión.
      *
      * @param empresa La empresa con los nuevos datos
-     * @return La empresa actualizada, o null si no existe
-     * @throws DAOException Si ocurre un error durante la actualización o si la empresa no existe
+     * @return La empresa actualizada, o null si no se indica ninguna
+     * @throws DAOException Si ocurre un error durante la actualización, de tipo
+     *         {@link DAOErrorTipo#NOT_FOUND} si la empresa no existe, {@link DAOErrorTipo#VERSION_CONFLICT}
+     *         si otro usuario la ha modificado o {@link DAOErrorTipo#DUPLICATE_KEY}
+     *         si los nuevos datos coinciden con los de otra empresa
      */
     @Override
     public Empresa update(Empresa empresa) throws DAOException {
         Empresa empresaActualizada=null;
         if(empresa != null) {
-            Empresa empresaExistente = findById(empresa.getIdEmpresa());
-            if(empresaExistente != null) {
-                try(PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(update_SQL)) {
-                    pstm.setString(1, empresa.getNombre());
-                    pstm.setString(2, empresa.getDireccion());
-                    pstm.setString(3, empresa.getTelefono());
-                    pstm.setString(4, empresa.getEmail());
-                    pstm.setString(5, empresa.getPassword());
-                    pstm.setInt(6, empresaExistente.getIdEmpresa());
-                    
-                    if(pstm.executeUpdate() > 0) {
-                        empresaActualizada = empresa;
-                    }
-                } catch (SQLException e) {
-                    throw new DAOException("Error al modificar la empresa: "+e.getMessage(), DAOErrorTipo.UPDATE_ERROR);
-                }
-            }else{
-                throw new DAOException("La empresa no existe", DAOErrorTipo.NOT_FOUND);
+            int filas;
+            try {
+                filas = EjecutorSql.actualizar("EmpresaDAO.update", ConnectionDB::getConnection, update_SQL,
+                        empresa.getNombre(), empresa.getDireccion(), empresa.getTelefono(),
+                        empresa.getEmail(), empresa.getPassword(), empresa.getIdEmpresa(), empresa.getVersion());
+            } catch (SQLException e) {
+                throw EjecutorSql.error("Error al modificar la empresa", e, DAOErrorTipo.UPDATE_ERROR);
+            }
+            if(filas == 0) {
+                throw EjecutorSql.sinActualizar("EmpresaDAO.update", exists_SQL, empresa.getIdEmpresa(), "La empresa");
             }
+            empresa.setVersion(empresa.getVersion() + 1);
+            empresaActualizada = empresa;
+            MapaIdentidad.quitar(Empresa.class, empresa.getIdEmpresa());
         }
         return empresaActualizada;
     }
@@ -108,22 +167,19 @@ public class EmpresaDAO implements CrudDAO<Empresa> {
      * La eliminación es en cascada y afectará a todos los registros relacionados.
      *
      * @param empresa La empresa a eliminar
-     * @return true si se eliminó correctamente, false en caso contrario
+     * @return true si se eliminó correctamente, false si no existía
      * @throws DAOException Si ocurre un error durante la eliminación
      */
     @Override
     public boolean delete(Empresa empresa) throws DAOException {
         boolean deleted=false;
         if(empresa!=null){
-            Empresa empresaEncontrada= findById(empresa.getIdEmpresa());
-            if(empresaEncontrada!=null){
-                try(PreparedStatement pstm=ConnectionDB.getConnection().prepareStatement(delete_SQL)){
-                    pstm.setInt(1, empresaEncontrada.getIdEmpresa());
-                    pstm.executeUpdate();
-                    deleted=true;
-                }catch (SQLException e){
-                    throw new DAOException("Error al borrar la empresa: "+e.getMessage(), DAOErrorTipo.DELETE_ERROR);
-                }
+            try {
+                deleted = EjecutorSql.actualizar("EmpresaDAO.delete",
+                        ConnectionDB::getConnection, delete_SQL, empresa.getIdEmpresa()) > 0;
+                MapaIdentidad.quitar(Empresa.class, empresa.getIdEmpresa());
+            }catch (SQLException e){
+                throw EjecutorSql.error("Error al borrar la empresa", e, DAOErrorTipo.DELETE_ERROR);
             }
         }
         return deleted;
@@ -138,19 +194,13 @@ public class EmpresaDAO implements CrudDAO<Empresa> {
      */
     @Override
     public Empresa findById(int id) throws DAOException {
-        Empresa empresa = null;
-        try (PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(findById_SQL)){
-            pstm.setInt(1, id);
-            ResultSet rs=pstm.executeQuery();
-            if(rs.next()){
-                empresa=new Empresa();
-                empresa.setIdEmpresa(rs.getInt("id_empresa"));
-                empresa.setNombre(rs.getString("nombre"));
-                empresa.setDireccion(rs.getString("direccion"));
-                empresa.setTelefono(rs.getString("telefono"));
-                empresa.setEmail(rs.getString("email"));
-                empresa.setPassword(rs.getString("password_hash"));
-            }
+        Empresa empresa = MapaIdentidad.buscar(Empresa.class, id);
+        if (empresa != null) {
+            return empresa;
+        }
+        try {
+            empresa = EjecutorSql.primero("EmpresaDAO.findById", ConnectionDB::getConnection, findById_SQL, EMPRESA, id);
+            MapaIdentidad.registrar(Empresa.class, id, empresa);
         }catch (SQLException e){
             throw new DAOException("Error al buscar la empresa: "+e.getMessage(), DAOErrorTipo.NOT_FOUND);
         }
@@ -165,51 +215,76 @@ public class EmpresaDAO implements CrudDAO<Empresa> {
      */
     @Override
     public List<Empresa> findAll() throws DAOException {
-        List<Empresa> empresas = new ArrayList<>();
-        try(PreparedStatement pstm=ConnectionDB.getConnection().prepareStatement(findAll_SQL)){
-            ResultSet rs=pstm.executeQuery();
-            while(rs.next()){
-                Empresa empresa=new Empresa();
-                empresa.setIdEmpresa(rs.getInt("id_Empresa"));
-                empresa.setNombre(rs.getString("nombre"));
-                empresa.setDireccion(rs.getString("direccion"));
-                empresa.setTelefono(rs.getString("telefono"));
-                empresa.setEmail(rs.getString("email"));
-                empresa.setPassword(rs.getString("password_hash"));
-                empresas.add(empresa);
-            }
+        try {
+            return EjecutorSql.lista("EmpresaDAO.findAll", ConnectionDB::getReadConnection, findAll_SQL, EMPRESA);
+        }catch (SQLException e){
+            throw new DAOException("Error al listar las empresas: "+e.getMessage(), DAOErrorTipo.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Obtiene una página de empresas ordenadas por su ID.
+     *
+     * @param afterId ID de la última empresa ya leída, 0 para la primera página
+     * @param limit Número máximo de empresas de la página
+     * @return Lista con las empresas de la página
+     * @throws DAOException Si ocurre un error al obtener los datos
+     */
+    @Override
+    public List<Empresa> findPage(int afterId, int limit) throws DAOException {
+        try {
+            return EjecutorSql.lista("EmpresaDAO.findPage",
+                    ConnectionDB::getReadConnection, findPage_SQL, EMPRESA, afterId, limit);
         }catch (SQLException e){
             throw new DAOException("Error al listar las empresas: "+e.getMessage(), DAOErrorTipo.NOT_FOUND);
         }
-        return empresas;
     }
 
     /**
      * Busca una empresa por su dirección de email.
      * Este método es útil para verificar la existencia de una empresa
      * antes de su inserción o para el proceso de inicio de sesión.
+     * Es la única consulta que lee el hash de la contraseña.
      *
      * @param email Email de la empresa a buscar
      * @return La empresa encontrada, o null si no existe
      * @throws DAOException Si ocurre un error durante la búsqueda
      */
     public Empresa findByEmail(String email) throws DAOException {
-        Empresa empresa = null;
-        try (PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(findByEmail_SQL)){
-            pstm.setString(1, email);
-            ResultSet rs = pstm.executeQuery();
-            if(rs.next()){
-                empresa = new Empresa();
-                empresa.setIdEmpresa(rs.getInt("id_empresa"));
-                empresa.setNombre(rs.getString("nombre"));
-                empresa.setDireccion(rs.getString("direccion"));
-                empresa.setTelefono(rs.getString("telefono"));
-                empresa.setEmail(rs.getString("email"));
-                empresa.setPassword(rs.getString("password_hash"));
-            }
+        try {
+            return EjecutorSql.primero("EmpresaDAO.findByEmail",
+                    ConnectionDB::getConnection, findByEmail_SQL, EMPRESA_CON_PASSWORD, email);
         } catch (SQLException e){
             throw new DAOException("Error al buscar la empresa por email: " + e.getMessage(), DAOErrorTipo.NOT_FOUND);
         }
-        return empresa;
     }
-}
\ No newline at end of file
+
+    /**
+     * Obtiene las cifras del panel principal de una empresa en una sola consulta:
+     * empleados totales, asignaciones de turno en la fecha y ausencias en curso en ella,
+     * incluidas las que no tienen fecha de fin.
+     *
+     * @param idEmpresa ID de la empresa
+     * @param fecha Fecha de referencia, normalmente la actual
+     * @return El resumen de la empresa
+     * @throws DAOException Si ocurre un error al calcular las cifras
+     */
+    public ResumenEmpresa findResumen(int idEmpresa, LocalDate fecha) throws DAOException {
+        try {
+            return EjecutorSql.primero("EmpresaDAO.findResumen", ConnectionDB::getReadConnection, resumen_SQL, RESUMEN,
+                    idEmpresa, idEmpresa, fecha, idEmpresa, fecha, fecha);
+        } catch (SQLException e) {
+            throw new DAOException("Error al obtener el resumen de la empresa: " + e.getMessage(), DAOErrorTipo.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Obtiene las sentencias SQL que usa el inicio de sesión, la carga de la empresa
+     * y el resumen del panel principal, para prepararlas durante el arranque de la aplicación.
+     *
+     * @return Lista de sentencias SQL
+     */
+    public List<String> getSentenciasFrecuentes() {
+        return List.of(findByEmail_SQL, findById_SQL, resumen_SQL);
+    }
+}
@@ -1,16 +1,23 @@
 package org.dam.fcojavier.gestionpersonal.DAOs;
 
 import org.dam.fcojavier.gestionpersonal.bbdd.ConnectionDB;
+import org.dam.fcojavier.gestionpersonal.bbdd.UnidadTrabajo;
 import org.dam.fcojavier.gestionpersonal.enums.DAOErrorTipo;
 import org.dam.fcojavier.gestionpersonal.exceptions.DAOException;
+import org.dam.fcojavier.gestionpersonal.interfaces.RowMapper;
 import org.dam.fcojavier.gestionpersonal.model.Empleado;
 import org.dam.fcojavier.gestionpersonal.model.PerteneceTurno;
 import org.dam.fcojavier.gestionpersonal.model.Turno;
 
-import java.sql.*;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Clase que gestiona la asignación de turnos a empleados en la base de datos.
@@ -24,56 +31,194 @@ public class PerteneceTurnoDAO {
     /** Consulta SQL para eliminar una asignación de turno */
     private final String delete_SQL = "DELETE FROM pertenece WHERE id_empleado = ? AND id_turno = ? AND fecha = ?";
     
+    /** Consulta SQL base que obtiene cada asignación junto con su empleado, la empresa de este y el turno */
+    private final String selectCompleta_SQL = "SELECT pt.fecha, " + EmpleadoDAO.COLUMNAS_EMPLEADO_EMPRESA + ", " +
+            TurnoDAO.COLUMNAS_TURNO + " FROM pertenece pt " +
+            "INNER JOIN empleado e ON pt.id_empleado = e.id_empleado " +
+            "INNER JOIN empresa em ON e.id_empresa = em.id_empresa " +
+            "INNER JOIN turno t ON pt.id_turno = t.id_turno";
+
     /** Consulta SQL para buscar asignaciones por fecha */
-    private final String findByFecha_SQL = "SELECT * FROM pertenece WHERE fecha = ?";
+    private final String findByFecha_SQL = selectCompleta_SQL + " WHERE pt.fecha = ?";
     
+    /** Consulta SQL para obtener las asignaciones de los empleados de una empresa */
+    private final String findByEmpresa_SQL = selectCompleta_SQL + " WHERE e.id_empresa = ? ORDER BY pt.fecha";
+
+    /**
+     * Consulta SQL para buscar las asignaciones de una empresa entre dos fechas. El rango
+     * se compara directamente con la columna fecha para que MySQL pueda recorrer
+     * idx_pertenece_fecha o idx_pertenece_empleado_fecha.
+     */
+    private final String findByEmpresaEntreFechas_SQL = selectCompleta_SQL +
+            " WHERE e.id_empresa = ? AND pt.fecha BETWEEN ? AND ? ORDER BY pt.fecha";
+
     /** Consulta SQL para buscar asignaciones por empleado y fecha */
-    private final String findByAsignacionesFecha_SQL = "SELECT pt.*, t.* FROM pertenece pt " +
+    private final String findByAsignacionesFecha_SQL = "SELECT pt.fecha, " + TurnoDAO.COLUMNAS_TURNO + " FROM pertenece pt " +
             "JOIN turno t ON pt.id_turno = t.id_turno " +
             "WHERE pt.id_empleado = ? AND pt.fecha = ?";
+
+    /** Consulta SQL que bloquea la fila de un empleado hasta el final de la transacción */
+    private final String bloquearEmpleado_SQL = "SELECT id_empleado FROM empleado WHERE id_empleado = ? FOR UPDATE";
     
+    /**
+     * Consulta SQL que cuenta las asignaciones de los empleados de una empresa en una fecha.
+     * La usa el resumen del panel principal de {@link EmpresaDAO} como subconsulta.
+     */
+    static final String CUENTA_ASIGNACIONES_FECHA = "SELECT COUNT(*) FROM pertenece pt " +
+            "INNER JOIN empleado e ON pt.id_empleado = e.id_empleado " +
+            "WHERE e.id_empresa = ? AND pt.fecha = ?";
+
     /** Consulta SQL para obtener todas las asignaciones */
-    private final String findAll_SQL = "SELECT * FROM pertenece";
+    private final String findAll_SQL = selectCompleta_SQL;
     
     /** Consulta SQL para verificar si existe una asignación */
     private final String exists_SQL = "SELECT COUNT(*) FROM pertenece WHERE id_empleado = ? AND id_turno = ? AND fecha = ?";
 
-    /** DAO para acceder a los datos de empleados */
-    private final EmpleadoDAO empleadoDAO;
-    
-    /** DAO para acceder a los datos de turnos */
-    private final TurnoDAO turnoDAO;
+    /** Número máximo de asignaciones por sentencia en las operaciones por lotes */
+    private static final int TAMANO_LOTE = 500;
+
+    /** Clave primaria de una asignación en la tabla pertenece */
+    private record Clave(int idEmpleado, int idTurno, LocalDate fecha) {
+        static Clave de(PerteneceTurno perteneceTurno) {
+            return new Clave(perteneceTurno.getEmpleado().getIdEmpleado(), perteneceTurno.getTurno().getIdTurno(),
+                    perteneceTurno.getFecha());
+        }
+    }
+
+    /** Conversión de las filas con la clave primaria de una asignación */
+    private static final RowMapper<Clave> CLAVE = metaData -> {
+        int idEmpleado = RowMapper.columna(metaData, "id_empleado");
+        int idTurno = RowMapper.columna(metaData, "id_turno");
+        int fecha = RowMapper.columna(metaData, "fecha");
+        return rs -> new Clave(rs.getInt(idEmpleado), rs.getInt(idTurno), rs.getDate(fecha).toLocalDate());
+    };
 
     /**
-     * Constructor que inicializa los DAOs necesarios para las operaciones.
+     * Conversión de las filas con {@code selectCompleta_SQL}. Las asignaciones de un mismo
+     * empleado o turno comparten sus instancias.
      */
-    public PerteneceTurnoDAO() {
-        this.empleadoDAO = new EmpleadoDAO();
-        this.turnoDAO = new TurnoDAO();
-    }
+    private static final RowMapper<PerteneceTurno> ASIGNACION = metaData -> {
+        RowMapper.Lector<Empleado> empleado = EmpleadoDAO.EMPLEADO_CON_EMPRESA.preparar(metaData);
+        RowMapper.Lector<Turno> turno = TurnoDAO.TURNO_COMPARTIDO.preparar(metaData);
+        int fecha = RowMapper.columna(metaData, "fecha");
+        return rs -> {
+            PerteneceTurno perteneceTurno = new PerteneceTurno();
+            perteneceTurno.setEmpleado(empleado.leer(rs));
+            perteneceTurno.setTurno(turno.leer(rs));
+            perteneceTurno.setFecha(rs.getDate(fecha).toLocalDate());
+            return perteneceTurno;
+        };
+    };
 
     /**
      * Inserta una nueva asignación de turno en la base de datos.
      *
      * @param perteneceTurno La asignación de turno a insertar
      * @return La asignación insertada, o null si hubo un error
-     * @throws DAOException Si ocurre un error durante la inserción
+     * @throws DAOException Si ocurre un error durante la inserción, de tipo
+     *         {@link DAOErrorTipo#DUPLICATE_KEY} si el empleado ya tiene ese turno en esa fecha
      */
     public PerteneceTurno insert(PerteneceTurno perteneceTurno) throws DAOException {
-        try (PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(insert_SQL)) {
-            pstm.setInt(1, perteneceTurno.getEmpleado().getIdEmpleado());
-            pstm.setInt(2, perteneceTurno.getTurno().getIdTurno());
-            pstm.setDate(3, Date.valueOf(perteneceTurno.getFecha()));
-
-            if (pstm.executeUpdate() == 0) {
+        try {
+            if (EjecutorSql.actualizar("PerteneceTurnoDAO.insert",
+                    ConnectionDB::getConnection, insert_SQL, perteneceTurno.getEmpleado().getIdEmpleado(),
+                    perteneceTurno.getTurno().getIdTurno(), perteneceTurno.getFecha()) == 0) {
                 perteneceTurno = null;
             }
         } catch (SQLException e) {
-            throw new DAOException("Error al asignar turno: " + e.getMessage(), DAOErrorTipo.INSERT_ERROR);
+            throw EjecutorSql.error("Error al asignar turno", e, DAOErrorTipo.INSERT_ERROR);
         }
         return perteneceTurno;
     }
 
+    /**
+     * Inserta varias asignaciones de turno de una vez, en una sola transacción.
+     * Las asignaciones se envían en sentencias de hasta {@value #TAMANO_LOTE} filas con
+     * varios {@code VALUES}, precedidas de una consulta que localiza las que ya existen.
+     * Las asignaciones que ya están en la base de datos, o repetidas en la colección, se
+     * descartan sin error. Una asignación insertada a la vez desde otro equipo se cuenta
+     * como insertada, ya que igualmente queda registrada.
+     *
+     * @param asignaciones Asignaciones de turno a insertar
+     * @return Resultado con las asignaciones insertadas y las descartadas por duplicadas
+     * @throws DAOException Si ocurre un error durante la inserción; en ese caso no se inserta ninguna
+     */
+    public ResultadoLote<PerteneceTurno> insertAll(Collection<PerteneceTurno> asignaciones) throws DAOException {
+        List<PerteneceTurno> insertadas = new ArrayList<>();
+        List<PerteneceTurno> duplicadas = new ArrayList<>();
+        List<PerteneceTurno> unicas = new ArrayList<>();
+        Set<PerteneceTurno> vistas = new HashSet<>();
+        for (PerteneceTurno perteneceTurno : asignaciones) {
+            (vistas.add(perteneceTurno) ? unicas : duplicadas).add(perteneceTurno);
+        }
+
+        try (UnidadTrabajo unidad = UnidadTrabajo.iniciar()) {
+            for (int desde = 0; desde < unicas.size(); desde += TAMANO_LOTE) {
+                List<PerteneceTurno> bloque = unicas.subList(desde, Math.min(desde + TAMANO_LOTE, unicas.size()));
+                Set<Clave> existentes = new HashSet<>(EjecutorSql.lista("PerteneceTurnoDAO.insertAll",
+                        ConnectionDB::getConnection,
+                        existentesLote_SQL(bloque.size()), CLAVE, parametrosClave(bloque)));
+
+                List<PerteneceTurno> nuevas = new ArrayList<>();
+                for (PerteneceTurno perteneceTurno : bloque) {
+                    (existentes.contains(Clave.de(perteneceTurno)) ? duplicadas : nuevas).add(perteneceTurno);
+                }
+                if (!nuevas.isEmpty()) {
+                    EjecutorSql.actualizar("PerteneceTurnoDAO.insertAll",
+                            ConnectionDB::getConnection, insertLote_SQL(nuevas.size()),
+                            parametrosClave(nuevas));
+                    insertadas.addAll(nuevas);
+                }
+            }
+            unidad.confirmar();
+        } catch (SQLException e) {
+            throw EjecutorSql.error("Error al asignar turnos", e, DAOErrorTipo.INSERT_ERROR);
+        }
+        return new ResultadoLote<>(insertadas, List.of(), duplicadas);
+    }
+
+    /**
+     * Construye la inserción de varias asignaciones en una sola sentencia. Si alguna ya
+     * existe, la fila se deja como está en lugar de producir un error.
+     *
+     * @param filas Número de asignaciones
+     * @return Sentencia SQL con tres parámetros por asignación
+     */
+    private String insertLote_SQL(int filas) {
+        return "INSERT INTO pertenece (id_empleado, id_turno, fecha) VALUES " +
+                String.join(", ", Collections.nCopies(filas, "(?, ?, ?)")) +
+                " ON DUPLICATE KEY UPDATE id_empleado = id_empleado";
+    }
+
+    /**
+     * Construye la consulta que obtiene cuáles de varias asignaciones ya existen.
+     *
+     * @param filas Número de asignaciones
+     * @return Consulta SQL con tres parámetros por asignación
+     */
+    private String existentesLote_SQL(int filas) {
+        return "SELECT id_empleado, id_turno, fecha FROM pertenece WHERE (id_empleado, id_turno, fecha) IN (" +
+                String.join(", ", Collections.nCopies(filas, "(?, ?, ?)")) + ")";
+    }
+
+    /**
+     * Obtiene los valores de la clave primaria de varias asignaciones, en el orden de
+     * los parámetros de las sentencias por lotes.
+     *
+     * @param asignaciones Asignaciones de turno
+     * @return ID del empleado, ID del turno y fecha de cada asignación
+     */
+    private Object[] parametrosClave(List<PerteneceTurno> asignaciones) {
+        Object[] parametros = new Object[asignaciones.size() * 3];
+        int i = 0;
+        for (PerteneceTurno perteneceTurno : asignaciones) {
+            parametros[i++] = perteneceTurno.getEmpleado().getIdEmpleado();
+            parametros[i++] = perteneceTurno.getTurno().getIdTurno();
+            parametros[i++] = perteneceTurno.getFecha();
+        }
+        return parametros;
+    }
+
     /**
      * Elimina una asignación de turno de la base de datos.
      *
@@ -82,16 +227,13 @@ public class PerteneceTurnoDAO {
      * @throws DAOException Si ocurre un error durante la eliminación
      */
     public boolean delete(PerteneceTurno perteneceTurno) throws DAOException {
-        boolean deleted = false;
-        try (PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(delete_SQL)) {
-            pstm.setInt(1, perteneceTurno.getEmpleado().getIdEmpleado());
-            pstm.setInt(2, perteneceTurno.getTurno().getIdTurno());
-            pstm.setDate(3, Date.valueOf(perteneceTurno.getFecha()));
-            deleted = pstm.executeUpdate() > 0;
+        try {
+            return EjecutorSql.actualizar("PerteneceTurnoDAO.delete",
+                    ConnectionDB::getConnection, delete_SQL, perteneceTurno.getEmpleado().getIdEmpleado(),
+                    perteneceTurno.getTurno().getIdTurno(), perteneceTurno.getFecha()) > 0;
         } catch (SQLException e) {
-            throw new DAOException("Error al eliminar asignación de turno: " + e.getMessage(), DAOErrorTipo.DELETE_ERROR);
+            throw EjecutorSql.error("Error al eliminar asignación de turno", e, DAOErrorTipo.DELETE_ERROR);
         }
-        return deleted;
     }
 
     /**
@@ -102,21 +244,49 @@ public class PerteneceTurnoDAO {
      * @throws DAOException Si ocurre un error durante la búsqueda
      */
     public List<PerteneceTurno> findByFecha(LocalDate fecha) throws DAOException {
-        List<PerteneceTurno> asignaciones = new ArrayList<>();
-        try (PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(findByFecha_SQL)) {
-            pstm.setDate(1, Date.valueOf(fecha));
-            ResultSet rs = pstm.executeQuery();
-            while (rs.next()) {
-                PerteneceTurno perteneceTurno = new PerteneceTurno();
-                perteneceTurno.setEmpleado(empleadoDAO.findById(rs.getInt("id_empleado")));
-                perteneceTurno.setTurno(turnoDAO.findById(rs.getInt("id_turno")));
-                perteneceTurno.setFecha(rs.getDate("fecha").toLocalDate());
-                asignaciones.add(perteneceTurno);
-            }
+        try {
+            return EjecutorSql.lista("PerteneceTurnoDAO.findByFecha",
+                    ConnectionDB::getReadConnection, findByFecha_SQL, ASIGNACION, fecha);
+        } catch (SQLException e) {
+            throw new DAOException("Error al buscar asignaciones por fecha: " + e.getMessage(), DAOErrorTipo.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Busca todas las asignaciones de turnos de los empleados de una empresa, ordenadas por fecha.
+     *
+     * @param idEmpresa ID de la empresa
+     * @return Lista de asignaciones de la empresa
+     * @throws DAOException Si ocurre un error durante la búsqueda
+     */
+    public List<PerteneceTurno> findByEmpresa(int idEmpresa) throws DAOException {
+        try {
+            return EjecutorSql.lista("PerteneceTurnoDAO.findByEmpresa",
+                    ConnectionDB::getReadConnection, findByEmpresa_SQL, ASIGNACION, idEmpresa);
+        } catch (SQLException e) {
+            throw new DAOException("Error al buscar asignaciones por empresa: " + e.getMessage(), DAOErrorTipo.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Busca las asignaciones de turnos de los empleados de una empresa entre dos fechas,
+     * ambas incluidas, ordenadas por fecha. Las vistas de un día, una semana o un mes
+     * leen solo las asignaciones que muestran.
+     *
+     * @param idEmpresa ID de la empresa
+     * @param desde Primera fecha del intervalo
+     * @param hasta Última fecha del intervalo
+     * @return Lista de asignaciones del intervalo
+     * @throws DAOException Si ocurre un error durante la búsqueda
+     */
+    public List<PerteneceTurno> findByEmpresaEntreFechas(int idEmpresa, LocalDate desde, LocalDate hasta) throws DAOException {
+        try {
+            return EjecutorSql.lista("PerteneceTurnoDAO.findByEmpresaEntreFechas",
+                    ConnectionDB::getReadConnection, findByEmpresaEntreFechas_SQL, ASIGNACION,
+                    idEmpresa, desde, hasta);
         } catch (SQLException e) {
             throw new DAOException("Error al buscar asignaciones por fecha: " + e.getMessage(), DAOErrorTipo.NOT_FOUND);
         }
-        return asignaciones;
     }
 
     /**
@@ -128,36 +298,50 @@ public class PerteneceTurnoDAO {
      * @throws DAOException Si ocurre un error durante la búsqueda
      */
     public List<PerteneceTurno> findByAsignacionesFecha(Empleado empleado, LocalDate fecha) throws DAOException {
-        List<PerteneceTurno> asignaciones = new ArrayList<>();
-
-        try (PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(findByAsignacionesFecha_SQL)) {
-
-            pstm.setInt(1, empleado.getIdEmpleado());
-            pstm.setDate(2, Date.valueOf(fecha));
-
-            try (ResultSet rs = pstm.executeQuery()) {
-                while (rs.next()) {
-                    Turno turno = new Turno();
-                    turno.setIdTurno(rs.getInt("id_turno"));
-                    turno.setHoraInicio(rs.getTime("hora_inicio").toLocalTime());
-                    turno.setHoraFin(rs.getTime("hora_fin").toLocalTime());
-
-                    PerteneceTurno perteneceTurno = new PerteneceTurno();
-                    perteneceTurno.setEmpleado(empleado);
-                    perteneceTurno.setTurno(turno);
-                    perteneceTurno.setFecha(rs.getDate("fecha").toLocalDate());
-
-                    asignaciones.add(perteneceTurno);
-                }
-            }
+        RowMapper<PerteneceTurno> delEmpleado = metaData -> {
+            RowMapper.Lector<Turno> turno = TurnoDAO.TURNO.preparar(metaData);
+            int columnaFecha = RowMapper.columna(metaData, "fecha");
+            return rs -> {
+                PerteneceTurno perteneceTurno = new PerteneceTurno();
+                perteneceTurno.setEmpleado(empleado);
+                perteneceTurno.setTurno(turno.leer(rs));
+                perteneceTurno.setFecha(rs.getDate(columnaFecha).toLocalDate());
+                return perteneceTurno;
+            };
+        };
 
-            return asignaciones;
+        try {
+            return EjecutorSql.lista("PerteneceTurnoDAO.findByAsignacionesFecha",
+                    ConnectionDB::getConnection, findByAsignacionesFecha_SQL, delEmpleado,
+                    empleado.getIdEmpleado(), fecha);
         } catch (SQLException e) {
             throw new DAOException("Error al buscar asignaciones de turnos", DAOErrorTipo.NOT_FOUND);
         }
 
     }
 
+    /**
+     * Busca las asignaciones de un empleado en una fecha para añadirle otra. Antes bloquea
+     * la fila del empleado hasta que termine la {@link UnidadTrabajo} en curso, de modo que
+     * otra asignación simultánea del mismo empleado espera a que esta se confirme o se
+     * deshaga antes de leer sus asignaciones y comprobar los conflictos.
+     * Fuera de una unidad de trabajo el bloqueo se libera al terminar la consulta.
+     *
+     * @param empleado El empleado al que se va a asignar el turno
+     * @param fecha La fecha de la nueva asignación
+     * @return Lista de asignaciones del empleado en esa fecha
+     * @throws DAOException Si ocurre un error durante el bloqueo o la búsqueda
+     */
+    public List<PerteneceTurno> findByAsignacionesFechaParaAsignar(Empleado empleado, LocalDate fecha) throws DAOException {
+        try {
+            EjecutorSql.primero("PerteneceTurnoDAO.findByAsignacionesFechaParaAsignar", ConnectionDB::getConnection,
+                    bloquearEmpleado_SQL, metaData -> rs -> rs.getInt(1), empleado.getIdEmpleado());
+        } catch (SQLException e) {
+            throw EjecutorSql.error("Error al bloquear las asignaciones del empleado", e, DAOErrorTipo.CONNECTION_ERROR);
+        }
+        return findByAsignacionesFecha(empleado, fecha);
+    }
+
     /**
      * Obtiene todas las asignaciones de turnos registradas en la base de datos.
      *
@@ -165,20 +349,30 @@ public class PerteneceTurnoDAO {
      * @throws DAOException Si ocurre un error al obtener los datos
      */
     public List<PerteneceTurno> findAll() throws DAOException {
-        List<PerteneceTurno> asignaciones = new ArrayList<>();
-        try (PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(findAll_SQL)) {
-            ResultSet rs = pstm.executeQuery();
-            while (rs.next()) {
-                PerteneceTurno perteneceTurno = new PerteneceTurno();
-                perteneceTurno.setEmpleado(empleadoDAO.findById(rs.getInt("id_empleado")));
-                perteneceTurno.setTurno(turnoDAO.findById(rs.getInt("id_turno")));
-                perteneceTurno.setFecha(rs.getDate("fecha").toLocalDate());
-                asignaciones.add(perteneceTurno);
-            }
+        try {
+            return EjecutorSql.lista("PerteneceTurnoDAO.findAll", ConnectionDB::getReadConnection, findAll_SQL, ASIGNACION);
         } catch (SQLException e) {
             throw new DAOException("Error al cargar todas las asignaciones: " + e.getMessage(), DAOErrorTipo.NOT_FOUND);
         }
-        return asignaciones;
+    }
+
+    /**
+     * Recorre todas las asignaciones de turnos sin cargarlas a la vez en memoria, para
+     * exportaciones y procesos sobre el histórico completo. Las filas se leen del servidor
+     * a medida que se consume el flujo, que debe cerrarse para liberar la conexión:
+     *
+     * <pre>{@code
+     * try (Stream<PerteneceTurno> asignaciones = perteneceTurnoDAO.streamAll()) {
+     *     asignaciones.forEach(exportador::escribir);
+     * }
+     * }</pre>
+     *
+     * @return Flujo con todas las asignaciones de turnos
+     * @throws DAOException Si ocurre un error al obtener los datos, también mientras se recorre el flujo
+     */
+    public Stream<PerteneceTurno> streamAll() throws DAOException {
+        return EjecutorSql.flujo("PerteneceTurnoDAO.streamAll", ConnectionDB::getReadConnection, findAll_SQL, ASIGNACION,
+                e -> new DAOException("Error al recorrer las asignaciones: " + e.getMessage(), DAOErrorTipo.NOT_FOUND));
     }
 
     /**
@@ -191,18 +385,22 @@ public class PerteneceTurnoDAO {
      * @throws DAOException Si ocurre un error durante la verificación
      */
     public boolean exists(int idEmpleado, int idTurno, LocalDate fecha) throws DAOException {
-        boolean exists = false;
-        try (PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(exists_SQL)) {
-            pstm.setInt(1, idEmpleado);
-            pstm.setInt(2, idTurno);
-            pstm.setDate(3, Date.valueOf(fecha));
-            ResultSet rs = pstm.executeQuery();
-            if (rs.next()) {
-                exists = rs.getInt(1) > 0;
-            }
+        try {
+            Integer cantidad = EjecutorSql.primero("PerteneceTurnoDAO.exists", ConnectionDB::getConnection, exists_SQL,
+                    _ -> rs -> rs.getInt(1), idEmpleado, idTurno, fecha);
+            return cantidad != null && cantidad > 0;
         } catch (SQLException e) {
             throw new DAOException("Error al verificar existencia de asignación: " + e.getMessage(), DAOErrorTipo.NOT_FOUND);
         }
-        return exists;
     }
-}
\ No newline at end of file
+
+    /**
+     * Obtiene las sentencias SQL que usa el panel principal de la empresa,
+     * para prepararlas durante el arranque de la aplicación.
+     *
+     * @return Lista de sentencias SQL
+     */
+    public List<String> getSentenciasFrecuentes() {
+        return List.of(findByFecha_SQL);
+    }
+}
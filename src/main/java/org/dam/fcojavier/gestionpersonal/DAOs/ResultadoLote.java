@@ -0,0 +1,72 @@
+package org.dam.fcojavier.gestionpersonal.DAOs;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de guardar un lote de entidades de una sola vez: indica, fila a fila,
+ * cuáles se insertaron, cuáles actualizaron una fila existente y cuáles se descartaron
+ * porque ya existían.
+ *
+ * @param <T> tipo de entidad del lote
+ */
+public final class ResultadoLote<T> {
+    /** Entidades insertadas */
+    private final List<T> insertadas;
+
+    /** Entidades que ya existían y se actualizaron con los datos del lote */
+    private final List<T> actualizadas;
+
+    /** Entidades descartadas por estar ya en la base de datos o repetidas en el lote */
+    private final List<T> duplicadas;
+
+    /**
+     * Crea el resultado de un lote.
+     *
+     * @param insertadas Entidades insertadas
+     * @param actualizadas Entidades que actualizaron una fila existente
+     * @param duplicadas Entidades descartadas por duplicadas
+     */
+    ResultadoLote(List<T> insertadas, List<T> actualizadas, List<T> duplicadas) {
+        this.insertadas = Collections.unmodifiableList(insertadas);
+        this.actualizadas = Collections.unmodifiableList(actualizadas);
+        this.duplicadas = Collections.unmodifiableList(duplicadas);
+    }
+
+    /**
+     * Obtiene las entidades insertadas, en el orden en que se recibieron.
+     *
+     * @return Lista de entidades insertadas
+     */
+    public List<T> getInsertadas() {
+        return insertadas;
+    }
+
+    /**
+     * Obtiene las entidades que ya existían y se actualizaron, en el orden en que se recibieron.
+     *
+     * @return Lista de entidades actualizadas
+     */
+    public List<T> getActualizadas() {
+        return actualizadas;
+    }
+
+    /**
+     * Obtiene las entidades que no se insertaron por estar ya en la base de datos
+     * o repetidas dentro del propio lote.
+     *
+     * @return Lista de entidades duplicadas
+     */
+    public List<T> getDuplicadas() {
+        return duplicadas;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoLote{" +
+                "insertadas=" + insertadas.size() +
+                ", actualizadas=" + actualizadas.size() +
+                ", duplicadas=" + duplicadas.size() +
+                '}';
+    }
+}
@@ -1,19 +1,27 @@
 package org.dam.fcojavier.gestionpersonal.DAOs;
 
 import org.dam.fcojavier.gestionpersonal.bbdd.ConnectionDB;
+import org.dam.fcojavier.gestionpersonal.bbdd.MapaIdentidad;
+import org.dam.fcojavier.gestionpersonal.bbdd.UnidadTrabajo;
 import org.dam.fcojavier.gestionpersonal.enums.DAOErrorTipo;
 import org.dam.fcojavier.gestionpersonal.exceptions.DAOException;
 import org.dam.fcojavier.gestionpersonal.interfaces.CrudDAO;
+import org.dam.fcojavier.gestionpersonal.interfaces.RowMapper;
 import org.dam.fcojavier.gestionpersonal.model.Turno;
 
-import java.sql.*;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Clase que implementa el acceso a datos para la entidad Turno.
  * Proporciona operaciones CRUD para gestionar los turnos de trabajo en la base de datos.
  * Los turnos representan períodos de tiempo con hora de inicio y fin.
+ * Como la tabla es pequeña y casi no cambia, las lecturas se sirven desde un
+ * {@link CatalogoTurnos} en memoria mientras no caduque; dentro de una
+ * {@link UnidadTrabajo} se consulta siempre la base de datos.
  *
  */
 public class TurnoDAO implements CrudDAO<Turno> {
@@ -21,81 +29,125 @@ public class TurnoDAO implements CrudDAO<Turno> {
     /** Consulta SQL para insertar un nuevo turno */
     private final String insert_SQL = "INSERT INTO turno (descripcion, hora_inicio, hora_fin) VALUES (?, ?, ?)";
     
-    /** Consulta SQL para actualizar un turno existente */
-    private final String update_SQL = "UPDATE turno SET descripcion = ?, hora_inicio = ?, hora_fin = ? WHERE id_turno = ?";
+    /** Consulta SQL para actualizar un turno existente si conserva la versión leída */
+    private final String update_SQL = "UPDATE turno SET descripcion = ?, hora_inicio = ?, hora_fin = ?, version = version + 1 " +
+            "WHERE id_turno = ? AND version = ?";
+
+    /** Consulta SQL para comprobar si existe un turno */
+    private final String exists_SQL = "SELECT 1 FROM turno WHERE id_turno = ?";
     
     /** Consulta SQL para eliminar un turno */
     private final String delete_SQL = "DELETE FROM turno WHERE id_turno = ?";
     
+    /**
+     * Columnas de un turno (alias {@code t}) para las consultas de otros DAOs que cargan
+     * el turno junto con sus propias filas.
+     */
+    static final String COLUMNAS_TURNO = "t.id_turno, t.descripcion, t.hora_inicio, t.hora_fin, t.version AS turno_version";
+
     /** Consulta SQL para buscar un turno por su ID */
-    private final String findById_SQL = "SELECT * FROM turno WHERE id_turno = ?";
+    private final String findById_SQL = "SELECT " + COLUMNAS_TURNO + " FROM turno t WHERE t.id_turno = ?";
     
     /** Consulta SQL para obtener todos los turnos */
-    private final String findAll_SQL = "SELECT * FROM turno";
+    private final String findAll_SQL = "SELECT " + COLUMNAS_TURNO + " FROM turno t";
+
+    /** Consulta SQL para obtener una página de turnos a partir de un ID */
+    private final String findPage_SQL = "SELECT " + COLUMNAS_TURNO + " FROM turno t WHERE t.id_turno > ? ORDER BY t.id_turno LIMIT ?";
+
+    /** Catálogo de turnos en memoria, compartido por todas las instancias del DAO */
+    private static final CatalogoTurnos catalogo = new CatalogoTurnos();
+
+    /** Conversión de las filas con {@link #COLUMNAS_TURNO} */
+    static final RowMapper<Turno> TURNO = metaData -> {
+        int idTurno = RowMapper.columna(metaData, "id_turno");
+        int descripcion = RowMapper.columna(metaData, "descripcion");
+        int horaInicio = RowMapper.columna(metaData, "hora_inicio");
+        int horaFin = RowMapper.columna(metaData, "hora_fin");
+        int version = RowMapper.columna(metaData, "turno_version");
+        return rs -> {
+            Turno turno = new Turno();
+            turno.setIdTurno(rs.getInt(idTurno));
+            turno.setDescripcion(rs.getString(descripcion));
+            turno.setHoraInicio(rs.getTime(horaInicio).toLocalTime());
+            turno.setHoraFin(rs.getTime(horaFin).toLocalTime());
+            turno.setVersion(rs.getInt(version));
+            return turno;
+        };
+    };
+
+    /**
+     * Conversión de las filas con {@link #COLUMNAS_TURNO} en la que las filas de un mismo
+     * turno comparten una única instancia, la del {@link MapaIdentidad} si hay uno abierto.
+     */
+    static final RowMapper<Turno> TURNO_COMPARTIDO = metaData -> {
+        RowMapper.Lector<Turno> datos = TURNO.preparar(metaData);
+        int idTurno = RowMapper.columna(metaData, "id_turno");
+        Map<Integer, Turno> turnos = MapaIdentidad.entidades(Turno.class);
+        return rs -> {
+            Turno turno = turnos.get(rs.getInt(idTurno));
+            if (turno == null) {
+                turno = datos.leer(rs);
+                turnos.put(turno.getIdTurno(), turno);
+            }
+            return turno;
+        };
+    };
 
     /**
      * Inserta un nuevo turno en la base de datos.
-     * Verifica que el turno no exista previamente por su ID.
      *
      * @param turno El turno a insertar
-     * @return El turno insertado con su ID generado, o null si ya existe
+     * @return El turno insertado con su ID generado, o null si no se insertó
      * @throws DAOException Si ocurre un error durante la inserción
      */
     @Override
     public Turno insert(Turno turno) throws DAOException {
         Turno turnoInsertado = null;
-        if(findById(turno.getIdTurno())==null){
-            try (PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(insert_SQL, Statement.RETURN_GENERATED_KEYS)) {
-
-                pstm.setString(1, turno.getDescripcion());
-                pstm.setTime(2, Time.valueOf(turno.getHoraInicio()));
-                pstm.setTime(3, Time.valueOf(turno.getHoraFin()));
-
-                if (pstm.executeUpdate() > 0) {
-                    ResultSet rs = pstm.getGeneratedKeys();
-                    if (rs.next()) {
-                        turno.setIdTurno(rs.getInt(1));
-                        turnoInsertado = turno;
-                    }
-                }
-
-            } catch (SQLException e) {
-                throw new DAOException("Error al insertar turno: " + e.getMessage(), DAOErrorTipo.INSERT_ERROR);
+        try {
+            int idTurno = EjecutorSql.insertar("TurnoDAO.insert", ConnectionDB::getConnection, insert_SQL,
+                    turno.getDescripcion(), turno.getHoraInicio(), turno.getHoraFin());
+            if (idTurno > 0) {
+                turno.setIdTurno(idTurno);
+                turnoInsertado = turno;
+                actualizarCatalogo(turno);
             }
+        } catch (SQLException e) {
+            throw EjecutorSql.error("Error al insertar turno", e, DAOErrorTipo.INSERT_ERROR);
         }
         return turnoInsertado;
 
     }
 
     /**
-     * Actualiza un turno existente en la base de datos.
+     * Actualiza un turno existente en la base de datos, siempre que no haya cambiado
+     * desde que se leyó. Al actualizarlo se incrementa su versión.
      *
      * @param turno El turno con los nuevos datos
-     * @return El turno actualizado, o null si no existe
-     * @throws DAOException Si ocurre un error durante la actualización o si el turno no existe
+     * @return El turno actualizado, o null si no se indica ninguno
+     * @throws DAOException Si ocurre un error durante la actualización, de tipo
+     *         {@link DAOErrorTipo#NOT_FOUND} si el turno no existe o
+     *         {@link DAOErrorTipo#VERSION_CONFLICT} si otro usuario lo ha modificado
      */
     @Override
     public Turno update(Turno turno) throws DAOException {
         Turno turnoActualizado = null;
 
         if (turno != null) {
-            Turno turnoExistente = findById(turno.getIdTurno());
-            if (turnoExistente != null) {
-                try (PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(update_SQL)) {
-                    pstm.setString(1, turno.getDescripcion());
-                    pstm.setTime(2, Time.valueOf(turno.getHoraInicio()));
-                    pstm.setTime(3, Time.valueOf(turno.getHoraFin()));
-                    pstm.setInt(4, turno.getIdTurno());
-
-                    if (pstm.executeUpdate() > 0) {
-                        turnoActualizado = turno;
-                    }
-                } catch (SQLException e) {
-                    throw new DAOException("Error al actualizar turno: " + e.getMessage(), DAOErrorTipo.UPDATE_ERROR);
-                }
-            }else{
-                throw new DAOException("El turno no existe", DAOErrorTipo.NOT_FOUND);
+            int filas;
+            try {
+                filas = EjecutorSql.actualizar("TurnoDAO.update",
+                        ConnectionDB::getConnection, update_SQL, turno.getDescripcion(),
+                        turno.getHoraInicio(), turno.getHoraFin(), turno.getIdTurno(), turno.getVersion());
+            } catch (SQLException e) {
+                throw EjecutorSql.error("Error al actualizar turno", e, DAOErrorTipo.UPDATE_ERROR);
             }
+            if (filas == 0) {
+                throw EjecutorSql.sinActualizar("TurnoDAO.update", exists_SQL, turno.getIdTurno(), "El turno");
+            }
+            turno.setVersion(turno.getVersion() + 1);
+            turnoActualizado = turno;
+            MapaIdentidad.quitar(Turno.class, turno.getIdTurno());
+            actualizarCatalogo(turno);
         }
 
         return turnoActualizado;
@@ -107,7 +159,7 @@ public class TurnoDAO implements CrudDAO<Turno> {
      * La eliminación también eliminará todas las asignaciones asociadas a este turno.
      *
      * @param turno El turno a eliminar
-     * @return true si se eliminó correctamente, false en caso contrario
+     * @return true si se eliminó correctamente, false si no existía
      * @throws DAOException Si ocurre un error durante la eliminación
      */
     @Override
@@ -115,16 +167,19 @@ public class TurnoDAO implements CrudDAO<Turno> {
         boolean deleted = false;
 
         if (turno != null) {
-            Turno turnoExistente = findById(turno.getIdTurno());
-            if (turnoExistente != null) {
-                try (PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(delete_SQL)) {
-                    pstm.setInt(1, turnoExistente.getIdTurno());
-                    if (pstm.executeUpdate() > 0) {
-                        deleted = true;
+            try {
+                if (EjecutorSql.actualizar("TurnoDAO.delete",
+                        ConnectionDB::getConnection, delete_SQL, turno.getIdTurno()) > 0) {
+                    deleted = true;
+                    MapaIdentidad.quitar(Turno.class, turno.getIdTurno());
+                    if (UnidadTrabajo.enCurso()) {
+                        catalogo.invalidar();
+                    } else {
+                        catalogo.quitar(turno.getIdTurno());
                     }
-                } catch (SQLException e) {
-                    throw new DAOException("Error al eliminar turno: " + e.getMessage(), DAOErrorTipo.DELETE_ERROR);
                 }
+            } catch (SQLException e) {
+                throw EjecutorSql.error("Error al eliminar turno", e, DAOErrorTipo.DELETE_ERROR);
             }
         }
 
@@ -141,26 +196,24 @@ public class TurnoDAO implements CrudDAO<Turno> {
      */
     @Override
     public Turno findById(int id) throws DAOException {
-        Turno turno = null;
-
-        try (PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(findById_SQL)) {
-            pstm.setInt(1, id);
-            ResultSet rs = pstm.executeQuery();
-
-            if (rs.next()) {
-                turno = new Turno();
-                turno.setIdTurno(rs.getInt("id_turno"));
-                turno.setDescripcion(rs.getString("descripcion"));
-                turno.setHoraInicio(rs.getTime("hora_inicio").toLocalTime());
-                turno.setHoraFin(rs.getTime("hora_fin").toLocalTime());
-            }
+        Turno turno = MapaIdentidad.buscar(Turno.class, id);
+        if (turno != null) {
+            return turno;
+        }
+
+        Map<Integer, Turno> enCatalogo = catalogo();
+        if (enCatalogo != null) {
+            Turno guardado = enCatalogo.get(id);
+            return guardado != null ? resolver(guardado, MapaIdentidad.entidades(Turno.class)) : null;
+        }
+
+        try {
+            return EjecutorSql.primero("TurnoDAO.findById", ConnectionDB::getConnection, findById_SQL, TURNO_COMPARTIDO, id);
         } catch (SQLException e) {
             throw new DAOException("Error al buscar turno: " + e.getMessage(),
                     DAOErrorTipo.NOT_FOUND);
         }
 
-        return turno;
-
     }
 
     /**
@@ -171,24 +224,129 @@ public class TurnoDAO implements CrudDAO<Turno> {
      */
     @Override
     public List<Turno> findAll() throws DAOException {
-        List<Turno> turnos = new ArrayList<>();
-
-        try (PreparedStatement pstm = ConnectionDB.getConnection().prepareStatement(findAll_SQL);
-             ResultSet rs = pstm.executeQuery()) {
-
-            while (rs.next()) {
-                Turno turno = new Turno();
-                turno.setIdTurno(rs.getInt("id_turno"));
-                turno.setDescripcion(rs.getString("descripcion"));
-                turno.setHoraInicio(rs.getTime("hora_inicio").toLocalTime());
-                turno.setHoraFin(rs.getTime("hora_fin").toLocalTime());
-                turnos.add(turno);
+        Map<Integer, Turno> enCatalogo = catalogo();
+        if (enCatalogo != null) {
+            List<Turno> turnos = new ArrayList<>();
+            Map<Integer, Turno> porId = MapaIdentidad.entidades(Turno.class);
+            for (Turno guardado : enCatalogo.values()) {
+                turnos.add(resolver(guardado, porId));
             }
+            return turnos;
+        }
+
+        try {
+            return EjecutorSql.lista("TurnoDAO.findAll", ConnectionDB::getReadConnection, findAll_SQL, TURNO_COMPARTIDO);
         } catch (SQLException e) {
             throw new DAOException("Error al obtener todos los turnos: " + e.getMessage(), DAOErrorTipo.NOT_FOUND);
         }
 
+    }
+
+    /**
+     * Obtiene una página de turnos ordenados por su ID. Con el catálogo en memoria la
+     * página se toma de él, que ya está ordenado por ID.
+     *
+     * @param afterId ID del último turno ya leído, 0 para la primera página
+     * @param limit Número máximo de turnos de la página
+     * @return Lista con los turnos de la página
+     * @throws DAOException Si ocurre un error al obtener los datos
+     */
+    @Override
+    public List<Turno> findPage(int afterId, int limit) throws DAOException {
+        Map<Integer, Turno> enCatalogo = catalogo();
+        if (enCatalogo != null) {
+            List<Turno> turnos = new ArrayList<>();
+            Map<Integer, Turno> porId = MapaIdentidad.entidades(Turno.class);
+            for (Turno guardado : enCatalogo.values()) {
+                if (turnos.size() == limit) {
+                    break;
+                }
+                if (guardado.getIdTurno() > afterId) {
+                    turnos.add(resolver(guardado, porId));
+                }
+            }
+            return turnos;
+        }
+
+        try {
+            return EjecutorSql.lista("TurnoDAO.findPage",
+                    ConnectionDB::getReadConnection, findPage_SQL, TURNO_COMPARTIDO, afterId, limit);
+        } catch (SQLException e) {
+            throw new DAOException("Error al obtener los turnos: " + e.getMessage(), DAOErrorTipo.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Obtiene el catálogo de turnos en memoria, cargándolo si no está o ha caducado.
+     *
+     * @return Turnos por su ID en orden de ID, o null si la caché está desactivada o hay una unidad de trabajo en curso
+     * @throws DAOException Si falla la carga del catálogo
+     */
+    private Map<Integer, Turno> catalogo() throws DAOException {
+        long ttl;
+        try {
+            ttl = ConnectionDB.getCatalogCacheTtl();
+        } catch (SQLException e) {
+            throw EjecutorSql.error("Error al cargar el catálogo de turnos", e, DAOErrorTipo.CONNECTION_ERROR);
+        }
+        if (ttl <= 0 || UnidadTrabajo.enCurso()) {
+            return null;
+        }
+        Map<Integer, Turno> turnos = catalogo.vigente(ttl);
+        if (turnos == null) {
+            long version = catalogo.version();
+            turnos = new HashMap<>();
+            try {
+                for (Turno turno : EjecutorSql.lista("TurnoDAO.catalogo",
+                        ConnectionDB::getReadConnection, findAll_SQL, TURNO)) {
+                    turnos.put(turno.getIdTurno(), turno);
+                }
+            } catch (SQLException e) {
+                throw new DAOException("Error al cargar el catálogo de turnos: " + e.getMessage(), DAOErrorTipo.NOT_FOUND);
+            }
+            turnos = catalogo.cargar(turnos, version);
+        }
         return turnos;
+    }
+
+    /**
+     * Refleja en el catálogo un turno insertado o modificado. Dentro de una unidad de
+     * trabajo el cambio aún puede deshacerse, así que el catálogo se descarta.
+     *
+     * @param turno Turno guardado en la base de datos
+     */
+    private void actualizarCatalogo(Turno turno) {
+        if (UnidadTrabajo.enCurso()) {
+            catalogo.invalidar();
+        } else {
+            catalogo.guardar(new Turno(turno));
+        }
+    }
+
+    /**
+     * Obtiene la instancia que se entrega para un turno del catálogo: la del mapa de
+     * identidad si ya está en él o, si no, una copia que se añade al mapa.
+     *
+     * @param guardado Turno del catálogo
+     * @param porId Turnos ya entregados, por su ID
+     * @return Turno que puede entregarse y modificarse sin afectar al catálogo
+     */
+    private Turno resolver(Turno guardado, Map<Integer, Turno> porId) {
+        Turno turno = porId.get(guardado.getIdTurno());
+        if (turno == null) {
+            turno = new Turno(guardado);
+            porId.put(turno.getIdTurno(), turno);
+        }
+        return turno;
+    }
 
+    /**
+     * Obtiene las sentencias SQL que usa el panel principal de la empresa,
+     * para prepararlas durante el arranque de la aplicación.
+     *
+     * @return Lista de sentencias SQL
+     */
+    public List<String> getSentenciasFrecuentes() {
+        return List.of(findById_SQL, findAll_SQL);
     }
-}
\ No newline at end of file
+}
@@ -4,8 +4,16 @@ import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import org.dam.fcojavier.gestionpersonal.DAOs.AusenciaDAO;
+import org.dam.fcojavier.gestionpersonal.DAOs.EmpleadoDAO;
+import org.dam.fcojavier.gestionpersonal.DAOs.EmpresaDAO;
+import org.dam.fcojavier.gestionpersonal.DAOs.PerteneceTurnoDAO;
+import org.dam.fcojavier.gestionpersonal.DAOs.TurnoDAO;
+import org.dam.fcojavier.gestionpersonal.bbdd.ConnectionDB;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class GestionPersonalApp extends Application {
 
@@ -18,6 +26,29 @@ public class GestionPersonalApp extends Application {
         stage.setWidth(1500);
         stage.setHeight(875);
         stage.show();
+
+        Thread.ofPlatform().daemon().name("warm-up").start(() -> ConnectionDB.warmUp(sentenciasFrecuentes()));
+    }
+
+    /**
+     * Reúne las sentencias SQL del inicio de sesión y del panel principal,
+     * que se preparan en segundo plano mientras se muestra la bienvenida.
+     *
+     * @return Lista de sentencias SQL
+     */
+    private static List<String> sentenciasFrecuentes() {
+        EmpleadoDAO empleadoDAO = new EmpleadoDAO();
+        List<String> sentencias = new ArrayList<>(new EmpresaDAO().getSentenciasFrecuentes());
+        sentencias.addAll(empleadoDAO.getSentenciasFrecuentes());
+        sentencias.addAll(new AusenciaDAO().getSentenciasFrecuentes());
+        sentencias.addAll(new PerteneceTurnoDAO().getSentenciasFrecuentes());
+        sentencias.addAll(new TurnoDAO().getSentenciasFrecuentes());
+        return sentencias;
+    }
+
+    @Override
+    public void stop() {
+        ConnectionDB.closeConnection();
     }
 
 
@@ -0,0 +1,243 @@
+package org.dam.fcojavier.gestionpersonal.bbdd;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Lectura y escritura del archivo XML de configuración de la conexión.
+ * El archivo se recorre con StAX y cada elemento se asigna directamente a su propiedad,
+ * sin reflexión ni contextos de enlace que construir.
+ */
+public final class ConfigLoader {
+    /** Elemento raíz del archivo */
+    private static final String ROOT = "connection";
+
+    /** Fábrica de lectores StAX, segura para usarse desde varios hilos una vez configurada */
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    /** Fábrica de escritores StAX */
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    private ConfigLoader() {
+    }
+
+    /**
+     * Crea la fábrica de lectores desactivando DTDs y entidades externas.
+     *
+     * @return Fábrica de lectores StAX
+     */
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Lee las propiedades de conexión de un archivo. Si el archivo no existe o está vacío,
+     * se crea con los valores por defecto.
+     *
+     * @param file Ruta del archivo XML
+     * @return Propiedades leídas
+     * @throws IOException Si el archivo no puede leerse o crearse
+     * @throws XMLStreamException Si el contenido no es un XML de conexión válido
+     */
+    public static ConnectionProperties load(Path file) throws IOException, XMLStreamException {
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            write(new ConnectionProperties(), file);
+        }
+        return read(file);
+    }
+
+    /**
+     * Lee las propiedades de conexión de un archivo existente.
+     *
+     * @param file Ruta del archivo XML
+     * @return Propiedades leídas
+     * @throws IOException Si el archivo no puede leerse
+     * @throws XMLStreamException Si el contenido no es un XML de conexión válido
+     */
+    public static ConnectionProperties read(Path file) throws IOException, XMLStreamException {
+        try (InputStream in = Files.newInputStream(file)) {
+            XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                return readConnection(reader);
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Lee el elemento raíz y todas sus propiedades.
+     *
+     * @param reader Lector posicionado al inicio del documento
+     * @return Propiedades leídas
+     * @throws XMLStreamException Si el contenido no es válido
+     */
+    private static ConnectionProperties readConnection(XMLStreamReader reader) throws XMLStreamException {
+        reader.nextTag();
+        if (!ROOT.equals(reader.getLocalName())) {
+            throw new XMLStreamException("Se esperaba el elemento <" + ROOT + ">", reader.getLocation());
+        }
+        ConnectionProperties properties = new ConnectionProperties();
+        while (reader.nextTag() == XMLStreamReader.START_ELEMENT) {
+            String name = reader.getLocalName();
+            if (name.equals("replicas")) {
+                readReplicas(reader, properties);
+                continue;
+            }
+            String value = reader.getElementText().trim();
+            try {
+                switch (name) {
+                    case "server" -> properties.setServer(value);
+                    case "port" -> properties.setPort(value);
+                    case "dataBase" -> properties.setDataBase(value);
+                    case "user" -> properties.setUser(value);
+                    case "password" -> properties.setPassword(value);
+                    case "minPoolSize" -> properties.setMinPoolSize(Integer.parseInt(value));
+                    case "maxPoolSize" -> properties.setMaxPoolSize(Integer.parseInt(value));
+                    case "leaseTimeout" -> properties.setLeaseTimeout(Long.parseLong(value));
+                    case "maxLifetime" -> properties.setMaxLifetime(Long.parseLong(value));
+                    case "idleTimeout" -> properties.setIdleTimeout(Long.parseLong(value));
+                    case "validationTimeout" -> properties.setValidationTimeout(Integer.parseInt(value));
+                    case "statementCacheSize" -> properties.setStatementCacheSize(Integer.parseInt(value));
+                    case "replicaRetryInterval" -> properties.setReplicaRetryInterval(Long.parseLong(value));
+                    case "readYourWritesWindow" -> properties.setReadYourWritesWindow(Long.parseLong(value));
+                    case "catalogCacheTtl" -> properties.setCatalogCacheTtl(Long.parseLong(value));
+                    case "asyncTimeout" -> properties.setAsyncTimeout(Long.parseLong(value));
+                    case "slowQueryThreshold" -> properties.setSlowQueryThreshold(Long.parseLong(value));
+                    default -> throw new XMLStreamException("Propiedad desconocida <" + name + ">", reader.getLocation());
+                }
+            } catch (NumberFormatException e) {
+                throw new XMLStreamException("Valor numérico no válido en <" + name + ">: " + value, reader.getLocation());
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Lee la lista de réplicas de lectura.
+     *
+     * @param reader Lector posicionado en el elemento replicas
+     * @param properties Propiedades donde añadir las réplicas
+     * @throws XMLStreamException Si el contenido no es válido
+     */
+    private static void readReplicas(XMLStreamReader reader, ConnectionProperties properties) throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamReader.START_ELEMENT) {
+            if (!reader.getLocalName().equals("replica")) {
+                throw new XMLStreamException("Se esperaba el elemento <replica>", reader.getLocation());
+            }
+            ReplicaProperties replica = new ReplicaProperties();
+            while (reader.nextTag() == XMLStreamReader.START_ELEMENT) {
+                String name = reader.getLocalName();
+                String value = reader.getElementText().trim();
+                switch (name) {
+                    case "server" -> replica.setServer(value);
+                    case "port" -> replica.setPort(value);
+                    case "dataBase" -> replica.setDataBase(value);
+                    case "user" -> replica.setUser(value);
+                    case "password" -> replica.setPassword(value);
+                    default -> throw new XMLStreamException("Propiedad de réplica desconocida <" + name + ">",
+                            reader.getLocation());
+                }
+            }
+            properties.getReplicas().add(replica);
+        }
+    }
+
+    /**
+     * Guarda las propiedades de conexión en un archivo XML.
+     *
+     * @param properties Propiedades a guardar
+     * @param file Ruta del archivo XML
+     * @throws IOException Si el archivo no puede escribirse
+     * @throws XMLStreamException Si falla la generación del XML
+     */
+    public static void write(ConnectionProperties properties, Path file) throws IOException, XMLStreamException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(out, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeCharacters("\n");
+            writer.writeStartElement(ROOT);
+            writeElement(writer, 1, "server", properties.getServer());
+            writeElement(writer, 1, "port", properties.getPort());
+            writeElement(writer, 1, "dataBase", properties.getDataBase());
+            writeElement(writer, 1, "user", properties.getUser());
+            writeElement(writer, 1, "password", properties.getPassword());
+            writeElement(writer, 1, "minPoolSize", properties.getMinPoolSize());
+            writeElement(writer, 1, "maxPoolSize", properties.getMaxPoolSize());
+            writeElement(writer, 1, "leaseTimeout", properties.getLeaseTimeout());
+            writeElement(writer, 1, "maxLifetime", properties.getMaxLifetime());
+            writeElement(writer, 1, "idleTimeout", properties.getIdleTimeout());
+            writeElement(writer, 1, "validationTimeout", properties.getValidationTimeout());
+            writeElement(writer, 1, "statementCacheSize", properties.getStatementCacheSize());
+            if (!properties.getReplicas().isEmpty()) {
+                indent(writer, 1);
+                writer.writeStartElement("replicas");
+                for (ReplicaProperties replica : properties.getReplicas()) {
+                    indent(writer, 2);
+                    writer.writeStartElement("replica");
+                    writeElement(writer, 3, "server", replica.getServer());
+                    writeElement(writer, 3, "port", replica.getPort());
+                    writeElement(writer, 3, "dataBase", replica.getDataBase());
+                    writeElement(writer, 3, "user", replica.getUser());
+                    writeElement(writer, 3, "password", replica.getPassword());
+                    indent(writer, 2);
+                    writer.writeEndElement();
+                }
+                indent(writer, 1);
+                writer.writeEndElement();
+            }
+            writeElement(writer, 1, "replicaRetryInterval", properties.getReplicaRetryInterval());
+            writeElement(writer, 1, "readYourWritesWindow", properties.getReadYourWritesWindow());
+            writeElement(writer, 1, "catalogCacheTtl", properties.getCatalogCacheTtl());
+            writeElement(writer, 1, "asyncTimeout", properties.getAsyncTimeout());
+            writeElement(writer, 1, "slowQueryThreshold", properties.getSlowQueryThreshold());
+            writer.writeCharacters("\n");
+            writer.writeEndElement();
+            writer.writeCharacters("\n");
+            writer.writeEndDocument();
+            writer.close();
+        }
+    }
+
+    /**
+     * Escribe un elemento simple en su propia línea. Los valores nulos se omiten.
+     *
+     * @param writer Escritor StAX
+     * @param depth Nivel de sangrado
+     * @param name Nombre del elemento
+     * @param value Valor del elemento
+     * @throws XMLStreamException Si falla la escritura
+     */
+    private static void writeElement(XMLStreamWriter writer, int depth, String name, Object value)
+            throws XMLStreamException {
+        if (value == null) {
+            return;
+        }
+        indent(writer, depth);
+        writer.writeStartElement(name);
+        writer.writeCharacters(String.valueOf(value));
+        writer.writeEndElement();
+    }
+
+    /**
+     * Escribe un salto de línea y el sangrado del nivel indicado.
+     *
+     * @param writer Escritor StAX
+     * @param depth Nivel de sangrado
+     * @throws XMLStreamException Si falla la escritura
+     */
+    private static void indent(XMLStreamWriter writer, int depth) throws XMLStreamException {
+        writer.writeCharacters("\n" + "    ".repeat(depth));
+    }
+}
@@ -0,0 +1,128 @@
+package org.dam.fcojavier.gestionpersonal.bbdd;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Vigila el archivo de configuración de la conexión y notifica las nuevas propiedades
+ * cada vez que cambia. Los cambios seguidos se agrupan y un archivo no válido solo se
+ * anota, de modo que se conserva la configuración anterior hasta que se corrija.
+ */
+final class ConfigWatcher implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigWatcher.class);
+
+    /** Tiempo (ms) sin cambios que se espera antes de releer el archivo */
+    private static final long SETTLE_DELAY = 250;
+
+    /** Archivo vigilado */
+    private final Path file;
+
+    /** Acción que recibe las propiedades releídas */
+    private final Consumer<ConnectionProperties> onChange;
+
+    /** Servicio de vigilancia del directorio del archivo */
+    private final WatchService watchService;
+
+    /** Hilo de vigilancia */
+    private final Thread thread;
+
+    /**
+     * Empieza a vigilar un archivo de configuración.
+     *
+     * @param file Archivo a vigilar
+     * @param onChange Acción que recibe las propiedades cada vez que el archivo cambia
+     * @throws IOException Si no puede registrarse la vigilancia del directorio
+     */
+    ConfigWatcher(Path file, Consumer<ConnectionProperties> onChange) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.onChange = onChange;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = Thread.ofPlatform().daemon().name("config-watcher").start(this::watch);
+    }
+
+    /**
+     * Bucle de vigilancia: espera cambios en el archivo y relee la configuración.
+     */
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = drain(key);
+                // Los editores suelen escribir en varios pasos: se espera a que el archivo se estabilice
+                WatchKey next;
+                while ((next = watchService.poll(SETTLE_DELAY, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(next);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Vigilancia detenida
+        }
+    }
+
+    /**
+     * Consume los eventos de una clave e indica si alguno afecta al archivo vigilado.
+     *
+     * @param key Clave con eventos pendientes
+     * @return true si el archivo vigilado ha cambiado
+     */
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path path && path.equals(file.getFileName())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Relee el archivo y notifica las nuevas propiedades.
+     */
+    private void reload() {
+        try {
+            if (!Files.exists(file) || Files.size(file) == 0) {
+                // Guardado en curso: el siguiente evento traerá el contenido definitivo
+                return;
+            }
+            onChange.accept(ConfigLoader.read(file));
+        } catch (IOException | XMLStreamException e) {
+            logger.error("Configuración {} no válida, se mantiene la actual: {}", file.getFileName(), e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Error al aplicar la configuración {}", file.getFileName(), e);
+        }
+    }
+
+    /**
+     * Detiene la vigilancia del archivo.
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn("Error al detener la vigilancia de {}: {}", file.getFileName(), e.getMessage());
+        }
+        thread.interrupt();
+    }
+}
@@ -1,64 +1,487 @@
 package org.dam.fcojavier.gestionpersonal.bbdd;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 
 /**
- * Clase que implementa el patrón Singleton para gestionar la conexión a la base de datos.
- * Proporciona métodos para obtener y cerrar una conexión a la base de datos utilizando
- * propiedades de conexión almacenadas en un archivo XML.
+ * Clase que implementa el patrón Singleton para gestionar el acceso a la base de datos.
+ * Las conexiones se obtienen de un {@link ConnectionPool} configurado con las propiedades
+ * almacenadas en un archivo XML, de forma que varias ventanas y tareas en segundo plano
+ * pueden trabajar a la vez sin compartir una misma conexión. Si el XML describe réplicas
+ * de lectura, las consultas de solo lectura pueden repartirse entre ellas.
+ * El archivo se vigila mientras la aplicación está abierta: al modificarlo se abren pools
+ * con la nueva configuración y se sustituyen los anteriores sin reiniciar la aplicación.
+ * Antes de entregar la primera conexión se aplican las migraciones pendientes del esquema.
  *
  */
 public class ConnectionDB {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionDB.class);
+
+    /** Registro de las llamadas lentas de los DAOs, con su propio appender en logback.xml */
+    private static final Logger slowQueries = LoggerFactory.getLogger("org.dam.fcojavier.gestionpersonal.slowquery");
+
+    /** Dominio JMX bajo el que se publican las métricas de acceso a datos */
+    private static final String JMX_DOMAIN = "org.dam.fcojavier.gestionpersonal";
+
+    /** Clase del driver JDBC de MySQL */
+    private static final String DRIVER = "com.mysql.cj.jdbc.Driver";
+
     /** Nombre del archivo XML que contiene las propiedades de conexión */
     private final static String FILE = "connection.xml";
-    
-    /** Instancia de la conexión a la base de datos */
-    private static Connection con;
-    
+
     /** Instancia única de la clase (patrón Singleton) */
-    private static ConnectionDB _instance;
+    private static volatile ConnectionDB _instance;
+
+    /** Métricas de ejecución de las sentencias SQL, compartidas por todas las configuraciones */
+    private final JdbcMetrics metrics = new JdbcMetrics();
+
+    /** Propiedades de la configuración en uso */
+    private volatile ConnectionProperties properties;
+
+    /** Pools de la configuración en uso; se sustituyen de una vez al recargar el archivo */
+    private volatile Pools pools;
+
+    /** Vigilancia del archivo de configuración, o null si no pudo iniciarse */
+    private final ConfigWatcher watcher;
+
+    /**
+     * Constructor privado que inicializa el pool de conexiones.
+     * Abre las conexiones mínimas, aplica las migraciones pendientes, publica por JMX el estado
+     * del pool y las métricas de las sentencias, y empieza a vigilar el archivo de configuración.
+     *
+     * @param properties Propiedades de conexión leídas del archivo XML
+     * @throws SQLException Si no puede conectarse con la base de datos principal o el esquema no
+     *         queda en la versión que necesita la aplicación; los pools abiertos se cierran y el
+     *         siguiente acceso vuelve a intentarlo
+     */
+    private ConnectionDB(ConnectionProperties properties) throws SQLException {
+        this.properties = properties;
+        this.pools = Pools.open(properties, metrics);
+        try {
+            migrate(pools.primary);
+        } catch (SQLException e) {
+            pools.close(null);
+            throw e;
+        }
+        registerMBean(metrics, "type=JdbcMetrics");
+        ConfigWatcher configWatcher = null;
+        try {
+            configWatcher = new ConfigWatcher(Path.of(FILE), this::reload);
+        } catch (IOException e) {
+            logger.warn("No se vigilarán los cambios de {}: {}", FILE, e.getMessage());
+        }
+        this.watcher = configWatcher;
+    }
 
     /**
-     * Constructor privado que inicializa la conexión a la base de datos.
-     * Lee las propiedades de conexión desde un archivo XML y establece la conexión.
+     * Aplica una configuración releída del archivo. Si ha cambiado, abre los nuevos pools,
+     * comprueba que la base de datos principal responde y solo entonces los pone en uso;
+     * los pools anteriores se cierran y sus conexiones prestadas se descartan al devolverse.
+     *
+     * @param updated Propiedades releídas
      */
-    private ConnectionDB() {
-        ConnectionProperties properties = XMLManager.readXML(new ConnectionProperties(),FILE);
+    private synchronized void reload(ConnectionProperties updated) {
+        if (updated.equals(properties)) {
+            return;
+        }
+        Pools fresh = Pools.open(updated, metrics);
+        try (Connection probe = fresh.primary.getConnection()) {
+            logger.debug("Nueva configuración verificada con {}", probe);
+        } catch (SQLException e) {
+            logger.error("La nueva configuración de {} no conecta, se mantiene la actual: {}", FILE, e.getMessage());
+            fresh.close(null);
+            pools.register();
+            return;
+        }
         try {
-            con = DriverManager.getConnection(properties.getURL(),properties.getUser(),properties.getPassword());
+            migrate(fresh.primary);
         } catch (SQLException e) {
-            e.printStackTrace();
-            con = null;
+            logger.error("La nueva configuración de {} no se usa, se mantiene la actual: {}", FILE, e.getMessage());
+            fresh.close(null);
+            pools.register();
+            return;
+        }
+        Pools old = pools;
+        pools = fresh;
+        properties = updated;
+        old.close(fresh);
+        logger.info("Configuración de {} recargada: {}:{}/{} con {} réplicas", FILE, updated.getServer(),
+                updated.getPort(), updated.getDataBase(), updated.getReplicas().size());
+    }
+
+    /**
+     * Aplica las migraciones pendientes del esquema en la base de datos de un pool y
+     * comprueba que el esquema queda en la versión que necesitan los DAOs. Si otra instancia
+     * ya lo ha migrado, un fallo al aplicar las migraciones solo se anota.
+     *
+     * @param primary Pool de la base de datos principal
+     * @throws SQLException Si no puede conectarse con la base de datos o el esquema no está
+     *         en la versión que necesita la aplicación
+     */
+    private static void migrate(ConnectionPool primary) throws SQLException {
+        try {
+            int applied = MigrationRunner.migrate(primary);
+            if (applied > 0) {
+                logger.info("{} migraciones del esquema aplicadas", applied);
+            }
+        } catch (SQLException | IOException e) {
+            logger.error("No se pudieron aplicar las migraciones del esquema: {}", e.getMessage());
+        }
+        MigrationRunner.verify(primary);
+    }
+
+    /**
+     * Registra un MBean en el servidor de la plataforma, sustituyendo el anterior si existe.
+     * Un fallo en el registro solo se anota: las métricas no deben impedir el acceso a datos.
+     *
+     * @param mbean Objeto a publicar
+     * @param properties Propiedades del nombre JMX dentro del dominio de la aplicación
+     */
+    private static void registerMBean(Object mbean, String properties) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":" + properties);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(mbean, objectName);
+        } catch (JMException e) {
+            logger.warn("No se pudo publicar el MBean {}: {}", properties, e.getMessage());
+        }
+    }
+
+    /**
+     * Retira un MBean del servidor de la plataforma si está registrado.
+     *
+     * @param properties Propiedades del nombre JMX dentro del dominio de la aplicación
+     */
+    private static void unregisterMBean(String properties) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":" + properties);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            logger.warn("No se pudo retirar el MBean {}: {}", properties, e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene la instancia única, creándola si no existe. Una vez creada se lee sin
+     * bloqueos, de modo que los hilos virtuales que piden conexiones no se quedan fijados
+     * a su hilo portador esperando el monitor de la clase.
+     *
+     * @return La instancia de ConnectionDB
+     * @throws SQLException Si no puede crearse porque la base de datos no responde o su
+     *         esquema no está al día
+     */
+    private static ConnectionDB getInstance() throws SQLException {
+        ConnectionDB instance = _instance;
+        if (instance == null) {
+            synchronized (ConnectionDB.class) {
+                instance = _instance;
+                if (instance == null) {
+                    instance = new ConnectionDB(loadProperties());
+                    _instance = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Lee las propiedades de conexión desde el archivo XML, creándolo con los valores
+     * por defecto si no existe.
+     *
+     * @return Propiedades de conexión
+     * @throws IllegalStateException Si el archivo no puede leerse o no es válido
+     */
+    private static ConnectionProperties loadProperties() {
+        try {
+            return ConfigLoader.load(Path.of(FILE));
+        } catch (IOException | XMLStreamException e) {
+            throw new IllegalStateException("No se pudo leer la configuración de " + FILE + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Prepara el acceso a datos antes de que el usuario lo necesite: carga el driver JDBC,
+     * lee la configuración, abre las conexiones mínimas y prepara en cada conexión ociosa
+     * las sentencias indicadas para que queden en su caché. Cada etapa anota su duración.
+     * Está pensado para ejecutarse en un hilo en segundo plano al arrancar la aplicación;
+     * los errores solo se anotan, y el primer uso real volverá a intentarlo.
+     *
+     * @param statements Sentencias SQL a preparar
+     */
+    public static void warmUp(Collection<String> statements) {
+        long start = System.nanoTime();
+        try {
+            Class.forName(DRIVER);
+            logStage("driver JDBC", start);
+
+            synchronized (ConnectionDB.class) {
+                if (_instance == null) {
+                    start = System.nanoTime();
+                    ConnectionProperties properties = loadProperties();
+                    logStage("configuración XML", start);
+
+                    start = System.nanoTime();
+                    _instance = new ConnectionDB(properties);
+                    logStage("apertura de conexiones", start);
+                }
+            }
+
+            start = System.nanoTime();
+            Pools current = getInstance().pools;
+            int prepared = prepareAll(current.primary, statements);
+            for (ConnectionPool replica : current.replicas) {
+                prepared += prepareAll(replica, statements);
+            }
+            logStage("preparación de " + prepared + " sentencias", start);
+        } catch (ClassNotFoundException | SQLException | RuntimeException e) {
+            logger.warn("Precalentamiento del acceso a datos incompleto: {}", e.getMessage());
         }
     }
 
     /**
-     * Obtiene una conexión a la base de datos.
-     * Si no existe una instancia previa, crea una nueva.
+     * Prepara las sentencias en todas las conexiones ociosas de un pool.
+     * Las conexiones se toman a la vez para no repetir siempre la misma.
+     *
+     * @param target Pool cuyas conexiones se preparan
+     * @param statements Sentencias SQL a preparar
+     * @return Número de sentencias preparadas
+     * @throws SQLException Si falla la preparación de alguna sentencia
+     */
+    private static int prepareAll(ConnectionPool target, Collection<String> statements) throws SQLException {
+        int prepared = 0;
+        int count = target.getIdleConnections();
+        List<Connection> leased = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                leased.add(target.getConnection());
+            }
+            for (Connection connection : leased) {
+                for (String sql : statements) {
+                    connection.prepareStatement(sql).close();
+                    prepared++;
+                }
+            }
+        } finally {
+            for (Connection connection : leased) {
+                connection.close();
+            }
+        }
+        return prepared;
+    }
+
+    /**
+     * Anota la duración de una etapa del precalentamiento.
+     *
+     * @param stage Nombre de la etapa
+     * @param start Instante de inicio en nanosegundos
+     */
+    private static void logStage(String stage, long start) {
+        logger.info("Precalentamiento: {} en {} ms", stage, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Obtiene una conexión del pool.
+     * La conexión debe cerrarse (por ejemplo con try-with-resources) para devolverla al pool.
+     * Si hay una {@link UnidadTrabajo} abierta en el hilo actual, se devuelve su conexión
+     * y el cierre no tiene efecto hasta que termina la unidad.
      *
      * @return Connection objeto que representa la conexión a la base de datos
+     * @throws SQLException Si no hay conexiones libres en el tiempo configurado o no puede abrirse una nueva
+     */
+    public static Connection getConnection() throws SQLException {
+        Connection enTransaccion = UnidadTrabajo.conexionActual();
+        if (enTransaccion != null) {
+            return enTransaccion;
+        }
+        return getInstance().pools.router.getConnection();
+    }
+
+    /**
+     * Obtiene una conexión para consultas de solo lectura que toleran un pequeño retraso
+     * de replicación. Se reparte entre las réplicas configuradas y, si no hay ninguna
+     * disponible, se obtiene de la conexión principal.
+     * Dentro de una {@link UnidadTrabajo} se usa su conexión, para leer los cambios aún sin confirmar.
+     * La conexión debe cerrarse para devolverla a su pool.
+     *
+     * @return Connection objeto que representa la conexión a una réplica o a la base de datos principal
+     * @throws SQLException Si no puede obtenerse ninguna conexión
+     */
+    public static Connection getReadConnection() throws SQLException {
+        Connection enTransaccion = UnidadTrabajo.conexionActual();
+        if (enTransaccion != null) {
+            return enTransaccion;
+        }
+        return getInstance().pools.router.getReadConnection();
+    }
+
+    /**
+     * Obtiene el tiempo que los DAOs pueden conservar en memoria los catálogos pequeños.
+     * Se lee en cada uso, de modo que los cambios del archivo se aplican sin reiniciar.
+     *
+     * @return Tiempo en milisegundos, o 0 si la caché está desactivada
+     * @throws SQLException Si no puede iniciarse el acceso a la base de datos
+     */
+    public static long getCatalogCacheTtl() throws SQLException {
+        return getInstance().properties.getCatalogCacheTtl();
+    }
+
+    /**
+     * Registra la duración de una llamada de un DAO en las métricas por llamada y, si supera
+     * el umbral {@code slowQueryThreshold}, la escribe con sus parámetros en el registro de
+     * consultas lentas. Los parámetros de las sentencias que manejan el hash de la
+     * contraseña no se escriben. Si el acceso a datos aún no se ha iniciado, porque la
+     * llamada falló al obtener la primera conexión, no se registra.
+     *
+     * @param statementId Identificador de la llamada, con la forma {@code Clase.metodo}
+     * @param sql Sentencia SQL ejecutada
+     * @param parameters Valores de los parámetros de la sentencia
+     * @param nanos Duración de la llamada en nanosegundos
+     * @param failed true si la llamada terminó con error
      */
-    public static Connection getConnection() {
-        if(_instance == null) {
-            _instance = new ConnectionDB();
+    public static void recordStatement(String statementId, String sql, Object[] parameters, long nanos, boolean failed) {
+        ConnectionDB instance = _instance;
+        if (instance == null) {
+            return;
+        }
+        instance.metrics.recordStatement(statementId, nanos, failed);
+        long threshold = instance.properties.getSlowQueryThreshold();
+        if (threshold > 0 && nanos >= threshold * 1_000_000 && slowQueries.isWarnEnabled()) {
+            String values = sql.contains("password_hash") ? "[ocultos]" : Arrays.deepToString(parameters);
+            slowQueries.warn("{} tardó {} ms{} - {} - parámetros: {}", statementId, nanos / 1_000_000,
+                    failed ? " y falló" : "", sql, values);
         }
-        return con;
     }
 
     /**
-     * Cierra la conexión a la base de datos si está abierta.
-     * Este método debe llamarse cuando ya no se necesite la conexión
+     * Obtiene el tiempo máximo que se espera a una llamada asíncrona a los DAOs.
+     * Se lee en cada llamada, de modo que los cambios del archivo se aplican sin reiniciar.
+     *
+     * @return Tiempo en milisegundos, o 0 si no hay límite
+     * @throws SQLException Si no puede iniciarse el acceso a la base de datos
+     */
+    public static long getAsyncTimeout() throws SQLException {
+        return getInstance().properties.getAsyncTimeout();
+    }
+
+    /**
+     * Obtiene el pool de conexiones en uso como {@link DataSource}.
+     * Tras una recarga de la configuración el pool devuelto queda cerrado, por lo que
+     * no debe conservarse: conviene pedirlo de nuevo en cada uso.
+     *
+     * @return DataSource respaldado por el pool principal actual
+     * @throws SQLException Si no puede iniciarse el acceso a la base de datos
+     */
+    public static DataSource getDataSource() throws SQLException {
+        return getInstance().pools.primary;
+    }
+
+    /**
+     * Cierra el pool, los pools de las réplicas y todas sus conexiones, y deja de
+     * vigilar el archivo de configuración.
+     * Este método debe llamarse al cerrar la aplicación
      * para liberar los recursos del sistema.
      */
-    public static void closeConnection() {
-        if(con != null) {
-            try {
-                con.close();
-            } catch (SQLException e) {
-                e.printStackTrace();
+    public static synchronized void closeConnection() {
+        if(_instance != null) {
+            if (_instance.watcher != null) {
+                _instance.watcher.close();
+            }
+            synchronized (_instance) {
+                _instance.pools.close(null);
+            }
+            unregisterMBean("type=JdbcMetrics");
+            _instance = null;
+        }
+    }
+
+    /**
+     * Pools abiertos para una configuración: el principal, los de las réplicas
+     * y el enrutador que reparte las conexiones entre ellos.
+     */
+    private static final class Pools {
+        /** Pool de la base de datos principal */
+        private final ConnectionPool primary;
+
+        /** Pools de las réplicas de lectura */
+        private final List<ConnectionPool> replicas;
+
+        /** Enrutador de las conexiones de lectura */
+        private final ReplicaRouter router;
+
+        private Pools(ConnectionPool primary, List<ConnectionPool> replicas, ReplicaRouter router) {
+            this.primary = primary;
+            this.replicas = replicas;
+            this.router = router;
+        }
+
+        /**
+         * Abre los pools descritos por una configuración y los publica por JMX.
+         *
+         * @param properties Propiedades de conexión
+         * @param metrics Métricas de ejecución de las sentencias
+         * @return Pools abiertos
+         */
+        static Pools open(ConnectionProperties properties, JdbcMetrics metrics) {
+            ConnectionPool primary = new ConnectionPool("primary", properties, metrics);
+            List<ConnectionPool> replicas = new ArrayList<>();
+            for (ReplicaProperties replica : properties.getReplicas()) {
+                replicas.add(new ConnectionPool("replica-" + (replicas.size() + 1),
+                        properties.forReplica(replica), metrics));
+            }
+            Pools pools = new Pools(primary, replicas,
+                    new ReplicaRouter(primary, replicas, properties.getReplicaRetryInterval(),
+                            properties.getReadYourWritesWindow()));
+            pools.register();
+            return pools;
+        }
+
+        /**
+         * Publica los pools por JMX, sustituyendo a los publicados con el mismo nombre.
+         */
+        void register() {
+            registerMBean(primary, "type=ConnectionPool,name=" + primary.getName());
+            for (ConnectionPool replica : replicas) {
+                registerMBean(replica, "type=ConnectionPool,name=" + replica.getName());
+            }
+        }
+
+        /**
+         * Cierra los pools y retira sus MBeans, salvo los nombres que siga usando su sustituto.
+         *
+         * @param successor Pools que sustituyen a estos, o null si no hay sustituto
+         */
+        void close(Pools successor) {
+            if (successor == null) {
+                unregisterMBean("type=ConnectionPool,name=" + primary.getName());
+            }
+            primary.close();
+            for (int i = 0; i < replicas.size(); i++) {
+                if (successor == null || i >= successor.replicas.size()) {
+                    unregisterMBean("type=ConnectionPool,name=" + replicas.get(i).getName());
+                }
+                replicas.get(i).close();
             }
         }
     }
-}
\ No newline at end of file
+}
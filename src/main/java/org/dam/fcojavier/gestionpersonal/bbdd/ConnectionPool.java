@@ -0,0 +1,484 @@
+package org.dam.fcojavier.gestionpersonal.bbdd;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool de conexiones JDBC acotado.
+ * Mantiene entre un mínimo y un máximo de conexiones físicas abiertas, limita el
+ * tiempo de espera para obtener una, valida las conexiones antes de prestarlas y
+ * retira periódicamente las que superan su tiempo de vida o de inactividad.
+ * Todos los parámetros se leen de {@link ConnectionProperties}.
+ */
+public class ConnectionPool implements DataSource, ConnectionPoolMXBean, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    /** Inactividad (ms) por debajo de la cual no se valida la conexión al prestarla */
+    private static final long VALIDATION_BYPASS = 500;
+
+    /** Intervalo máximo (ms) entre dos pasadas de mantenimiento */
+    private static final long HOUSEKEEPING_INTERVAL = 30000;
+
+    /** Nombre del pool, usado en logs y métricas */
+    private final String name;
+
+    /** URL JDBC de la base de datos */
+    private final String url;
+
+    /** Usuario de la base de datos */
+    private final String user;
+
+    /** Contraseña del usuario */
+    private final String password;
+
+    /** Número mínimo de conexiones abiertas */
+    private final int minSize;
+
+    /** Número máximo de conexiones abiertas */
+    private final int maxSize;
+
+    /** Tiempo máximo de espera (ms) para obtener una conexión */
+    private final long leaseTimeout;
+
+    /** Tiempo máximo de vida (ms) de una conexión física */
+    private final long maxLifetime;
+
+    /** Tiempo máximo de inactividad (ms) de una conexión */
+    private final long idleTimeout;
+
+    /** Tiempo máximo (s) para validar una conexión */
+    private final int validationTimeout;
+
+    /** Número máximo de sentencias preparadas en caché por conexión (0 = sin caché) */
+    private final int statementCacheSize;
+
+    /** Aciertos de la caché de sentencias de todas las conexiones */
+    private final LongAdder statementCacheHits = new LongAdder();
+
+    /** Fallos de la caché de sentencias de todas las conexiones */
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    /** Tiempos de espera para obtener una conexión */
+    private final LatencyHistogram borrowWait = new LatencyHistogram();
+
+    /** Préstamos que agotaron el tiempo de espera */
+    private final LongAdder borrowTimeouts = new LongAdder();
+
+    /** Métricas de ejecución de las sentencias, o null para no medir */
+    private final JdbcMetrics metrics;
+
+    /** Instante (ms) de la última sentencia que modificó datos a través del pool */
+    private volatile long lastWrite;
+
+    /** Permisos de préstamo; limita las conexiones en uso al tamaño máximo */
+    private final Semaphore permits;
+
+    /** Conexiones ociosas, la más recientemente usada al principio */
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+
+    /** Número de conexiones físicas abiertas (ociosas y prestadas) */
+    private final AtomicInteger total = new AtomicInteger();
+
+    /** Hilo de mantenimiento del pool */
+    private final ScheduledExecutorService housekeeper;
+
+    /** Indica si el pool se ha cerrado */
+    private volatile boolean closed;
+
+    /**
+     * Crea el pool y abre las conexiones mínimas configuradas.
+     *
+     * @param name Nombre del pool
+     * @param properties Propiedades de conexión y de dimensionado del pool
+     * @param metrics Métricas donde registrar la ejecución de las sentencias, o null para no medir
+     */
+    public ConnectionPool(String name, ConnectionProperties properties, JdbcMetrics metrics) {
+        this.name = name;
+        this.metrics = metrics;
+        this.url = properties.getURL();
+        this.user = properties.getUser();
+        this.password = properties.getPassword();
+        this.maxSize = Math.max(1, properties.getMaxPoolSize());
+        this.minSize = Math.max(0, Math.min(properties.getMinPoolSize(), maxSize));
+        this.leaseTimeout = properties.getLeaseTimeout();
+        this.maxLifetime = properties.getMaxLifetime();
+        this.idleTimeout = properties.getIdleTimeout();
+        this.validationTimeout = properties.getValidationTimeout();
+        this.statementCacheSize = Math.max(0, properties.getStatementCacheSize());
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pool-" + name + "-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = idleTimeout > 0 ? Math.min(idleTimeout / 2, HOUSEKEEPING_INTERVAL) : HOUSEKEEPING_INTERVAL;
+        housekeeper.scheduleWithFixedDelay(this::housekeep, interval, Math.max(interval, 1000), TimeUnit.MILLISECONDS);
+
+        fillToMinimum();
+        logger.info("Pool '{}' iniciado: min={}, max={}, conexiones abiertas={}", name, minSize, maxSize, total.get());
+    }
+
+    /**
+     * Obtiene una conexión del pool. La conexión debe cerrarse para devolverla.
+     *
+     * @return Conexión prestada
+     * @throws SQLException Si el pool está cerrado, se agota el tiempo de espera
+     * o no puede abrirse una conexión nueva
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("El pool '" + name + "' está cerrado");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(leaseTimeout, TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.increment();
+                throw new SQLTransientConnectionException("No hay conexiones libres en el pool '" + name
+                        + "' tras esperar " + leaseTimeout + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido mientras se esperaba una conexión", e);
+        }
+
+        try {
+            PooledConnection connection = takeIdle();
+            if (connection == null) {
+                connection = create();
+            }
+            borrowWait.record(System.nanoTime() - start);
+            return connection.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Extrae una conexión ociosa válida, descartando las caducadas o rotas.
+     *
+     * @return Conexión ociosa válida, o null si no queda ninguna
+     */
+    private PooledConnection takeIdle() {
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            if (connection.isExpired(maxLifetime) || !isAlive(connection)) {
+                destroy(connection);
+            } else {
+                return connection;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Valida una conexión si lleva suficiente tiempo ociosa.
+     *
+     * @param connection Conexión a validar
+     * @return true si la conexión es utilizable
+     */
+    private boolean isAlive(PooledConnection connection) {
+        if (connection.getIdleMillis() < VALIDATION_BYPASS) {
+            return true;
+        }
+        try {
+            return connection.getPhysical().isValid(validationTimeout);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Abre una nueva conexión física.
+     *
+     * @return Conexión gestionada por el pool
+     * @throws SQLException Si no puede abrirse la conexión
+     */
+    private PooledConnection create() throws SQLException {
+        total.incrementAndGet();
+        try {
+            StatementCache statementCache = statementCacheSize > 0
+                    ? new StatementCache(statementCacheSize, statementCacheHits, statementCacheMisses, this)
+                    : null;
+            return new PooledConnection(this, DriverManager.getConnection(url, user, password), statementCache);
+        } catch (SQLException | RuntimeException e) {
+            total.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Cierra una conexión física y la descuenta del pool.
+     *
+     * @param connection Conexión a descartar
+     */
+    private void destroy(PooledConnection connection) {
+        total.decrementAndGet();
+        connection.closePhysical();
+    }
+
+    /**
+     * Recibe una conexión devuelta por su usuario.
+     *
+     * @param connection Conexión devuelta
+     * @param broken true si se detectó un error de comunicación durante su uso
+     */
+    void release(PooledConnection connection, boolean broken) {
+        try {
+            if (closed || broken || connection.isExpired(maxLifetime)) {
+                destroy(connection);
+            } else {
+                try {
+                    connection.reset();
+                    idle.offerFirst(connection);
+                } catch (SQLException e) {
+                    logger.warn("Conexión descartada del pool '{}' al restaurar su estado: {}", name, e.getMessage());
+                    destroy(connection);
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Tarea de mantenimiento: retira conexiones ociosas o caducadas y repone el mínimo.
+     */
+    private void housekeep() {
+        try {
+            for (PooledConnection connection : idle) {
+                boolean expired = connection.isExpired(maxLifetime);
+                boolean idleTooLong = idleTimeout > 0 && connection.getIdleMillis() > idleTimeout && total.get() > minSize;
+                if ((expired || idleTooLong) && idle.remove(connection)) {
+                    destroy(connection);
+                }
+            }
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            logger.error("Error en el mantenimiento del pool '{}'", name, e);
+        }
+    }
+
+    /**
+     * Abre conexiones hasta alcanzar el tamaño mínimo del pool.
+     */
+    private void fillToMinimum() {
+        while (!closed && total.get() < minSize) {
+            try {
+                PooledConnection connection = create();
+                if (total.get() > maxSize) {
+                    destroy(connection);
+                    return;
+                }
+                idle.offerLast(connection);
+            } catch (SQLException e) {
+                logger.error("No se pudo abrir una conexión para el pool '{}': {}", name, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Cierra el pool y todas sus conexiones ociosas. Las conexiones prestadas
+     * se cierran en cuanto se devuelven.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            destroy(connection);
+        }
+        logger.info("Pool '{}' cerrado", name);
+    }
+
+    /**
+     * Anota que una sentencia ha modificado datos a través de este pool.
+     */
+    void recordWrite() {
+        lastWrite = System.currentTimeMillis();
+    }
+
+    /**
+     * Obtiene el instante de la última escritura realizada a través del pool.
+     *
+     * @return Instante en milisegundos, 0 si aún no se ha escrito
+     */
+    long getLastWrite() {
+        return lastWrite;
+    }
+
+    /**
+     * Obtiene las métricas donde se registra la ejecución de las sentencias.
+     *
+     * @return Métricas de ejecución, o null si no se miden
+     */
+    JdbcMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Obtiene el nombre del pool.
+     *
+     * @return Nombre del pool
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Obtiene el número de conexiones prestadas en este momento.
+     *
+     * @return Conexiones en uso
+     */
+    @Override
+    public int getActiveConnections() {
+        return maxSize - permits.availablePermits();
+    }
+
+    /**
+     * Obtiene el número de conexiones ociosas.
+     *
+     * @return Conexiones disponibles sin abrir una nueva
+     */
+    @Override
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    /**
+     * Obtiene el número de conexiones físicas abiertas.
+     *
+     * @return Conexiones abiertas
+     */
+    @Override
+    public int getTotalConnections() {
+        return total.get();
+    }
+
+    /**
+     * Obtiene el número de hilos esperando una conexión.
+     *
+     * @return Hilos en espera
+     */
+    @Override
+    public int getPendingThreads() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return borrowWait.getCount();
+    }
+
+    @Override
+    public double getBorrowWaitAverageMillis() {
+        return borrowWait.getAverageMillis();
+    }
+
+    @Override
+    public double getBorrowWaitMaxMillis() {
+        return borrowWait.getMaxMillis();
+    }
+
+    @Override
+    public long[] getBorrowWaitHistogram() {
+        return borrowWait.getBuckets();
+    }
+
+    @Override
+    public long[] getHistogramBoundsMillis() {
+        return LatencyHistogram.BOUNDS_MILLIS.clone();
+    }
+
+    @Override
+    public long getBorrowTimeouts() {
+        return borrowTimeouts.sum();
+    }
+
+    /**
+     * Obtiene el número de sentencias preparadas servidas desde la caché.
+     *
+     * @return Aciertos de la caché de sentencias
+     */
+    @Override
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    /**
+     * Obtiene el número de sentencias preparadas que no estaban en la caché.
+     *
+     * @return Fallos de la caché de sentencias
+     */
+    @Override
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    /**
+     * No soportado: el pool solo trabaja con las credenciales configuradas.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("El pool solo usa las credenciales configuradas");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        // El pool registra sus eventos con SLF4J
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("El pool no implementa " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
@@ -0,0 +1,45 @@
+package org.dam.fcojavier.gestionpersonal.bbdd;
+
+/**
+ * Interfaz JMX con el estado de un {@link ConnectionPool}.
+ */
+public interface ConnectionPoolMXBean {
+    /** @return Nombre del pool */
+    String getName();
+
+    /** @return Conexiones prestadas en este momento */
+    int getActiveConnections();
+
+    /** @return Conexiones ociosas disponibles */
+    int getIdleConnections();
+
+    /** @return Conexiones físicas abiertas */
+    int getTotalConnections();
+
+    /** @return Hilos esperando una conexión */
+    int getPendingThreads();
+
+    /** @return Número de préstamos realizados */
+    long getBorrowCount();
+
+    /** @return Tiempo medio de espera para obtener una conexión, en milisegundos */
+    double getBorrowWaitAverageMillis();
+
+    /** @return Tiempo máximo de espera para obtener una conexión, en milisegundos */
+    double getBorrowWaitMaxMillis();
+
+    /** @return Histograma de tiempos de espera según {@link #getHistogramBoundsMillis()} */
+    long[] getBorrowWaitHistogram();
+
+    /** @return Límites superiores (ms) de los intervalos del histograma */
+    long[] getHistogramBoundsMillis();
+
+    /** @return Préstamos que agotaron el tiempo de espera */
+    long getBorrowTimeouts();
+
+    /** @return Sentencias preparadas servidas desde la caché */
+    long getStatementCacheHits();
+
+    /** @return Sentencias preparadas que no estaban en la caché */
+    long getStatementCacheMisses();
+}
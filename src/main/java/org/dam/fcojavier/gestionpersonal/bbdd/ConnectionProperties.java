@@ -1,18 +1,15 @@
 package org.dam.fcojavier.gestionpersonal.bbdd;
 
-import javax.xml.bind.annotation.XmlAccessType;
-import javax.xml.bind.annotation.XmlAccessorType;
-import javax.xml.bind.annotation.XmlRootElement;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Clase que representa las propiedades de conexión a una base de datos MySQL.
- * Esta clase está diseñada para ser serializada/deserializada mediante JAXB para 
- * la lectura/escritura de configuraciones en formato XML.
+ * Las propiedades se leen y escriben en formato XML mediante {@link ConfigLoader}.
  *
  */
-@XmlRootElement(name = "connection")
-@XmlAccessorType(XmlAccessType.FIELD)
 public class ConnectionProperties implements Serializable {
     
     /** Identificador de versión para la serialización */
@@ -33,9 +30,47 @@ public class ConnectionProperties implements Serializable {
     /** Contraseña para la conexión */
     private String password;
 
+    /** Número mínimo de conexiones que el pool mantiene abiertas */
+    private int minPoolSize = 2;
+
+    /** Número máximo de conexiones que el pool puede abrir a la vez */
+    private int maxPoolSize = 10;
+
+    /** Tiempo máximo (ms) que se espera a que quede libre una conexión del pool */
+    private long leaseTimeout = 30000;
+
+    /** Tiempo máximo de vida (ms) de una conexión física antes de ser reemplazada */
+    private long maxLifetime = 1800000;
+
+    /** Tiempo (ms) que una conexión puede permanecer ociosa antes de cerrarse */
+    private long idleTimeout = 600000;
+
+    /** Tiempo máximo (s) para validar una conexión antes de prestarla */
+    private int validationTimeout = 5;
+
+    /** Número máximo de sentencias preparadas en caché por conexión (0 desactiva la caché) */
+    private int statementCacheSize = 50;
+
+    /** Réplicas de lectura opcionales; si no hay ninguna, todas las lecturas van a la conexión principal */
+    private List<ReplicaProperties> replicas = new ArrayList<>();
+
+    /** Tiempo (ms) que una réplica que ha fallado queda fuera del reparto antes de reintentarla */
+    private long replicaRetryInterval = 30000;
+
+    /** Tiempo (ms) tras una escritura durante el que las lecturas siguen yendo a la conexión principal */
+    private long readYourWritesWindow = 2000;
+
+    /** Tiempo (ms) que se conservan en memoria los catálogos pequeños, como los turnos; 0 lo desactiva */
+    private long catalogCacheTtl = 60000;
+
+    /** Tiempo máximo (ms) que se espera a una llamada asíncrona a los DAOs; 0 no impone límite */
+    private long asyncTimeout = 30000;
+
+    /** Duración (ms) a partir de la cual una llamada de los DAOs se anota como lenta; 0 lo desactiva */
+    private long slowQueryThreshold = 500;
+
     /**
-     * Constructor por defecto.
-     * Requerido para la serialización JAXB.
+     * Constructor por defecto con los valores de configuración por defecto.
      */
     public ConnectionProperties() {
     }
@@ -137,6 +172,277 @@ public class ConnectionProperties implements Serializable {
         this.password = password;
     }
 
+    /**
+     * Obtiene el número mínimo de conexiones del pool.
+     * @return Tamaño mínimo del pool
+     */
+    public int getMinPoolSize() {
+        return minPoolSize;
+    }
+
+    /**
+     * Establece el número mínimo de conexiones del pool.
+     * @param minPoolSize Nuevo tamaño mínimo del pool
+     */
+    public void setMinPoolSize(int minPoolSize) {
+        this.minPoolSize = minPoolSize;
+    }
+
+    /**
+     * Obtiene el número máximo de conexiones del pool.
+     * @return Tamaño máximo del pool
+     */
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    /**
+     * Establece el número máximo de conexiones del pool.
+     * @param maxPoolSize Nuevo tamaño máximo del pool
+     */
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    /**
+     * Obtiene el tiempo máximo de espera para obtener una conexión.
+     * @return Tiempo de espera en milisegundos
+     */
+    public long getLeaseTimeout() {
+        return leaseTimeout;
+    }
+
+    /**
+     * Establece el tiempo máximo de espera para obtener una conexión.
+     * @param leaseTimeout Nuevo tiempo de espera en milisegundos
+     */
+    public void setLeaseTimeout(long leaseTimeout) {
+        this.leaseTimeout = leaseTimeout;
+    }
+
+    /**
+     * Obtiene el tiempo máximo de vida de una conexión.
+     * @return Tiempo de vida en milisegundos
+     */
+    public long getMaxLifetime() {
+        return maxLifetime;
+    }
+
+    /**
+     * Establece el tiempo máximo de vida de una conexión.
+     * @param maxLifetime Nuevo tiempo de vida en milisegundos
+     */
+    public void setMaxLifetime(long maxLifetime) {
+        this.maxLifetime = maxLifetime;
+    }
+
+    /**
+     * Obtiene el tiempo máximo de inactividad de una conexión.
+     * @return Tiempo de inactividad en milisegundos
+     */
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Establece el tiempo máximo de inactividad de una conexión.
+     * @param idleTimeout Nuevo tiempo de inactividad en milisegundos
+     */
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Obtiene el tiempo máximo de validación de una conexión.
+     * @return Tiempo de validación en segundos
+     */
+    public int getValidationTimeout() {
+        return validationTimeout;
+    }
+
+    /**
+     * Establece el tiempo máximo de validación de una conexión.
+     * @param validationTimeout Nuevo tiempo de validación en segundos
+     */
+    public void setValidationTimeout(int validationTimeout) {
+        this.validationTimeout = validationTimeout;
+    }
+
+    /**
+     * Obtiene el tamaño de la caché de sentencias preparadas por conexión.
+     * @return Número máximo de sentencias en caché
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * Establece el tamaño de la caché de sentencias preparadas por conexión.
+     * @param statementCacheSize Nuevo número máximo de sentencias en caché
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * Obtiene las réplicas de lectura configuradas.
+     * @return Lista de réplicas, vacía si no hay ninguna
+     */
+    public List<ReplicaProperties> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Establece las réplicas de lectura.
+     * @param replicas Nueva lista de réplicas
+     */
+    public void setReplicas(List<ReplicaProperties> replicas) {
+        this.replicas = replicas;
+    }
+
+    /**
+     * Obtiene el tiempo que una réplica caída queda fuera del reparto.
+     * @return Tiempo de espera en milisegundos
+     */
+    public long getReplicaRetryInterval() {
+        return replicaRetryInterval;
+    }
+
+    /**
+     * Establece el tiempo que una réplica caída queda fuera del reparto.
+     * @param replicaRetryInterval Nuevo tiempo de espera en milisegundos
+     */
+    public void setReplicaRetryInterval(long replicaRetryInterval) {
+        this.replicaRetryInterval = replicaRetryInterval;
+    }
+
+    /**
+     * Obtiene el tiempo durante el que las lecturas siguen a la conexión principal tras una escritura.
+     * @return Tiempo en milisegundos
+     */
+    public long getReadYourWritesWindow() {
+        return readYourWritesWindow;
+    }
+
+    /**
+     * Establece el tiempo durante el que las lecturas siguen a la conexión principal tras una escritura.
+     * @param readYourWritesWindow Nuevo tiempo en milisegundos
+     */
+    public void setReadYourWritesWindow(long readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+
+    /**
+     * Obtiene el tiempo que se conservan en memoria los catálogos antes de releerlos,
+     * para recoger los cambios hechos desde otros equipos.
+     * @return Tiempo en milisegundos, o 0 si la caché está desactivada
+     */
+    public long getCatalogCacheTtl() {
+        return catalogCacheTtl;
+    }
+
+    /**
+     * Establece el tiempo que se conservan en memoria los catálogos.
+     * @param catalogCacheTtl Nuevo tiempo en milisegundos; 0 desactiva la caché
+     */
+    public void setCatalogCacheTtl(long catalogCacheTtl) {
+        this.catalogCacheTtl = catalogCacheTtl;
+    }
+
+    /**
+     * Obtiene el tiempo máximo que se espera a una llamada asíncrona a los DAOs
+     * antes de cancelarla.
+     * @return Tiempo en milisegundos, o 0 si no hay límite
+     */
+    public long getAsyncTimeout() {
+        return asyncTimeout;
+    }
+
+    /**
+     * Establece el tiempo máximo que se espera a una llamada asíncrona a los DAOs.
+     * @param asyncTimeout Nuevo tiempo en milisegundos; 0 no impone límite
+     */
+    public void setAsyncTimeout(long asyncTimeout) {
+        this.asyncTimeout = asyncTimeout;
+    }
+
+    /**
+     * Obtiene la duración a partir de la cual una llamada de los DAOs se escribe
+     * en el registro de consultas lentas.
+     * @return Duración en milisegundos, o 0 si el registro está desactivado
+     */
+    public long getSlowQueryThreshold() {
+        return slowQueryThreshold;
+    }
+
+    /**
+     * Establece la duración a partir de la cual una llamada de los DAOs se considera lenta.
+     * @param slowQueryThreshold Nueva duración en milisegundos; 0 desactiva el registro
+     */
+    public void setSlowQueryThreshold(long slowQueryThreshold) {
+        this.slowQueryThreshold = slowQueryThreshold;
+    }
+
+    /**
+     * Crea las propiedades de conexión de una réplica. Los datos de conexión que la réplica
+     * no indique y toda la configuración del pool se heredan de estas propiedades.
+     *
+     * @param replica Propiedades de la réplica
+     * @return Propiedades completas para conectar con la réplica
+     */
+    public ConnectionProperties forReplica(ReplicaProperties replica) {
+        ConnectionProperties properties = new ConnectionProperties(
+                replica.getServer() != null ? replica.getServer() : server,
+                replica.getPort() != null ? replica.getPort() : port,
+                replica.getDataBase() != null ? replica.getDataBase() : dataBase,
+                replica.getUser() != null ? replica.getUser() : user,
+                replica.getPassword() != null ? replica.getPassword() : password);
+        properties.setMinPoolSize(minPoolSize);
+        properties.setMaxPoolSize(maxPoolSize);
+        properties.setLeaseTimeout(leaseTimeout);
+        properties.setMaxLifetime(maxLifetime);
+        properties.setIdleTimeout(idleTimeout);
+        properties.setValidationTimeout(validationTimeout);
+        properties.setStatementCacheSize(statementCacheSize);
+        return properties;
+    }
+
+    /**
+     * Compara estas propiedades con otro objeto. Dos configuraciones son iguales si
+     * coinciden todos sus valores, lo que permite detectar si un archivo releído ha cambiado.
+     *
+     * @param o Objeto a comparar
+     * @return true si todas las propiedades coinciden
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ConnectionProperties that = (ConnectionProperties) o;
+        return minPoolSize == that.minPoolSize && maxPoolSize == that.maxPoolSize
+                && leaseTimeout == that.leaseTimeout && maxLifetime == that.maxLifetime
+                && idleTimeout == that.idleTimeout && validationTimeout == that.validationTimeout
+                && statementCacheSize == that.statementCacheSize
+                && replicaRetryInterval == that.replicaRetryInterval
+                && readYourWritesWindow == that.readYourWritesWindow
+                && catalogCacheTtl == that.catalogCacheTtl
+                && asyncTimeout == that.asyncTimeout
+                && slowQueryThreshold == that.slowQueryThreshold
+                && Objects.equals(server, that.server) && Objects.equals(port, that.port)
+                && Objects.equals(dataBase, that.dataBase) && Objects.equals(user, that.user)
+                && Objects.equals(password, that.password) && Objects.equals(replicas, that.replicas);
+    }
+
+    /**
+     * Genera el código hash a partir de los datos de conexión.
+     *
+     * @return Código hash
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(server, port, dataBase, user);
+    }
+
     /**
      * Genera una representación en cadena de texto de las propiedades de conexión.
      * @return Cadena con los valores de todas las propiedades
@@ -149,6 +455,19 @@ public class ConnectionProperties implements Serializable {
                 ", dataBase='" + dataBase + '\'' +
                 ", user='" + user + '\'' +
                 ", password='" + password + '\'' +
+                ", minPoolSize=" + minPoolSize +
+                ", maxPoolSize=" + maxPoolSize +
+                ", leaseTimeout=" + leaseTimeout +
+                ", maxLifetime=" + maxLifetime +
+                ", idleTimeout=" + idleTimeout +
+                ", validationTimeout=" + validationTimeout +
+                ", statementCacheSize=" + statementCacheSize +
+                ", replicas=" + replicas +
+                ", replicaRetryInterval=" + replicaRetryInterval +
+                ", readYourWritesWindow=" + readYourWritesWindow +
+                ", catalogCacheTtl=" + catalogCacheTtl +
+                ", asyncTimeout=" + asyncTimeout +
+                ", slowQueryThreshold=" + slowQueryThreshold +
                 '}';
     }
 
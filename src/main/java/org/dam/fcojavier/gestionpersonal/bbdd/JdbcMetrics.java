@@ -0,0 +1,144 @@
+package org.dam.fcojavier.gestionpersonal.bbdd;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estadísticas de ejecución de las sentencias SQL agrupadas por sentencia.
+ * Las medidas del driver identifican cada sentencia por su texto SQL, que en los DAOs es
+ * una constante; las llamadas completas de los DAOs, que incluyen la obtención de la
+ * conexión y la lectura de las filas, se identifican por el método público del DAO que
+ * las lanza, que lo indica en cada llamada, por ejemplo {@code EmpleadoDAO.findByEmpresa}.
+ * Se publica por JMX como {@link JdbcMetricsMXBean}.
+ */
+public class JdbcMetrics implements JdbcMetricsMXBean {
+    /** Estadísticas acumuladas por sentencia */
+    private final Map<String, Stats> statements = new ConcurrentHashMap<>();
+
+    /** Estadísticas acumuladas por llamada de los DAOs */
+    private final Map<String, Stats> daoStatements = new ConcurrentHashMap<>();
+
+    /**
+     * Registra una ejecución de una sentencia.
+     *
+     * @param sqlId Identificador de la sentencia
+     * @param nanos Duración de la ejecución en nanosegundos
+     * @param failed true si la ejecución terminó con error
+     */
+    void recordExecution(String sqlId, long nanos, boolean failed) {
+        Stats stats = statsFor(statements, sqlId);
+        stats.time.record(nanos);
+        if (failed) {
+            stats.errors.increment();
+        }
+    }
+
+    /**
+     * Registra una llamada de un DAO.
+     *
+     * @param statementId Identificador de la llamada, con la forma {@code Clase.metodo}
+     * @param nanos Duración de la llamada en nanosegundos
+     * @param failed true si la llamada terminó con error
+     */
+    void recordStatement(String statementId, long nanos, boolean failed) {
+        Stats stats = statsFor(daoStatements, statementId);
+        stats.time.record(nanos);
+        if (failed) {
+            stats.errors.increment();
+        }
+    }
+
+    /**
+     * Registra las filas leídas de un resultado de una sentencia.
+     *
+     * @param sqlId Identificador de la sentencia
+     * @param rows Filas leídas
+     */
+    void recordRows(String sqlId, long rows) {
+        Stats stats = statsFor(statements, sqlId);
+        stats.resultSets.increment();
+        stats.rows.add(rows);
+        stats.maxRows.accumulate(rows);
+    }
+
+    /**
+     * Obtiene las estadísticas de una sentencia, creándolas si no existen.
+     *
+     * @param stats Estadísticas acumuladas donde buscar
+     * @param sqlId Identificador de la sentencia
+     * @return Estadísticas de la sentencia
+     */
+    private static Stats statsFor(Map<String, Stats> stats, String sqlId) {
+        Stats found = stats.get(sqlId);
+        return found != null ? found : stats.computeIfAbsent(sqlId, _ -> new Stats());
+    }
+
+    @Override
+    public List<SqlStatistics> getStatements() {
+        return snapshot(statements);
+    }
+
+    @Override
+    public List<SqlStatistics> getDaoStatements() {
+        return snapshot(daoStatements);
+    }
+
+    /**
+     * Copia unas estadísticas acumuladas, ordenadas de mayor a menor tiempo total.
+     *
+     * @param statements Estadísticas acumuladas por identificador
+     * @return Instantánea de las estadísticas
+     */
+    private static List<SqlStatistics> snapshot(Map<String, Stats> statements) {
+        List<SqlStatistics> snapshot = new ArrayList<>();
+        statements.forEach((sqlId, stats) -> snapshot.add(new SqlStatistics(
+                sqlId,
+                stats.time.getCount(),
+                stats.errors.sum(),
+                stats.time.getTotalMillis(),
+                stats.time.getAverageMillis(),
+                stats.time.getMaxMillis(),
+                stats.time.getBuckets(),
+                stats.resultSets.sum(),
+                stats.rows.sum(),
+                stats.maxRows.get())));
+        snapshot.sort(Comparator.comparingDouble(SqlStatistics::getTotalMillis).reversed());
+        return snapshot;
+    }
+
+    @Override
+    public long[] getHistogramBoundsMillis() {
+        return LatencyHistogram.BOUNDS_MILLIS.clone();
+    }
+
+    @Override
+    public void reset() {
+        statements.clear();
+        daoStatements.clear();
+    }
+
+    /**
+     * Contadores acumulados de una sentencia.
+     */
+    private static final class Stats {
+        /** Tiempos de ejecución */
+        private final LatencyHistogram time = new LatencyHistogram();
+
+        /** Ejecuciones con error */
+        private final LongAdder errors = new LongAdder();
+
+        /** Resultados leídos */
+        private final LongAdder resultSets = new LongAdder();
+
+        /** Filas devueltas */
+        private final LongAdder rows = new LongAdder();
+
+        /** Máximo de filas devueltas en un resultado */
+        private final LongAccumulator maxRows = new LongAccumulator(Long::max, 0);
+    }
+}
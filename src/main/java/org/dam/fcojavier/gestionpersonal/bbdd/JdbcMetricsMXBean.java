@@ -0,0 +1,36 @@
+package org.dam.fcojavier.gestionpersonal.bbdd;
+
+import java.util.List;
+
+/**
+ * Interfaz JMX con las estadísticas de ejecución de las sentencias SQL.
+ */
+public interface JdbcMetricsMXBean {
+    /**
+     * Obtiene las estadísticas de cada sentencia, ordenadas de mayor a menor tiempo total.
+     *
+     * @return Lista de estadísticas por sentencia
+     */
+    List<SqlStatistics> getStatements();
+
+    /**
+     * Obtiene las estadísticas de cada llamada de los DAOs, identificada por la clase y
+     * el método que la lanza, ordenadas de mayor a menor tiempo total.
+     *
+     * @return Lista de estadísticas por llamada
+     */
+    List<SqlStatistics> getDaoStatements();
+
+    /**
+     * Obtiene los límites (ms) de los intervalos de los histogramas.
+     * Cada histograma tiene un intervalo adicional para los valores que superan el último límite.
+     *
+     * @return Límites superiores de los intervalos
+     */
+    long[] getHistogramBoundsMillis();
+
+    /**
+     * Pone a cero todas las estadísticas.
+     */
+    void reset();
+}
@@ -0,0 +1,102 @@
+package org.dam.fcojavier.gestionpersonal.bbdd;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con intervalos fijos en milisegundos.
+ * Está pensado para registrarse desde muchos hilos a la vez con un coste mínimo.
+ */
+final class LatencyHistogram {
+    /** Límites superiores (ms) de cada intervalo; el último intervalo no tiene límite */
+    static final long[] BOUNDS_MILLIS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    /** Contadores de cada intervalo */
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_MILLIS.length + 1];
+
+    /** Número de muestras registradas */
+    private final LongAdder count = new LongAdder();
+
+    /** Suma de todas las muestras en nanosegundos */
+    private final LongAdder totalNanos = new LongAdder();
+
+    /** Muestra máxima en nanosegundos */
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    /**
+     * Crea un histograma vacío.
+     */
+    LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Registra una muestra.
+     *
+     * @param nanos Duración en nanosegundos
+     */
+    void record(long nanos) {
+        long millis = nanos / 1_000_000;
+        int i = 0;
+        while (i < BOUNDS_MILLIS.length && millis >= BOUNDS_MILLIS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Obtiene el número de muestras registradas.
+     *
+     * @return Número de muestras
+     */
+    long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Obtiene la suma de todas las muestras.
+     *
+     * @return Tiempo total en milisegundos
+     */
+    double getTotalMillis() {
+        return totalNanos.sum() / 1_000_000.0;
+    }
+
+    /**
+     * Obtiene la media de las muestras.
+     *
+     * @return Tiempo medio en milisegundos, 0 si no hay muestras
+     */
+    double getAverageMillis() {
+        long samples = count.sum();
+        return samples == 0 ? 0 : getTotalMillis() / samples;
+    }
+
+    /**
+     * Obtiene la muestra máxima.
+     *
+     * @return Tiempo máximo en milisegundos
+     */
+    double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Obtiene los contadores de cada intervalo, en el mismo orden que {@link #BOUNDS_MILLIS}
+     * más un último intervalo para las muestras que superan el mayor límite.
+     *
+     * @return Copia de los contadores
+     */
+    long[] getBuckets() {
+        long[] snapshot = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            snapshot[i] = buckets[i].sum();
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,128 @@
+package org.dam.fcojavier.gestionpersonal.bbdd;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mapa de identidad ligado al hilo actual: mientras está abierto, cada entidad leída por
+ * los DAOs se guarda por su clave primaria y las lecturas posteriores de la misma fila
+ * devuelven la misma instancia sin volver a consultar la base de datos.
+ * Está pensado para la carga de una pantalla o para una {@link UnidadTrabajo}, que abre
+ * el suyo automáticamente:
+ *
+ * <pre>{@code
+ * try (MapaIdentidad mapa = MapaIdentidad.abrir()) {
+ *     empleados = empleadoDAO.findAll();
+ *     asignaciones = perteneceTurnoDAO.findByFecha(hoy);
+ * }
+ * }</pre>
+ *
+ * Las instancias no se refrescan mientras el mapa está abierto, por lo que conviene
+ * cerrarlo en cuanto termina la carga. Un mapa abierto dentro de otro se une al exterior.
+ */
+public final class MapaIdentidad implements AutoCloseable {
+    /** Entidades del mapa abierto en el hilo actual, por tipo y clave primaria */
+    private static final ThreadLocal<Map<Class<?>, Map<Integer, Object>>> actual = new ThreadLocal<>();
+
+    /** Indica si este mapa abrió el ámbito y es responsable de cerrarlo */
+    private final boolean principal;
+
+    /** Indica si el mapa se ha cerrado */
+    private boolean cerrado;
+
+    private MapaIdentidad(boolean principal) {
+        this.principal = principal;
+    }
+
+    /**
+     * Abre un mapa de identidad en el hilo actual, o se une al que ya esté abierto.
+     *
+     * @return Mapa que debe cerrarse al terminar
+     */
+    public static MapaIdentidad abrir() {
+        if (actual.get() != null) {
+            return new MapaIdentidad(false);
+        }
+        actual.set(new HashMap<>());
+        return new MapaIdentidad(true);
+    }
+
+    /**
+     * Obtiene las entidades de un tipo para resolver las filas de una consulta.
+     * Con un mapa abierto se devuelven las del mapa; si no, un mapa nuevo que solo
+     * comparte instancias dentro de la consulta.
+     *
+     * @param tipo Clase de la entidad
+     * @param <T> Tipo de la entidad
+     * @return Entidades por su clave primaria
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Map<Integer, T> entidades(Class<T> tipo) {
+        Map<Class<?>, Map<Integer, Object>> mapa = actual.get();
+        if (mapa == null) {
+            return new HashMap<>();
+        }
+        return (Map<Integer, T>) mapa.computeIfAbsent(tipo, _ -> new HashMap<>());
+    }
+
+    /**
+     * Busca una entidad en el mapa abierto.
+     *
+     * @param tipo Clase de la entidad
+     * @param id Clave primaria de la entidad
+     * @param <T> Tipo de la entidad
+     * @return La instancia guardada, o null si no está o no hay un mapa abierto
+     */
+    public static <T> T buscar(Class<T> tipo, int id) {
+        Map<Class<?>, Map<Integer, Object>> mapa = actual.get();
+        if (mapa == null) {
+            return null;
+        }
+        Map<Integer, Object> entidades = mapa.get(tipo);
+        return entidades != null ? tipo.cast(entidades.get(id)) : null;
+    }
+
+    /**
+     * Guarda una entidad leída en el mapa abierto. Sin mapa abierto no tiene efecto.
+     *
+     * @param tipo Clase de la entidad
+     * @param id Clave primaria de la entidad
+     * @param entidad Entidad leída
+     * @param <T> Tipo de la entidad
+     */
+    public static <T> void registrar(Class<T> tipo, int id, T entidad) {
+        if (actual.get() != null && entidad != null) {
+            entidades(tipo).put(id, entidad);
+        }
+    }
+
+    /**
+     * Quita una entidad del mapa abierto, por ejemplo tras modificarla o borrarla,
+     * para que la siguiente lectura vuelva a la base de datos.
+     *
+     * @param tipo Clase de la entidad
+     * @param id Clave primaria de la entidad
+     */
+    public static void quitar(Class<?> tipo, int id) {
+        Map<Class<?>, Map<Integer, Object>> mapa = actual.get();
+        if (mapa != null) {
+            Map<Integer, Object> entidades = mapa.get(tipo);
+            if (entidades != null) {
+                entidades.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Cierra el mapa. Si este mapa abrió el ámbito, se descartan todas las entidades guardadas.
+     */
+    @Override
+    public void close() {
+        if (!cerrado) {
+            cerrado = true;
+            if (principal) {
+                actual.remove();
+            }
+        }
+    }
+}
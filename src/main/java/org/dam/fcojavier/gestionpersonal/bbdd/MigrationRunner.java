@@ -0,0 +1,256 @@
+package org.dam.fcojavier.gestionpersonal.bbdd;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aplica al arrancar los scripts de migración del esquema que aún no se hayan ejecutado.
+ * Los scripts se guardan como recursos junto a esta clase con el nombre
+ * {@code V<versión>__<descripción>.sql} y se aplican en orden; cada versión aplicada se
+ * anota en la tabla {@code schema_version}. Un bloqueo con nombre en MySQL evita que dos
+ * instancias de la aplicación migren la misma base de datos a la vez.
+ */
+final class MigrationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(MigrationRunner.class);
+
+    /** Scripts de migración en orden de aplicación */
+    private static final List<String> SCRIPTS = List.of(
+            "V1__esquema_inicial.sql",
+            "V2__indices_consultas.sql",
+            "V3__version_optimista.sql");
+
+    /** Nombre del bloqueo que serializa las migraciones entre instancias */
+    private static final String LOCK_NAME = "gestionpersonal.schema_version";
+
+    /** Tiempo máximo (s) de espera por el bloqueo de migración */
+    private static final int LOCK_TIMEOUT = 30;
+
+    /** Error de MySQL: la tabla ya existe */
+    private static final int ER_TABLE_EXISTS = 1050;
+
+    /** Error de MySQL: el índice ya existe */
+    private static final int ER_DUP_KEYNAME = 1061;
+
+    /** Error de MySQL: la columna ya existe */
+    private static final int ER_DUP_FIELDNAME = 1060;
+
+    /** Consulta SQL para crear la tabla de versiones aplicadas */
+    private static final String createVersionTable_SQL = "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "version INT PRIMARY KEY, " +
+            "descripcion VARCHAR(200) NOT NULL, " +
+            "aplicada TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+            "duracion_ms BIGINT NOT NULL" +
+            ") ENGINE=InnoDB";
+
+    /** Consulta SQL para obtener la última versión aplicada */
+    private static final String currentVersion_SQL = "SELECT COALESCE(MAX(version), 0) FROM schema_version";
+
+    /** Consulta SQL para anotar una versión aplicada */
+    private static final String insertVersion_SQL = "INSERT INTO schema_version (version, descripcion, duracion_ms) VALUES (?, ?, ?)";
+
+    private MigrationRunner() {
+    }
+
+    /**
+     * Aplica sobre la base de datos las migraciones pendientes.
+     *
+     * @param dataSource Origen de las conexiones a la base de datos principal
+     * @return Número de migraciones aplicadas
+     * @throws SQLException Si no se obtiene el bloqueo o falla alguna sentencia
+     * @throws IOException Si no puede leerse algún script
+     */
+    static int migrate(DataSource dataSource) throws SQLException, IOException {
+        try (Connection con = dataSource.getConnection()) {
+            lock(con);
+            try {
+                try (Statement stm = con.createStatement()) {
+                    stm.execute(createVersionTable_SQL);
+                }
+                int current = currentVersion(con);
+                int applied = 0;
+                for (String script : SCRIPTS) {
+                    int version = version(script);
+                    if (version > current) {
+                        apply(con, script, version);
+                        applied++;
+                    }
+                }
+                return applied;
+            } finally {
+                unlock(con);
+            }
+        }
+    }
+
+    /**
+     * Comprueba que el esquema está en la versión del último script. Los DAOs leen y escriben
+     * las columnas que añaden las migraciones, como {@code version}, así que con un esquema
+     * anterior fallarían todas sus sentencias.
+     *
+     * @param dataSource Origen de las conexiones a la base de datos principal
+     * @throws SQLException Si no puede consultarse la versión del esquema, o
+     *         {@link SQLNonTransientException} si el esquema no está al día
+     */
+    static void verify(DataSource dataSource) throws SQLException {
+        int required = version(SCRIPTS.getLast());
+        int current;
+        try (Connection con = dataSource.getConnection()) {
+            current = currentVersion(con);
+        }
+        if (current < required) {
+            throw new SQLNonTransientException("La base de datos no tiene el esquema que necesita la aplicación: " +
+                    "está en la versión " + current + " y la aplicación necesita la " + required);
+        }
+    }
+
+    /**
+     * Espera el bloqueo de migración de la base de datos.
+     *
+     * @param con Conexión que retendrá el bloqueo
+     * @throws SQLException Si el bloqueo no se obtiene en el tiempo configurado
+     */
+    private static void lock(Connection con) throws SQLException {
+        try (PreparedStatement pstm = con.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            pstm.setString(1, LOCK_NAME);
+            pstm.setInt(2, LOCK_TIMEOUT);
+            try (ResultSet rs = pstm.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Otra instancia está migrando la base de datos");
+                }
+            }
+        }
+    }
+
+    /**
+     * Libera el bloqueo de migración.
+     *
+     * @param con Conexión que retiene el bloqueo
+     */
+    private static void unlock(Connection con) {
+        try (PreparedStatement pstm = con.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            pstm.setString(1, LOCK_NAME);
+            pstm.executeQuery().close();
+        } catch (SQLException e) {
+            logger.warn("No se pudo liberar el bloqueo de migración: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene la última versión del esquema aplicada.
+     *
+     * @param con Conexión a la base de datos
+     * @return Versión actual, o 0 si no se ha aplicado ninguna
+     * @throws SQLException Si falla la consulta
+     */
+    private static int currentVersion(Connection con) throws SQLException {
+        try (PreparedStatement pstm = con.prepareStatement(currentVersion_SQL);
+             ResultSet rs = pstm.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Ejecuta un script y anota su versión.
+     * MySQL confirma cada sentencia DDL por separado, así que un script interrumpido puede
+     * haber dejado creadas algunas tablas, columnas o índices; al repetirlo se ignoran los que ya existen.
+     *
+     * @param con Conexión a la base de datos
+     * @param script Nombre del recurso del script
+     * @param version Versión del script
+     * @throws SQLException Si falla alguna sentencia
+     * @throws IOException Si no puede leerse el script
+     */
+    private static void apply(Connection con, String script, int version) throws SQLException, IOException {
+        long start = System.nanoTime();
+        try (Statement stm = con.createStatement()) {
+            for (String sql : statements(script)) {
+                try {
+                    stm.execute(sql);
+                } catch (SQLException e) {
+                    if (e.getErrorCode() != ER_TABLE_EXISTS && e.getErrorCode() != ER_DUP_KEYNAME
+                            && e.getErrorCode() != ER_DUP_FIELDNAME) {
+                        throw new SQLException("Error en la migración " + script + ": " + e.getMessage(),
+                                e.getSQLState(), e.getErrorCode(), e);
+                    }
+                }
+            }
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        try (PreparedStatement pstm = con.prepareStatement(insertVersion_SQL)) {
+            pstm.setInt(1, version);
+            pstm.setString(2, description(script));
+            pstm.setLong(3, millis);
+            pstm.executeUpdate();
+        }
+        logger.info("Migración {} aplicada en {} ms", script, millis);
+    }
+
+    /**
+     * Lee un script y lo divide en sentencias. Se omiten las líneas de comentario y
+     * cada sentencia termina con un punto y coma al final de la línea.
+     *
+     * @param script Nombre del recurso del script
+     * @return Sentencias del script
+     * @throws IOException Si el recurso no existe o no puede leerse
+     */
+    private static List<String> statements(String script) throws IOException {
+        String content;
+        try (InputStream in = MigrationRunner.class.getResourceAsStream(script)) {
+            if (in == null) {
+                throw new IOException("No se encuentra el script de migración " + script);
+            }
+            content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : content.split("\\R")) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                current.setLength(current.lastIndexOf(";"));
+                statements.add(current.toString().strip());
+                current.setLength(0);
+            }
+        }
+        if (!current.isEmpty()) {
+            statements.add(current.toString().strip());
+        }
+        return statements;
+    }
+
+    /**
+     * Obtiene la versión indicada en el nombre de un script.
+     *
+     * @param script Nombre del script, de la forma {@code V<versión>__<descripción>.sql}
+     * @return Versión del script
+     */
+    private static int version(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    /**
+     * Obtiene la descripción indicada en el nombre de un script.
+     *
+     * @param script Nombre del script
+     * @return Descripción con espacios en lugar de guiones bajos
+     */
+    private static String description(String script) {
+        return script.substring(script.indexOf("__") + 2, script.lastIndexOf('.')).replace('_', ' ');
+    }
+}
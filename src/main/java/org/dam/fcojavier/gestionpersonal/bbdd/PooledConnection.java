@@ -0,0 +1,194 @@
+package org.dam.fcojavier.gestionpersonal.bbdd;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Conexión física gestionada por un {@link ConnectionPool}.
+ * Cada préstamo entrega un proxy de {@link Connection} cuyo método close()
+ * devuelve la conexión física al pool en lugar de cerrarla.
+ */
+final class PooledConnection {
+    /** Pool al que pertenece la conexión */
+    private final ConnectionPool pool;
+
+    /** Conexión física con la base de datos */
+    private final Connection physical;
+
+    /** Instante (ms) en el que se abrió la conexión física */
+    private final long createdAt;
+
+    /** Instante (ms) en el que la conexión se devolvió al pool por última vez */
+    private volatile long lastUsed;
+
+    /** Caché de sentencias preparadas de esta conexión, o null si está desactivada */
+    private final StatementCache statementCache;
+
+    /**
+     * Crea una conexión gestionada a partir de una conexión física.
+     *
+     * @param pool Pool al que pertenece
+     * @param physical Conexión física abierta
+     * @param statementCache Caché de sentencias de la conexión, o null para no cachear
+     */
+    PooledConnection(ConnectionPool pool, Connection physical, StatementCache statementCache) {
+        this.pool = pool;
+        this.physical = physical;
+        this.statementCache = statementCache;
+        this.createdAt = System.currentTimeMillis();
+        this.lastUsed = createdAt;
+    }
+
+    /**
+     * Obtiene la conexión física.
+     *
+     * @return La conexión física
+     */
+    Connection getPhysical() {
+        return physical;
+    }
+
+    /**
+     * Indica si la conexión ha superado su tiempo máximo de vida.
+     *
+     * @param maxLifetime Tiempo máximo de vida en milisegundos (0 = sin límite)
+     * @return true si la conexión debe retirarse
+     */
+    boolean isExpired(long maxLifetime) {
+        return maxLifetime > 0 && System.currentTimeMillis() - createdAt >= maxLifetime;
+    }
+
+    /**
+     * Obtiene el tiempo que lleva la conexión sin usarse.
+     *
+     * @return Milisegundos desde la última devolución al pool
+     */
+    long getIdleMillis() {
+        return System.currentTimeMillis() - lastUsed;
+    }
+
+    /**
+     * Restaura el estado por defecto de la conexión antes de devolverla al pool.
+     *
+     * @throws SQLException Si la conexión no puede restaurarse
+     */
+    void reset() throws SQLException {
+        if (!physical.getAutoCommit()) {
+            physical.rollback();
+            physical.setAutoCommit(true);
+        }
+        if (physical.isReadOnly()) {
+            physical.setReadOnly(false);
+        }
+        physical.clearWarnings();
+        lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * Cierra la conexión física ignorando los errores.
+     */
+    void closePhysical() {
+        try {
+            physical.close();
+        } catch (SQLException ignored) {
+            // La conexión se descarta igualmente
+        }
+    }
+
+    /**
+     * Entrega un nuevo proxy de la conexión para un préstamo.
+     *
+     * @return Proxy de la conexión física
+     */
+    Connection lease() {
+        return (Connection) Proxy.newProxyInstance(
+                PooledConnection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new Lease());
+    }
+
+    /**
+     * Manejador de un préstamo concreto. Una vez cerrado, el proxy deja de
+     * poder usarse aunque la conexión física siga viva en el pool.
+     */
+    private final class Lease implements InvocationHandler {
+        /** Indica si este préstamo ya se ha devuelto */
+        private boolean closed;
+
+        /** Indica si se ha detectado un error de comunicación en la conexión */
+        private boolean broken;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        if (statementCache != null) {
+                            statementCache.releaseAll();
+                        }
+                        pool.release(PooledConnection.this, broken);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("La conexión ya ha sido devuelta al pool");
+            }
+            try {
+                if (method.getName().equals("prepareStatement")) {
+                    if (statementCache != null && StatementCache.isCacheable(args)) {
+                        return statementCache.prepare((Connection) proxy, physical, (String) args[0],
+                                StatementCache.autoGeneratedKeys(args));
+                    }
+                    PreparedStatement statement = (PreparedStatement) method.invoke(physical, args);
+                    return StatementProxy.wrap(statement, (String) args[0], (Connection) proxy, pool,
+                            _ -> statement.close()).getProxy();
+                }
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw markIfFatal(e.getCause());
+            } catch (SQLException e) {
+                throw markIfFatal(e);
+            }
+        }
+
+        /**
+         * Marca la conexión como rota si el error es de comunicación.
+         *
+         * @param cause Error producido al usar la conexión
+         * @return El mismo error, para relanzarlo
+         */
+        private Throwable markIfFatal(Throwable cause) {
+            if (cause instanceof SQLException sqlException && isFatal(sqlException)) {
+                broken = true;
+            }
+            return cause;
+        }
+
+        /**
+         * Determina si un error indica que la conexión física ya no es utilizable.
+         *
+         * @param e Excepción producida por el driver
+         * @return true si es un error de comunicación
+         */
+        private boolean isFatal(SQLException e) {
+            String sqlState = e.getSQLState();
+            return sqlState != null && sqlState.startsWith("08");
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.dam.fcojavier.gestionpersonal.bbdd;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Clase que representa las propiedades de conexión a una réplica de lectura.
+ * Los valores no indicados se heredan de la conexión principal, de modo que
+ * normalmente basta con indicar el servidor y el puerto de la réplica.
+ *
+ */
+public class ReplicaProperties implements Serializable {
+
+    /** Identificador de versión para la serialización */
+    private static final long serialVersionUID = 1L;
+
+    /** Dirección del servidor de la réplica */
+    private String server;
+
+    /** Puerto de conexión de la réplica */
+    private String port;
+
+    /** Nombre de la base de datos en la réplica */
+    private String dataBase;
+
+    /** Nombre de usuario para la conexión */
+    private String user;
+
+    /** Contraseña para la conexión */
+    private String password;
+
+    /**
+     * Constructor por defecto; todos los valores se heredan de la conexión principal.
+     */
+    public ReplicaProperties() {
+    }
+
+    /**
+     * Constructor con la dirección de la réplica.
+     *
+     * @param server Dirección del servidor de la réplica
+     * @param port Puerto de conexión de la réplica
+     */
+    public ReplicaProperties(String server, String port) {
+        this.server = server;
+        this.port = port;
+    }
+
+    /**
+     * Obtiene la dirección del servidor.
+     * @return Dirección del servidor, o null para usar la de la conexión principal
+     */
+    public String getServer() {
+        return server;
+    }
+
+    /**
+     * Establece la dirección del servidor.
+     * @param server Nueva dirección del servidor
+     */
+    public void setServer(String server) {
+        this.server = server;
+    }
+
+    /**
+     * Obtiene el puerto de conexión.
+     * @return Puerto de conexión, o null para usar el de la conexión principal
+     */
+    public String getPort() {
+        return port;
+    }
+
+    /**
+     * Establece el puerto de conexión.
+     * @param port Nuevo puerto de conexión
+     */
+    public void setPort(String port) {
+        this.port = port;
+    }
+
+    /**
+     * Obtiene el nombre de la base de datos.
+     * @return Nombre de la base de datos, o null para usar el de la conexión principal
+     */
+    public String getDataBase() {
+        return dataBase;
+    }
+
+    /**
+     * Establece el nombre de la base de datos.
+     * @param dataBase Nuevo nombre de la base de datos
+     */
+    public void setDataBase(String dataBase) {
+        this.dataBase = dataBase;
+    }
+
+    /**
+     * Obtiene el nombre de usuario.
+     * @return Nombre de usuario, o null para usar el de la conexión principal
+     */
+    public String getUser() {
+        return user;
+    }
+
+    /**
+     * Establece el nombre de usuario.
+     * @param user Nuevo nombre de usuario
+     */
+    public void setUser(String user) {
+        this.user = user;
+    }
+
+    /**
+     * Obtiene la contraseña.
+     * @return Contraseña del usuario, o null para usar la de la conexión principal
+     */
+    public String getPassword() {
+        return password;
+    }
+
+    /**
+     * Establece la contraseña.
+     * @param password Nueva contraseña
+     */
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    /**
+     * Compara estas propiedades con otro objeto.
+     *
+     * @param o Objeto a comparar
+     * @return true si todas las propiedades coinciden
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ReplicaProperties that = (ReplicaProperties) o;
+        return Objects.equals(server, that.server) && Objects.equals(port, that.port)
+                && Objects.equals(dataBase, that.dataBase) && Objects.equals(user, that.user)
+                && Objects.equals(password, that.password);
+    }
+
+    /**
+     * Genera el código hash a partir de la dirección de la réplica.
+     *
+     * @return Código hash
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(server, port, dataBase);
+    }
+
+    /**
+     * Genera una representación en cadena de texto de las propiedades de la réplica.
+     * @return Cadena con los valores de todas las propiedades
+     */
+    @Override
+    public String toString() {
+        return "ReplicaProperties{" +
+                "server='" + server + '\'' +
+                ", port='" + port + '\'' +
+                ", dataBase='" + dataBase + '\'' +
+                ", user='" + user + '\'' +
+                ", password='" + password + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,164 @@
+package org.dam.fcojavier.gestionpersonal.bbdd;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Reparte las conexiones de solo lectura entre las réplicas configuradas.
+ * Las réplicas se eligen por turno rotatorio; una réplica que no responde queda
+ * fuera del reparto durante un tiempo y, si no queda ninguna disponible, la lectura
+ * se atiende con la conexión principal. Tras una escritura las lecturas siguen yendo
+ * a la conexión principal durante un breve intervalo, para que la aplicación vea sus
+ * propias escrituras aunque las réplicas vayan con retraso.
+ */
+final class ReplicaRouter {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    /** Origen de la conexión principal */
+    private final DataSource primary;
+
+    /** Instante (ms) de la última escritura en la conexión principal */
+    private final LongSupplier lastWrite;
+
+    /** Réplicas de lectura */
+    private final List<Replica> replicas;
+
+    /** Tiempo (ms) que una réplica caída queda fuera del reparto */
+    private final long retryInterval;
+
+    /** Tiempo (ms) tras una escritura durante el que las lecturas siguen yendo a la conexión principal */
+    private final long readYourWritesWindow;
+
+    /** Contador del turno rotatorio */
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Crea el enrutador de lecturas.
+     *
+     * @param primary Pool de la conexión principal
+     * @param replicas Pools de las réplicas, posiblemente vacía
+     * @param retryInterval Tiempo (ms) que una réplica caída queda fuera del reparto
+     * @param readYourWritesWindow Tiempo (ms) que las lecturas siguen a la conexión principal tras una escritura
+     */
+    ReplicaRouter(ConnectionPool primary, List<ConnectionPool> replicas, long retryInterval, long readYourWritesWindow) {
+        this(primary, primary::getLastWrite, byName(replicas), retryInterval, readYourWritesWindow);
+    }
+
+    /**
+     * Crea el enrutador de lecturas sobre orígenes de conexiones cualesquiera.
+     *
+     * @param primary Origen de la conexión principal
+     * @param lastWrite Instante (ms) de la última escritura en la conexión principal
+     * @param replicas Orígenes de las réplicas por su nombre, en el orden del reparto
+     * @param retryInterval Tiempo (ms) que una réplica caída queda fuera del reparto
+     * @param readYourWritesWindow Tiempo (ms) que las lecturas siguen a la conexión principal tras una escritura
+     */
+    ReplicaRouter(DataSource primary, LongSupplier lastWrite, Map<String, ? extends DataSource> replicas,
+                  long retryInterval, long readYourWritesWindow) {
+        this.primary = primary;
+        this.lastWrite = lastWrite;
+        this.replicas = replicas.entrySet().stream().map(e -> new Replica(e.getKey(), e.getValue())).toList();
+        this.retryInterval = retryInterval;
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+
+    /**
+     * Indexa los pools de las réplicas por su nombre conservando su orden.
+     *
+     * @param pools Pools de las réplicas
+     * @return Pools por su nombre
+     */
+    private static Map<String, ConnectionPool> byName(List<ConnectionPool> pools) {
+        Map<String, ConnectionPool> byName = new LinkedHashMap<>();
+        for (ConnectionPool pool : pools) {
+            byName.put(pool.getName(), pool);
+        }
+        return byName;
+    }
+
+    /**
+     * Obtiene una conexión de la conexión principal, para escrituras y lecturas que
+     * deben ver el último estado confirmado.
+     *
+     * @return Conexión prestada por el pool principal
+     * @throws SQLException Si el pool principal no puede prestar una conexión
+     */
+    Connection getConnection() throws SQLException {
+        return primary.getConnection();
+    }
+
+    /**
+     * Obtiene una conexión para una lectura que tolera cierto retraso de replicación.
+     *
+     * @return Conexión de una réplica, o de la conexión principal si no hay réplicas disponibles
+     * @throws SQLException Si tampoco la conexión principal puede prestar una conexión
+     */
+    Connection getReadConnection() throws SQLException {
+        int count = replicas.size();
+        if (count == 0 || System.currentTimeMillis() - lastWrite.getAsLong() < readYourWritesWindow) {
+            return primary.getConnection();
+        }
+        int start = Math.floorMod(next.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get((start + i) % count);
+            if (replica.isDown()) {
+                continue;
+            }
+            try {
+                return replica.source.getConnection();
+            } catch (SQLTransientConnectionException e) {
+                logger.warn("Réplica '{}' saturada, se prueba la siguiente: {}", replica.name, e.getMessage());
+            } catch (SQLException e) {
+                replica.markDown();
+                logger.warn("Réplica '{}' fuera de servicio durante {} ms: {}",
+                        replica.name, retryInterval, e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Origen de las conexiones de una réplica junto a su estado de disponibilidad.
+     */
+    private final class Replica {
+        /** Nombre de la réplica para los mensajes */
+        private final String name;
+
+        /** Origen de las conexiones de la réplica */
+        private final DataSource source;
+
+        /** Instante (ms) hasta el que la réplica queda fuera del reparto */
+        private volatile long downUntil;
+
+        Replica(String name, DataSource source) {
+            this.name = name;
+            this.source = source;
+        }
+
+        /**
+         * Indica si la réplica está fuera del reparto.
+         *
+         * @return true si la réplica falló hace menos del intervalo de reintento
+         */
+        boolean isDown() {
+            return System.currentTimeMillis() < downUntil;
+        }
+
+        /**
+         * Saca la réplica del reparto durante el intervalo de reintento.
+         */
+        void markDown() {
+            downUntil = System.currentTimeMillis() + retryInterval;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.dam.fcojavier.gestionpersonal.bbdd;
+
+/**
+ * Instantánea de las estadísticas de ejecución de una sentencia SQL.
+ * Se publica por JMX a través de {@link JdbcMetricsMXBean}.
+ */
+public class SqlStatistics {
+    /** Identificador de la sentencia */
+    private final String sqlId;
+
+    /** Número de ejecuciones */
+    private final long executions;
+
+    /** Número de ejecuciones que terminaron con error */
+    private final long errors;
+
+    /** Tiempo total de ejecución en milisegundos */
+    private final double totalMillis;
+
+    /** Tiempo medio de ejecución en milisegundos */
+    private final double averageMillis;
+
+    /** Tiempo máximo de ejecución en milisegundos */
+    private final double maxMillis;
+
+    /** Histograma de tiempos de ejecución */
+    private final long[] histogram;
+
+    /** Número de resultados (ResultSet) leídos */
+    private final long resultSets;
+
+    /** Número total de filas devueltas */
+    private final long rowsReturned;
+
+    /** Número máximo de filas devueltas en una llamada */
+    private final long maxRows;
+
+    /**
+     * Crea una instantánea de estadísticas.
+     *
+     * @param sqlId Identificador de la sentencia
+     * @param executions Número de ejecuciones
+     * @param errors Número de ejecuciones con error
+     * @param totalMillis Tiempo total en milisegundos
+     * @param averageMillis Tiempo medio en milisegundos
+     * @param maxMillis Tiempo máximo en milisegundos
+     * @param histogram Histograma de tiempos
+     * @param resultSets Número de resultados leídos
+     * @param rowsReturned Número total de filas devueltas
+     * @param maxRows Número máximo de filas en una llamada
+     */
+    public SqlStatistics(String sqlId, long executions, long errors, double totalMillis, double averageMillis,
+                         double maxMillis, long[] histogram, long resultSets, long rowsReturned, long maxRows) {
+        this.sqlId = sqlId;
+        this.executions = executions;
+        this.errors = errors;
+        this.totalMillis = totalMillis;
+        this.averageMillis = averageMillis;
+        this.maxMillis = maxMillis;
+        this.histogram = histogram;
+        this.resultSets = resultSets;
+        this.rowsReturned = rowsReturned;
+        this.maxRows = maxRows;
+    }
+
+    public String getSqlId() {
+        return sqlId;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    public double getAverageMillis() {
+        return averageMillis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    public long[] getHistogram() {
+        return histogram;
+    }
+
+    public long getResultSets() {
+        return resultSets;
+    }
+
+    public long getRowsReturned() {
+        return rowsReturned;
+    }
+
+    /**
+     * Obtiene la media de filas devueltas por llamada.
+     *
+     * @return Filas por resultado leído
+     */
+    public double getAverageRows() {
+        return resultSets == 0 ? 0 : (double) rowsReturned / resultSets;
+    }
+
+    public long getMaxRows() {
+        return maxRows;
+    }
+
+    @Override
+    public String toString() {
+        return "SqlStatistics{" +
+                "sqlId='" + sqlId + '\'' +
+                ", executions=" + executions +
+                ", errors=" + errors +
+                ", averageMillis=" + averageMillis +
+                ", maxMillis=" + maxMillis +
+                ", rowsReturned=" + rowsReturned +
+                '}';
+    }
+}
@@ -0,0 +1,227 @@
+package org.dam.fcojavier.gestionpersonal.bbdd;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caché LRU de sentencias preparadas de una conexión física.
+ * Las sentencias se identifican por su texto SQL y por el indicador de claves generadas,
+ * de modo que los DAOs pueden seguir llamando a prepareStatement() con sus constantes SQL
+ * y cerrar la sentencia al terminar: el cierre la devuelve a la caché en lugar de cerrarla.
+ * El acceso se protege con un {@link ReentrantLock} en lugar de un monitor, porque la
+ * preparación en el driver se hace con el bloqueo tomado y un monitor fijaría los hilos
+ * virtuales de {@code DAOAsincrono} a su hilo portador durante esa llamada.
+ */
+final class StatementCache {
+    /** Número máximo de sentencias en caché */
+    private final int maxSize;
+
+    /** Contador de aciertos compartido por todas las conexiones del pool */
+    private final LongAdder hits;
+
+    /** Contador de fallos compartido por todas las conexiones del pool */
+    private final LongAdder misses;
+
+    /** Pool al que pertenece la conexión */
+    private final ConnectionPool pool;
+
+    /** Sentencias en caché ordenadas por último acceso */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Bloqueo que protege las sentencias en caché y su estado de uso */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Crea una caché de sentencias.
+     *
+     * @param maxSize Número máximo de sentencias a conservar
+     * @param hits Contador de aciertos
+     * @param misses Contador de fallos
+     * @param pool Pool al que pertenece la conexión
+     */
+    StatementCache(int maxSize, LongAdder hits, LongAdder misses, ConnectionPool pool) {
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.pool = pool;
+    }
+
+    /**
+     * Prepara una sentencia reutilizando la que haya en caché si está libre.
+     *
+     * @param connection Proxy de la conexión que solicita la sentencia
+     * @param physical Conexión física
+     * @param sql Texto SQL de la sentencia
+     * @param autoGeneratedKeys Indicador de claves generadas
+     * @return Sentencia preparada lista para usarse
+     * @throws SQLException Si el driver no puede preparar la sentencia
+     */
+    PreparedStatement prepare(Connection connection, Connection physical, String sql,
+                              int autoGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.inUse) {
+                hits.increment();
+                return entry.checkOut(connection);
+            }
+            misses.increment();
+            PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+            if (entry != null) {
+                // La misma sentencia ya está en uso en esta conexión (llamadas anidadas): no se cachea
+                return StatementProxy.wrap(statement, sql, connection, pool, _ -> statement.close()).getProxy();
+            }
+            entry = new Entry(key, statement);
+            entries.put(key, entry);
+            evictOverflow();
+            return entry.checkOut(connection);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Devuelve a la caché las sentencias que el usuario de la conexión no haya cerrado.
+     */
+    void releaseAll() {
+        lock.lock();
+        try {
+            for (Entry entry : new ArrayList<>(entries.values())) {
+                if (entry.inUse) {
+                    try {
+                        entry.handle.close();
+                    } catch (SQLException ignored) {
+                        // La devolución a la caché no lanza errores
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Expulsa las sentencias menos usadas recientemente si se supera el tamaño máximo.
+     */
+    private void evictOverflow() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            eldest.evicted = true;
+            if (!eldest.inUse) {
+                eldest.closePhysical();
+            }
+        }
+    }
+
+    /**
+     * Clave de la caché: texto SQL e indicador de claves generadas.
+     *
+     * @param sql Texto SQL
+     * @param autoGeneratedKeys Indicador de claves generadas
+     */
+    private record Key(String sql, int autoGeneratedKeys) {
+    }
+
+    /**
+     * Sentencia física en caché junto a su estado de uso.
+     */
+    private final class Entry {
+        /** Clave de la sentencia */
+        private final Key key;
+
+        /** Sentencia física */
+        private final PreparedStatement statement;
+
+        /** Indica si la sentencia está prestada */
+        private boolean inUse;
+
+        /** Indica si la sentencia se ha expulsado de la caché */
+        private boolean evicted;
+
+        /** Manejador del préstamo actual */
+        private StatementProxy handle;
+
+        Entry(Key key, PreparedStatement statement) {
+            this.key = key;
+            this.statement = statement;
+        }
+
+        /**
+         * Presta la sentencia envuelta en un proxy nuevo.
+         *
+         * @param connection Conexión que recibe la sentencia
+         * @return Proxy de la sentencia
+         */
+        PreparedStatement checkOut(Connection connection) {
+            inUse = true;
+            handle = StatementProxy.wrap(statement, key.sql(), connection, pool, this::checkIn);
+            return handle.getProxy();
+        }
+
+        /**
+         * Recupera la sentencia tras su uso, limpiando sus parámetros.
+         *
+         * @param dirty true si el préstamo cambió la configuración de la sentencia
+         */
+        void checkIn(boolean dirty) {
+            lock.lock();
+            try {
+                handle = null;
+                inUse = false;
+                try {
+                    statement.clearParameters();
+                    statement.clearBatch();
+                } catch (SQLException e) {
+                    dirty = true;
+                }
+                if (evicted || dirty) {
+                    entries.remove(key, this);
+                    closePhysical();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Cierra la sentencia física ignorando los errores.
+         */
+        void closePhysical() {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // La sentencia se descarta igualmente
+            }
+        }
+    }
+
+    /**
+     * Indica si una llamada a prepareStatement puede atenderse desde la caché.
+     *
+     * @param args Argumentos de la llamada
+     * @return true si la llamada es prepareStatement(String) o prepareStatement(String, int)
+     */
+    static boolean isCacheable(Object[] args) {
+        return args != null && (args.length == 1 || (args.length == 2 && args[1] instanceof Integer));
+    }
+
+    /**
+     * Obtiene el indicador de claves generadas de una llamada a prepareStatement.
+     *
+     * @param args Argumentos de la llamada
+     * @return El indicador solicitado o {@link Statement#NO_GENERATED_KEYS}
+     */
+    static int autoGeneratedKeys(Object[] args) {
+        return args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+    }
+}
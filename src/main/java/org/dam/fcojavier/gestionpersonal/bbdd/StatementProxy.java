@@ -0,0 +1,258 @@
+package org.dam.fcojavier.gestionpersonal.bbdd;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Proxy de las sentencias preparadas que entrega el pool.
+ * Mide el tiempo de cada ejecución y las filas leídas de cada resultado para
+ * {@link JdbcMetrics}, avisa al pool de las escrituras, lleva la cuenta de los
+ * resultados abiertos y delega el cierre en una acción que decide si la sentencia
+ * física se cierra o vuelve a la caché.
+ */
+final class StatementProxy implements InvocationHandler {
+    /** Métodos que modifican la configuración de la sentencia más allá de sus parámetros */
+    private static final Set<String> STATE_CHANGING = Set.of(
+            "setFetchSize", "setFetchDirection", "setMaxRows", "setLargeMaxRows", "setMaxFieldSize",
+            "setQueryTimeout", "setEscapeProcessing", "setCursorName", "setPoolable", "closeOnCompletion");
+
+    /** Métodos de ejecución que siempre modifican datos */
+    private static final Set<String> WRITES = Set.of(
+            "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    /**
+     * Acción que se ejecuta al cerrar el proxy.
+     */
+    @FunctionalInterface
+    interface Release {
+        /**
+         * Libera la sentencia física.
+         *
+         * @param dirty true si el usuario cambió la configuración de la sentencia
+         * @throws SQLException Si la sentencia no puede liberarse
+         */
+        void release(boolean dirty) throws SQLException;
+    }
+
+    /** Sentencia física */
+    private final PreparedStatement target;
+
+    /** Texto SQL de la sentencia, usado como identificador en las métricas */
+    private final String sql;
+
+    /** Conexión a la que pertenece la sentencia */
+    private final Connection connection;
+
+    /** Pool al que pertenece la conexión de la sentencia */
+    private final ConnectionPool pool;
+
+    /** Métricas donde se registran las ejecuciones, o null para no medir */
+    private final JdbcMetrics metrics;
+
+    /** Acción de cierre */
+    private final Release release;
+
+    /** Resultados abiertos por esta sentencia */
+    private final List<ResultSet> openResults = new ArrayList<>();
+
+    /** Proxy que envuelve a este manejador */
+    private PreparedStatement proxy;
+
+    /** Indica si la sentencia se ha cerrado */
+    private boolean closed;
+
+    /** Indica si el usuario ha cambiado la configuración de la sentencia */
+    private boolean dirty;
+
+    private StatementProxy(PreparedStatement target, String sql, Connection connection,
+                           ConnectionPool pool, Release release) {
+        this.target = target;
+        this.sql = sql;
+        this.connection = connection;
+        this.pool = pool;
+        this.metrics = pool.getMetrics();
+        this.release = release;
+    }
+
+    /**
+     * Envuelve una sentencia física en un proxy.
+     *
+     * @param target Sentencia física
+     * @param sql Texto SQL de la sentencia
+     * @param connection Conexión que devolverá getConnection()
+     * @param pool Pool al que pertenece la conexión
+     * @param release Acción a ejecutar al cerrar la sentencia
+     * @return Manejador del proxy creado
+     */
+    static StatementProxy wrap(PreparedStatement target, String sql, Connection connection,
+                               ConnectionPool pool, Release release) {
+        StatementProxy handler = new StatementProxy(target, sql, connection, pool, release);
+        handler.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                StatementProxy.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                handler);
+        return handler;
+    }
+
+    /**
+     * Obtiene el proxy de la sentencia.
+     *
+     * @return Sentencia que se entrega al usuario
+     */
+    PreparedStatement getProxy() {
+        return proxy;
+    }
+
+    /**
+     * Cierra la sentencia: cierra sus resultados abiertos y ejecuta la acción de cierre.
+     *
+     * @throws SQLException Si la acción de cierre falla
+     */
+    void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (ResultSet resultSet : new ArrayList<>(openResults)) {
+            try {
+                resultSet.close();
+            } catch (SQLException ignored) {
+                // El resultado se descarta igualmente
+            }
+        }
+        openResults.clear();
+        release.release(dirty);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "close":
+                close();
+                return null;
+            case "isClosed":
+                return closed;
+            case "getConnection":
+                return connection;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "PooledStatement[" + sql + "]";
+            default:
+                break;
+        }
+        if (closed) {
+            throw new SQLException("La sentencia ya está cerrada");
+        }
+        if (STATE_CHANGING.contains(name)) {
+            dirty = true;
+        }
+        boolean timed = metrics != null && name.startsWith("execute");
+        long start = timed ? System.nanoTime() : 0;
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (timed) {
+                metrics.recordExecution(sql, System.nanoTime() - start, true);
+            }
+            throw e.getCause();
+        }
+        if (timed) {
+            metrics.recordExecution(sql, System.nanoTime() - start, false);
+        }
+        if (WRITES.contains(name) || (name.equals("execute") && Boolean.FALSE.equals(result))) {
+            pool.recordWrite();
+        }
+        if (result instanceof ResultSet resultSet) {
+            boolean counted = metrics != null && (name.equals("executeQuery") || name.equals("getResultSet"));
+            return track(resultSet, counted);
+        }
+        return result;
+    }
+
+    /**
+     * Envuelve un resultado para cerrarlo junto a la sentencia y, si procede, contar sus filas.
+     *
+     * @param resultSet Resultado físico
+     * @param counted true si deben contarse las filas leídas
+     * @return Proxy del resultado
+     */
+    private ResultSet track(ResultSet resultSet, boolean counted) {
+        ResultSet tracked = (ResultSet) Proxy.newProxyInstance(
+                StatementProxy.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                new RowCounter(resultSet, counted));
+        openResults.add(tracked);
+        return tracked;
+    }
+
+    /**
+     * Manejador de un resultado: cuenta las filas leídas y las registra al cerrarlo.
+     */
+    private final class RowCounter implements InvocationHandler {
+        /** Resultado físico */
+        private final ResultSet target;
+
+        /** Indica si deben registrarse las filas leídas */
+        private final boolean counted;
+
+        /** Filas leídas hasta el momento */
+        private long rows;
+
+        /** Indica si el resultado se ha cerrado */
+        private boolean closed;
+
+        RowCounter(ResultSet target, boolean counted) {
+            this.target = target;
+            this.counted = counted;
+        }
+
+        @Override
+        public Object invoke(Object resultProxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        openResults.remove(resultProxy);
+                        if (counted) {
+                            metrics.recordRows(sql, rows);
+                        }
+                        target.close();
+                    }
+                    return null;
+                case "getStatement":
+                    return proxy;
+                case "equals":
+                    return resultProxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(resultProxy);
+                case "toString":
+                    return "PooledResultSet[" + sql + "]";
+                default:
+                    break;
+            }
+            try {
+                Object result = method.invoke(target, args);
+                if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                    rows++;
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.dam.fcojavier.gestionpersonal.bbdd;
+
+import org.dam.fcojavier.gestionpersonal.enums.DAOErrorTipo;
+import org.dam.fcojavier.gestionpersonal.exceptions.DAOException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Unidad de trabajo que agrupa varias llamadas a los DAOs en una sola transacción.
+ * Mientras está abierta, la conexión queda ligada al hilo actual y
+ * {@link ConnectionDB#getConnection()} la entrega a todos los DAOs, que se unen a la
+ * transacción sin cambios. Al final se confirma o se deshace todo de una vez:
+ *
+ * <pre>{@code
+ * try (UnidadTrabajo unidad = UnidadTrabajo.iniciar()) {
+ *     empleadoDAO.insert(empleado);
+ *     perteneceTurnoDAO.insert(asignacion);
+ *     unidad.confirmar();
+ * }
+ * }</pre>
+ *
+ * Si la unidad se cierra sin confirmar, por ejemplo porque un DAO lanzó una excepción,
+ * se deshacen todos los cambios. Una unidad iniciada dentro de otra se une a la exterior:
+ * su confirmación no tiene efecto propio y, si se cierra sin confirmar, la exterior
+ * solo podrá deshacerse. Mientras dura la unidad hay además un {@link MapaIdentidad} abierto.
+ */
+public final class UnidadTrabajo implements AutoCloseable {
+    /** Transacción ligada al hilo actual */
+    private static final ThreadLocal<Transaccion> actual = new ThreadLocal<>();
+
+    /** Transacción a la que pertenece esta unidad */
+    private final Transaccion transaccion;
+
+    /** Indica si esta unidad abrió la transacción y es responsable de terminarla */
+    private final boolean principal;
+
+    /** Indica si la unidad se ha confirmado */
+    private boolean confirmada;
+
+    /** Indica si la unidad se ha cerrado */
+    private boolean cerrada;
+
+    private UnidadTrabajo(Transaccion transaccion, boolean principal) {
+        this.transaccion = transaccion;
+        this.principal = principal;
+    }
+
+    /**
+     * Inicia una unidad de trabajo en el hilo actual, o se une a la que ya esté abierta.
+     *
+     * @return Unidad de trabajo que debe cerrarse al terminar
+     * @throws DAOException Si no puede obtenerse una conexión para la transacción
+     */
+    public static UnidadTrabajo iniciar() throws DAOException {
+        Transaccion existente = actual.get();
+        if (existente != null) {
+            return new UnidadTrabajo(existente, false);
+        }
+        try {
+            Connection conexion = ConnectionDB.getConnection();
+            try {
+                conexion.setAutoCommit(false);
+            } catch (SQLException e) {
+                conexion.close();
+                throw e;
+            }
+            Transaccion transaccion = new Transaccion(conexion);
+            actual.set(transaccion);
+            return new UnidadTrabajo(transaccion, true);
+        } catch (SQLException e) {
+            throw new DAOException("Error al iniciar la transacción: " + e.getMessage(), DAOErrorTipo.CONNECTION_ERROR);
+        }
+    }
+
+    /**
+     * Indica si hay una unidad de trabajo abierta en el hilo actual.
+     *
+     * @return true si las llamadas a los DAOs forman parte de una transacción
+     */
+    public static boolean enCurso() {
+        return actual.get() != null;
+    }
+
+    /**
+     * Obtiene la conexión de la transacción del hilo actual.
+     *
+     * @return Vista de la conexión cuyo cierre no la devuelve al pool, o null si no hay transacción
+     */
+    static Connection conexionActual() {
+        Transaccion transaccion = actual.get();
+        return transaccion != null ? transaccion.vista : null;
+    }
+
+    /**
+     * Confirma la unidad de trabajo. Si esta unidad abrió la transacción, se confirman
+     * en la base de datos todos los cambios; si se unió a otra, la confirmación queda
+     * en manos de la exterior.
+     *
+     * @throws DAOException Si la transacción se marcó para deshacerse o falla la confirmación
+     */
+    public void confirmar() throws DAOException {
+        if (cerrada) {
+            throw new DAOException("La unidad de trabajo ya está cerrada", DAOErrorTipo.UNKNOWN_ERROR);
+        }
+        if (principal) {
+            if (transaccion.soloDeshacer) {
+                throw new DAOException("Una unidad de trabajo interna no se confirmó; la transacción se deshará",
+                        DAOErrorTipo.UPDATE_ERROR);
+            }
+            try {
+                transaccion.conexion.commit();
+            } catch (SQLException e) {
+                throw new DAOException("Error al confirmar la transacción: " + e.getMessage(), DAOErrorTipo.UPDATE_ERROR);
+            }
+        }
+        confirmada = true;
+    }
+
+    /**
+     * Cierra la unidad de trabajo. Si no se confirmó, se deshacen sus cambios; si además
+     * esta unidad abrió la transacción, la conexión se libera del hilo y vuelve al pool.
+     *
+     * @throws DAOException Si falla la anulación de los cambios
+     */
+    @Override
+    public void close() throws DAOException {
+        if (cerrada) {
+            return;
+        }
+        cerrada = true;
+        if (!principal) {
+            if (!confirmada) {
+                transaccion.soloDeshacer = true;
+            }
+            return;
+        }
+        actual.remove();
+        transaccion.mapa.close();
+        try (Connection conexion = transaccion.conexion) {
+            if (!confirmada) {
+                conexion.rollback();
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Error al deshacer la transacción: " + e.getMessage(), DAOErrorTipo.CONNECTION_ERROR);
+        }
+    }
+
+    /**
+     * Estado de una transacción compartido por las unidades que se unen a ella.
+     */
+    private static final class Transaccion {
+        /** Conexión prestada por el pool para toda la transacción */
+        private final Connection conexion;
+
+        /** Vista de la conexión que se entrega a los DAOs; su cierre no tiene efecto */
+        private final Connection vista;
+
+        /** Mapa de identidad de la transacción */
+        private final MapaIdentidad mapa;
+
+        /** Indica si alguna unidad interna se cerró sin confirmar */
+        private boolean soloDeshacer;
+
+        Transaccion(Connection conexion) {
+            this.conexion = conexion;
+            this.mapa = MapaIdentidad.abrir();
+            this.vista = (Connection) Proxy.newProxyInstance(
+                    UnidadTrabajo.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new VistaSinCierre(conexion));
+        }
+    }
+
+    /**
+     * Manejador de la vista de la conexión: ignora el cierre, que corresponde a la unidad
+     * de trabajo, e impide que un DAO termine la transacción por su cuenta.
+     */
+    private static final class VistaSinCierre implements InvocationHandler {
+        /** Conexión de la transacción */
+        private final Connection conexion;
+
+        VistaSinCierre(Connection conexion) {
+            this.conexion = conexion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    return null;
+                case "commit", "rollback", "setAutoCommit":
+                    throw new SQLException("La transacción la gestiona la unidad de trabajo");
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(conexion, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
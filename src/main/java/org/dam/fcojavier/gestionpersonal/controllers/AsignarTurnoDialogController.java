@@ -4,6 +4,8 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 import org.dam.fcojavier.gestionpersonal.DAOs.*;
+import org.dam.fcojavier.gestionpersonal.bbdd.UnidadTrabajo;
+import org.dam.fcojavier.gestionpersonal.enums.DAOErrorTipo;
 import org.dam.fcojavier.gestionpersonal.exceptions.DAOException;
 import org.dam.fcojavier.gestionpersonal.model.*;
 import javafx.util.Callback;
@@ -179,60 +181,65 @@ public class AsignarTurnoDialogController {
 
     /**
      * Maneja el evento de asignación de turno.
-     * Valida los campos y crea la nueva asignación si es posible.
+     * Valida los campos y crea la nueva asignación si es posible. Las comprobaciones y la
+     * inserción se hacen en una sola transacción con el empleado bloqueado, y los errores
+     * se muestran cuando ya ha terminado, para no retener la conexión mientras se leen.
      */
     @FXML
     private void handleAsignar() {
         if (!validarCampos()) return;
 
-        try {
-            PerteneceTurno nuevaAsignacion = crearAsignacion();
-            if (nuevaAsignacion == null) return;
-
-            procesarAsignacion(nuevaAsignacion);
+        Empleado empleado = empleadoComboBox.getValue();
+        Turno turno = turnoComboBox.getValue();
+        LocalDate fecha = fechaPicker.getValue();
+        PerteneceTurno asignacionCreada = null;
+        String error;
+        try (UnidadTrabajo unidad = UnidadTrabajo.iniciar()) {
+            error = comprobarConflictos(perteneceTurnoDAO.findByAsignacionesFechaParaAsignar(empleado, fecha), turno);
+            if (error == null) {
+                asignacionCreada = perteneceTurnoDAO.insert(new PerteneceTurno(empleado, turno, fecha));
+                unidad.confirmar();
+            }
         } catch (DAOException e) {
-            mostrarError("Error", "Error al asignar el turno: " + e.getMessage());
+            if (e.getError() == DAOErrorTipo.DUPLICATE_KEY) {
+                error = ERROR_ASIGNACION_EXISTENTE;
+            } else {
+                error = "Error al asignar el turno: " + e.getMessage();
+            }
+        }
+
+        if (error != null) {
+            mostrarError("Error", error);
+        } else {
+            procesarAsignacion(asignacionCreada);
         }
     }
 
     /**
-     * Crea una nueva asignación de turno validando conflictos.
+     * Comprueba si un turno puede asignarse junto a las asignaciones que ya tiene el empleado ese día.
      *
-     * @return La nueva asignación o null si hay conflictos
-     * @throws DAOException Si ocurre un error en el acceso a datos
+     * @param asignacionesDelDia Asignaciones del empleado en la fecha de la nueva asignación
+     * @param turno El turno a asignar
+     * @return Mensaje del conflicto encontrado, o null si no hay ninguno
      */
-    private PerteneceTurno crearAsignacion() throws DAOException {
-        Empleado empleado = empleadoComboBox.getValue();
-        Turno turno = turnoComboBox.getValue();
-        LocalDate fecha = fechaPicker.getValue();
-
-        if (existeAsignacion(empleado, turno, fecha)) {
-            mostrarError("Error", ERROR_ASIGNACION_EXISTENTE);
-            return null;
+    private String comprobarConflictos(List<PerteneceTurno> asignacionesDelDia, Turno turno) {
+        if (existeAsignacion(asignacionesDelDia, turno)) {
+            return ERROR_ASIGNACION_EXISTENTE;
         }
-
-        if (hayConflictoHorario(empleado, turno, fecha)) {
-            mostrarError("Error", ERROR_CONFLICTO_HORARIO);
-            return null;
+        if (hayConflictoHorario(asignacionesDelDia, turno)) {
+            return ERROR_CONFLICTO_HORARIO;
         }
-
-        return new PerteneceTurno(empleado, turno, fecha);
+        return null;
     }
 
     /**
      * Verifica si existe conflicto de horario con otras asignaciones.
      *
-     * @param empleado El empleado a verificar
+     * @param asignacionesExistentes Asignaciones del empleado en la fecha de la nueva asignación
      * @param nuevoTurno El nuevo turno a asignar
-     * @param fecha La fecha de la asignación
      * @return true si hay conflicto, false en caso contrario
-     * @throws DAOException Si ocurre un error en el acceso a datos
      */
-    private boolean hayConflictoHorario(Empleado empleado, Turno nuevoTurno, LocalDate fecha) 
-            throws DAOException {
-        List<PerteneceTurno> asignacionesExistentes = 
-            perteneceTurnoDAO.findByAsignacionesFecha(empleado, fecha);
-
+    private boolean hayConflictoHorario(List<PerteneceTurno> asignacionesExistentes, Turno nuevoTurno) {
         return asignacionesExistentes.stream()
             .map(PerteneceTurno::getTurno)
             .anyMatch(turnoExistente -> haySuperposicion(
@@ -261,13 +268,11 @@ public class AsignarTurnoDialogController {
     }
 
     /**
-     * Procesa la asignación de turno en la base de datos.
+     * Procesa el resultado de la asignación de turno.
      *
-     * @param nuevaAsignacion La asignación a procesar
-     * @throws DAOException Si ocurre un error en el acceso a datos
+     * @param asignacionCreada La asignación insertada, o null si no se pudo crear
      */
-    private void procesarAsignacion(PerteneceTurno nuevaAsignacion) throws DAOException {
-        PerteneceTurno asignacionCreada = perteneceTurnoDAO.insert(nuevaAsignacion);
+    private void procesarAsignacion(PerteneceTurno asignacionCreada) {
         if (asignacionCreada != null) {
             asignacionExitosa = true;
             cerrarVentana();
@@ -277,16 +282,15 @@ public class AsignarTurnoDialogController {
     }
 
     /**
-     * Verifica si ya existe una asignación para el empleado, turno y fecha dados.
+     * Verifica si el turno ya está entre las asignaciones del empleado en la fecha.
      *
-     * @param empleado El empleado a verificar
+     * @param asignacionesExistentes Asignaciones del empleado en la fecha de la nueva asignación
      * @param turno El turno a verificar
-     * @param fecha La fecha a verificar
      * @return true si ya existe la asignación, false en caso contrario
-     * @throws DAOException Si ocurre un error en el acceso a datos
      */
-    private boolean existeAsignacion(Empleado empleado, Turno turno, LocalDate fecha) throws DAOException {
-        return perteneceTurnoDAO.exists(empleado.getIdEmpleado(), turno.getIdTurno(), fecha);
+    private boolean existeAsignacion(List<PerteneceTurno> asignacionesExistentes, Turno turno) {
+        return asignacionesExistentes.stream()
+            .anyMatch(asignacion -> asignacion.getTurno().getIdTurno() == turno.getIdTurno());
     }
 
     /**
@@ -7,6 +7,7 @@ import javafx.scene.text.Text;
 import javafx.stage.Stage;
 import org.dam.fcojavier.gestionpersonal.model.Empresa;
 
+import org.dam.fcojavier.gestionpersonal.enums.DAOErrorTipo;
 import org.dam.fcojavier.gestionpersonal.exceptions.DAOException;
 import org.dam.fcojavier.gestionpersonal.DAOs.EmpresaDAO;
 import org.dam.fcojavier.gestionpersonal.utils.PasswordUtilidades;
@@ -39,9 +40,13 @@ public class EditarEmpresaController {
     /** Texto para mostrar mensajes de error */
     @FXML private Text mensajeError;
 
-    /** Empresa que se está editando */
+    /** Empresa que se está editando; no se modifica hasta que se guardan los cambios */
     private Empresa empresa;
 
+    /** Mensaje cuando otro usuario ha modificado la empresa mientras se editaba */
+    private static final String ERROR_MODIFICADA = "Otro usuario ha modificado la empresa mientras la editaba. " +
+            "Se han cargado sus datos actuales; revíselos y vuelva a guardar.";
+
     /** Indica si la edición se realizó correctamente */
     private boolean edicion = false;
 
@@ -87,7 +92,8 @@ public class EditarEmpresaController {
     }
 
     /**
-     * Obtiene la empresa con los datos actualizados.
+     * Obtiene la empresa con los datos actualizados: la guardada, la recargada tras un
+     * conflicto de versión o, si no ha cambiado, la que se recibió.
      *
      * @return La empresa con los datos actualizados
      */
@@ -107,40 +113,68 @@ public class EditarEmpresaController {
             return;
         }
 
+        Empresa editada = new Empresa(empresa);
         try {
-            actualizarDatosEmpresa();
-            guardarEnBaseDeDatos();
+            actualizarDatosEmpresa(editada);
+            guardarEnBaseDeDatos(editada);
             cerrarVentana();
         } catch (DAOException e) {
-            mostrarError("Error al guardar los cambios: " + e.getMessage());
+            if (e.getError() == DAOErrorTipo.VERSION_CONFLICT) {
+                recargarEmpresa();
+            } else {
+                mostrarError("Error al guardar los cambios: " + e.getMessage());
+            }
         }
     }
 
     /**
-     * Actualiza los datos de la empresa con los valores del formulario.
+     * Actualiza los datos de una copia de la empresa con los valores del formulario.
+     *
+     * @param editada Copia de la empresa que se va a guardar
      */
-    private void actualizarDatosEmpresa() {
-        empresa.setNombre(nombreField.getText());
-        empresa.setDireccion(direccionField.getText());
-        empresa.setTelefono(telefonoField.getText());
+    private void actualizarDatosEmpresa(Empresa editada) {
+        editada.setNombre(nombreField.getText());
+        editada.setDireccion(direccionField.getText());
+        editada.setTelefono(telefonoField.getText());
 
         if (!passwordField.getText().isEmpty()) {
             String hashedPassword = PasswordUtilidades.hashPassword(passwordField.getText());
-            empresa.setPassword(hashedPassword);
+            editada.setPassword(hashedPassword);
         }
     }
 
     /**
-     * Guarda los cambios de la empresa en la base de datos.
+     * Guarda los cambios de la empresa en la base de datos. Solo si se guardan
+     * sustituye a la empresa que se estaba editando, ya sin el hash de la contraseña.
      *
+     * @param editada Copia de la empresa con los cambios
      * @throws DAOException Si ocurre un error al guardar los datos
      */
-    private void guardarEnBaseDeDatos() throws DAOException {
+    private void guardarEnBaseDeDatos(Empresa editada) throws DAOException {
         EmpresaDAO empresaDAO = new EmpresaDAO();
-        empresaDAO.update(empresa);
+        empresaDAO.update(editada);
+        editada.setPassword(null);
+        empresa = editada;
         edicion = true;
     }
 
+    /**
+     * Vuelve a leer la empresa de la base de datos tras un conflicto de versión y
+     * muestra sus datos actuales en el formulario.
+     */
+    private void recargarEmpresa() {
+        try {
+            Empresa actual = new EmpresaDAO().findById(empresa.getIdEmpresa());
+            if (actual != null) {
+                empresa = actual;
+                cargarDatosEmpresa();
+            }
+            mostrarError(ERROR_MODIFICADA);
+        } catch (DAOException e) {
+            mostrarError("Error al recargar la empresa: " + e.getMessage());
+        }
+    }
+
     /**
      * Cierra la ventana del diálogo.
      */
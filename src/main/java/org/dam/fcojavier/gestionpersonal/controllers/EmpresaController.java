@@ -8,10 +8,8 @@ import javafx.scene.control.ButtonType;
 import javafx.scene.text.Text;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
-import org.dam.fcojavier.gestionpersonal.DAOs.AusenciaDAO;
 import org.dam.fcojavier.gestionpersonal.DAOs.EmpleadoDAO;
 import org.dam.fcojavier.gestionpersonal.DAOs.EmpresaDAO;
-import org.dam.fcojavier.gestionpersonal.DAOs.PerteneceTurnoDAO;
 import org.dam.fcojavier.gestionpersonal.GestionPersonalApp;
 import org.dam.fcojavier.gestionpersonal.model.*;
 import org.dam.fcojavier.gestionpersonal.exceptions.DAOException;
@@ -19,7 +17,6 @@ import org.dam.fcojavier.gestionpersonal.utils.UsuarioSesion;
 
 import java.io.IOException;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -73,13 +70,15 @@ public class EmpresaController {
 
     /**
      * Actualiza todos los contadores del dashboard.
+     * Las tres cifras se calculan en la base de datos con una sola consulta.
      * En caso de error, establece valores por defecto.
      */
     private void actualizarContadores() {
         try {
-            actualizarContadorEmpleados();
-            actualizarEmpleadosTrabajando();
-            actualizarContadorAusencias();
+            ResumenEmpresa resumen = new EmpresaDAO().findResumen(empresa.getIdEmpresa(), LocalDate.now());
+            empleadosCantidadText.setText(String.valueOf(resumen.getEmpleados()));
+            empleadosTrabajandoText.setText(String.valueOf(resumen.getEmpleadosTrabajando()));
+            ausenciasCantidadText.setText(String.valueOf(resumen.getAusenciasActivas()));
         } catch (DAOException e) {
             mostrarError("Error al actualizar el dashboard", 
                         "No se pudieron cargar los datos actualizados.");
@@ -87,64 +86,6 @@ public class EmpresaController {
         }
     }
 
-    /**
-     * Actualiza el contador de empleados totales.
-     *
-     * @throws DAOException Si hay un error al acceder a los datos
-     */
-    private void actualizarContadorEmpleados() throws DAOException {
-        EmpleadoDAO empleadoDAO = new EmpleadoDAO();
-        List<Empleado> todosEmpleados = empleadoDAO.findAll();
-        long cantidadEmpleados = todosEmpleados.stream()
-                .filter(empleado -> empleado.getEmpresa().getIdEmpresa() == empresa.getIdEmpresa())
-                .count();
-        empleadosCantidadText.setText(String.valueOf(cantidadEmpleados));
-    }
-
-    /**
-     * Actualiza el contador de empleados trabajando actualmente.
-     *
-     * @throws DAOException Si hay un error al acceder a los datos
-     */
-    private void actualizarEmpleadosTrabajando() throws DAOException {
-        PerteneceTurnoDAO perteneceTurnoDAO = new PerteneceTurnoDAO();
-        List<PerteneceTurno> turnosHoy = perteneceTurnoDAO.findByFecha(LocalDate.now());
-        long empleadosTrabajando = turnosHoy.stream()
-                .filter(pt -> pt.getEmpleado().getEmpresa().getIdEmpresa() == empresa.getIdEmpresa())
-                .count();
-        empleadosTrabajandoText.setText(String.valueOf(empleadosTrabajando));
-    }
-
-    /**
-     * Actualiza el contador de ausencias activas.
-     *
-     * @throws DAOException Si hay un error al acceder a los datos
-     */
-    private void actualizarContadorAusencias() throws DAOException {
-        EmpleadoDAO empleadoDAO = new EmpleadoDAO();
-        AusenciaDAO ausenciaDAO = new AusenciaDAO(empleadoDAO);
-        List<Ausencia> ausencias = ausenciaDAO.findAll();
-        long ausenciasActivas = ausencias.stream()
-                .filter(this::esAusenciaActiva)
-                .count();
-        ausenciasCantidadText.setText(String.valueOf(ausenciasActivas));
-    }
-
-    /**
-     * Verifica si una ausencia está activa para la empresa actual.
-     *
-     * @param ausencia La ausencia a verificar
-     * @return true si la ausencia está activa
-     */
-    private boolean esAusenciaActiva(Ausencia ausencia) {
-        try {
-            return ausencia.getEmpleado().getEmpresa().getIdEmpresa() == empresa.getIdEmpresa() &&
-                    ausencia.getFechaFin().isAfter(LocalDate.now());
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
     /**
      * Maneja el evento de cierre de sesión.
      *
@@ -243,8 +184,8 @@ public class EmpresaController {
             dialogStage.setScene(scene);
             dialogStage.showAndWait();
 
+            empresa = controller.getEmpresa();
             if (controller.edicionCorrecta()) {
-                empresa = controller.getEmpresa();
                 actualizarDashboard();
             }
         } catch (IOException e) {
@@ -1,5 +1,6 @@
 package org.dam.fcojavier.gestionpersonal.controllers;
 
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -8,16 +9,22 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import org.dam.fcojavier.gestionpersonal.DAOs.AusenciaDAO;
+import org.dam.fcojavier.gestionpersonal.DAOs.DAOAsincrono;
 import org.dam.fcojavier.gestionpersonal.DAOs.EmpleadoDAO;
 import org.dam.fcojavier.gestionpersonal.GestionPersonalApp;
+import org.dam.fcojavier.gestionpersonal.enums.DAOErrorTipo;
 import org.dam.fcojavier.gestionpersonal.exceptions.DAOException;
 import org.dam.fcojavier.gestionpersonal.model.Ausencia;
 import org.dam.fcojavier.gestionpersonal.model.Empleado;
+import org.dam.fcojavier.gestionpersonal.model.EmpleadoResumen;
 import org.dam.fcojavier.gestionpersonal.model.Empresa;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controlador para la gestión de ausencias de empleados.
@@ -26,7 +33,7 @@ import java.util.Optional;
  */
 public class GestionAusenciasController {
     /** Selector de empleado para filtrar */
-    @FXML private ComboBox<Empleado> empleadoFilterComboBox;
+    @FXML private ComboBox<EmpleadoResumen> empleadoFilterComboBox;
     
     /** Selector de fecha para filtrar */
     @FXML private DatePicker fechaFilterDatePicker;
@@ -58,19 +65,34 @@ public class GestionAusenciasController {
     /** DAO para acceder a los datos de empleados */
     private final EmpleadoDAO empleadoDAO;
     
+    /** Llamadas al DAO de ausencias fuera del hilo de JavaFX */
+    private final DAOAsincrono<AusenciaDAO> ausenciasAsincrono;
+
+    /** Llamadas al DAO de empleados fuera del hilo de JavaFX */
+    private final DAOAsincrono<EmpleadoDAO> empleadosAsincrono;
+
+    /** Carga de ausencias en curso; se cancela si se pide otra antes de que termine */
+    private CompletableFuture<List<Ausencia>> cargaAusencias;
+
     /** Lista observable de ausencias */
     private final ObservableList<Ausencia> ausencias;
     
     /** Empresa actual */
     private Empresa empresaActual;
 
+    /** Mensaje cuando otro usuario ha modificado la ausencia mientras se editaba */
+    private static final String ERROR_MODIFICADA = "Otro usuario ha modificado la ausencia mientras la editaba. " +
+            "Se ha recargado la lista; vuelva a abrirla para repetir los cambios.";
+
     /**
      * Constructor del controlador.
      * Inicializa los DAOs y la lista observable de ausencias.
      */
     public GestionAusenciasController() {
         this.empleadoDAO = new EmpleadoDAO();
-        this.ausenciaDAO = new AusenciaDAO(empleadoDAO);
+        this.ausenciaDAO = new AusenciaDAO();
+        this.ausenciasAsincrono = DAOAsincrono.de(ausenciaDAO);
+        this.empleadosAsincrono = DAOAsincrono.de(empleadoDAO);
         this.ausencias = FXCollections.observableArrayList();
     }
 
@@ -188,9 +210,9 @@ public class GestionAusenciasController {
     private void configurarVisualizacionComboBox() {
         empleadoFilterComboBox.setCellFactory(param -> new ListCell<>() {
             @Override
-            protected void updateItem(Empleado empleado, boolean empty) {
+            protected void updateItem(EmpleadoResumen empleado, boolean empty) {
                 super.updateItem(empleado, empty);
-                setText(empty || empleado == null ? null : formatearNombreEmpleado(empleado));
+                setText(empty || empleado == null ? null : empleado.getNombreCompleto());
             }
         });
     }
@@ -201,9 +223,9 @@ public class GestionAusenciasController {
     private void configurarCeldaSeleccionadaComboBox() {
         empleadoFilterComboBox.setButtonCell(new ListCell<>() {
             @Override
-            protected void updateItem(Empleado empleado, boolean empty) {
+            protected void updateItem(EmpleadoResumen empleado, boolean empty) {
                 super.updateItem(empleado, empty);
-                setText(empty || empleado == null ? null : formatearNombreEmpleado(empleado));
+                setText(empty || empleado == null ? null : empleado.getNombreCompleto());
             }
         });
     }
@@ -223,7 +245,7 @@ public class GestionAusenciasController {
      */
     private void configurarFiltros() {
         empleadoFilterComboBox.valueProperty().addListener((_, _, _) -> aplicarFiltros());
-        fechaFilterDatePicker.valueProperty().addListener((_, _, _) -> aplicarFiltros());
+        fechaFilterDatePicker.valueProperty().addListener((_, _, _) -> cargarAusencias());
     }
 
     /**
@@ -240,7 +262,7 @@ public class GestionAusenciasController {
      * @return true si cumple con los filtros
      */
     private boolean cumpleFiltros(Ausencia ausencia) {
-        return cumpleFiltroEmpleado(ausencia) && cumpleFiltroFecha(ausencia);
+        return cumpleFiltroEmpleado(ausencia);
     }
 
     /**
@@ -251,27 +273,12 @@ public class GestionAusenciasController {
      */
     private boolean cumpleFiltroEmpleado(Ausencia ausencia) {
         return empleadoFilterComboBox.getValue() == null || 
-               ausencia.getEmpleado().equals(empleadoFilterComboBox.getValue());
+               empleadoFilterComboBox.getValue().esDe(ausencia.getEmpleado());
     }
 
     /**
-     * Verifica si una ausencia cumple con el filtro de fecha.
-     *
-     * @param ausencia Ausencia a verificar
-     * @return true si cumple con el filtro
-     */
-    private boolean cumpleFiltroFecha(Ausencia ausencia) {
-        LocalDate fechaFiltro = fechaFilterDatePicker.getValue();
-        if (fechaFiltro == null) return true;
-
-        return ausencia.getFechaInicio().equals(fechaFiltro) ||
-               (ausencia.getFechaFin() != null &&
-                !ausencia.getFechaInicio().isAfter(fechaFiltro) &&
-                !ausencia.getFechaFin().isBefore(fechaFiltro));
-    }
-
-    /**
-     * Carga los datos iniciales.
+     * Carga los datos iniciales. Las ausencias y los empleados se consultan a la vez
+     * en segundo plano.
      */
     private void cargarDatos() {
         cargarAusencias();
@@ -279,41 +286,75 @@ public class GestionAusenciasController {
     }
 
     /**
-     * Carga las ausencias de la empresa.
+     * Carga las ausencias de la empresa en segundo plano. Si hay una fecha seleccionada
+     * en el filtro, solo se leen de la base de datos las ausencias que la incluyen.
+     * Una carga anterior que aún no haya terminado se cancela.
      */
     private void cargarAusencias() {
-        try {
-            ausencias.setAll(ausenciaDAO.findByEmpresa(empresaActual.getIdEmpresa()));
-        } catch (DAOException e) {
-            mostrarError("Error", "Error al cargar las ausencias: " + e.getMessage());
+        int idEmpresa = empresaActual.getIdEmpresa();
+        LocalDate fechaFiltro = fechaFilterDatePicker.getValue();
+        if (cargaAusencias != null) {
+            cargaAusencias.cancel(true);
         }
+        cargaAusencias = ausenciasAsincrono.ejecutar(dao -> fechaFiltro != null
+                ? dao.findByEmpresaEntreFechas(idEmpresa, fechaFiltro, fechaFiltro)
+                : dao.findByEmpresa(idEmpresa));
+        cargaAusencias.whenComplete((lista, error) -> Platform.runLater(() -> {
+            if (error == null) {
+                ausencias.setAll(lista);
+            } else if (!(error instanceof CancellationException)) {
+                mostrarError("Error", "Error al cargar las ausencias: " + error.getMessage());
+            }
+        }));
     }
 
     /**
-     * Carga los empleados de la empresa.
+     * Carga en segundo plano el resumen de los empleados de la empresa para el filtro.
      */
     private void cargarEmpleados() {
-        try {
-            empleadoFilterComboBox.setItems(FXCollections.observableArrayList(
-                    empleadoDAO.findByEmpresa(empresaActual)
-            ));
-        } catch (DAOException e) {
-            mostrarError("Error", "Error al cargar los empleados: " + e.getMessage());
-        }
+        int idEmpresa = empresaActual.getIdEmpresa();
+        empleadosAsincrono.ejecutar(dao -> dao.findResumenByEmpresa(idEmpresa))
+                .whenComplete((lista, error) -> Platform.runLater(() -> {
+                    if (error == null) {
+                        empleadoFilterComboBox.setItems(FXCollections.observableArrayList(lista));
+                    } else {
+                        mostrarError("Error", "Error al cargar los empleados: " + error.getMessage());
+                    }
+                }));
     }
 
     /**
-     * Muestra el diálogo de edición/creación de ausencia.
+     * Muestra el diálogo de edición/creación de ausencia. Los empleados que se ofrecen en
+     * el diálogo se cargan antes en segundo plano y el diálogo se abre cuando llegan.
      *
      * @param titulo Título del diálogo
      * @param ausencia Ausencia a editar, null si es nueva
      */
     private void mostrarDialogoAusencia(String titulo, Ausencia ausencia) {
+        Empresa empresa = empresaActual;
+        empleadosAsincrono.ejecutar(dao -> dao.findByEmpresa(empresa))
+                .whenComplete((empleados, error) -> Platform.runLater(() -> {
+                    if (error == null) {
+                        abrirDialogoAusencia(titulo, ausencia, empleados);
+                    } else {
+                        mostrarError("Error", "Error al cargar los empleados: " + error.getMessage());
+                    }
+                }));
+    }
+
+    /**
+     * Abre el diálogo de edición/creación de ausencia con los empleados ya cargados.
+     *
+     * @param titulo Título del diálogo
+     * @param ausencia Ausencia a editar, null si es nueva
+     * @param empleados Empleados de la empresa que pueden seleccionarse
+     */
+    private void abrirDialogoAusencia(String titulo, Ausencia ausencia, List<Empleado> empleados) {
         try {
             FXMLLoader loader = new FXMLLoader(GestionPersonalApp.class.getResource("editar-ausencias-dialog.fxml"));
             DialogPane dialogPane = loader.load();
 
-            EditarAusenciaController controller = configurarControladorDialog(loader, dialogPane, ausencia);
+            EditarAusenciaController controller = configurarControladorDialog(loader, dialogPane, ausencia, empleados);
             Dialog<ButtonType> dialog = crearDialogo(titulo, dialogPane);
 
             dialog.showAndWait()
@@ -330,19 +371,18 @@ public class GestionAusenciasController {
      *
      * @param loader Loader del FXML
      * @param dialogPane Panel del diálogo
-     * @param ausencia Ausencia a editar
+     * @param ausencia Ausencia a editar; el diálogo trabaja sobre una copia
+     * @param empleados Empleados de la empresa que pueden seleccionarse
      * @return Controlador configurado
-     * @throws DAOException Si hay error al cargar los empleados
      */
-    private EditarAusenciaController configurarControladorDialog(FXMLLoader loader, DialogPane dialogPane, Ausencia ausencia) throws DAOException {
+    private EditarAusenciaController configurarControladorDialog(FXMLLoader loader, DialogPane dialogPane, Ausencia ausencia,
+                                                                 List<Empleado> empleados) {
         EditarAusenciaController controller = loader.getController();
         controller.setDialogPane(dialogPane);
-        controller.setEmpleados(FXCollections.observableArrayList(
-                empleadoDAO.findByEmpresa(empresaActual)
-        ));
+        controller.setEmpleados(FXCollections.observableArrayList(empleados));
         controller.configurarComboBoxEmpleados();
         if (ausencia != null) {
-            controller.setAusencia(ausencia);
+            controller.setAusencia(new Ausencia(ausencia));
         }
         return controller;
     }
@@ -376,7 +416,12 @@ public class GestionAusenciasController {
                 procesarAusenciaEditada(ausenciaModificada, ausenciaOriginal);
             }
         } catch (DAOException e) {
-            mostrarError("Error", "Error al procesar la ausencia: " + e.getMessage());
+            if (e.getError() == DAOErrorTipo.VERSION_CONFLICT) {
+                mostrarError("Ausencia modificada", ERROR_MODIFICADA);
+                cargarAusencias();
+            } else {
+                mostrarError("Error", "Error al procesar la ausencia: " + e.getMessage());
+            }
         }
     }
 
@@ -1,5 +1,6 @@
 package org.dam.fcojavier.gestionpersonal.controllers;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
@@ -8,14 +9,18 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import org.dam.fcojavier.gestionpersonal.DAOs.EmpleadoDAO;
+import org.dam.fcojavier.gestionpersonal.enums.DAOErrorTipo;
+import org.dam.fcojavier.gestionpersonal.enums.OrdenEmpleado;
 import org.dam.fcojavier.gestionpersonal.enums.TipoEmpleado;
 import org.dam.fcojavier.gestionpersonal.exceptions.DAOException;
 import org.dam.fcojavier.gestionpersonal.model.Empleado;
 import org.dam.fcojavier.gestionpersonal.model.Empresa;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
-import java.util.Comparator;
+import java.util.Set;
 
 /**
  * Controlador para la gestión de empleados.
@@ -60,7 +65,7 @@ public class GestionEmpleadosController {
     @FXML private Button deleteButton;
     
     /** Selector de filtros para la tabla */
-    @FXML private ComboBox<String> filtroComboBox;
+    @FXML private ComboBox<OrdenEmpleado> filtroComboBox;
 
     /** DAO para acceder a los datos de empleados */
     private final EmpleadoDAO empleadoDAO;
@@ -77,6 +82,28 @@ public class GestionEmpleadosController {
     /** Ruta al archivo FXML del diálogo de edición */
     private static final String RUTA_DIALOG = "/org/dam/fcojavier/gestionpersonal/editar-empleados-dialog.fxml";
 
+    /** Mensaje cuando otro usuario ha modificado el empleado mientras se editaba */
+    private static final String ERROR_MODIFICADO = "Otro usuario ha modificado el empleado mientras lo editaba. " +
+            "Se ha recargado la lista; vuelva a abrirlo para repetir los cambios.";
+
+    /** Número de empleados que se piden en cada página */
+    private static final int TAMANO_PAGINA = 100;
+
+    /** Filas que deben quedar por mostrar al hacer scroll para pedir la siguiente página */
+    private static final int MARGEN_CARGA = 20;
+
+    /** Último empleado cargado, desde el que se pide la siguiente página en el orden seleccionado */
+    private Empleado ultimoCargado;
+
+    /** Indica si pueden quedar empleados de la empresa sin cargar */
+    private boolean hayMasEmpleados;
+
+    /** Indica si ya se ha pedido la siguiente página */
+    private boolean cargandoPagina;
+
+    /** Empleados creados en esta pantalla que todavía llegarán en una página posterior */
+    private final Set<Empleado> nuevosSinPaginar = new HashSet<>();
+
     /**
      * Constructor del controlador.
      * Inicializa las estructuras de datos necesarias para la gestión de empleados.
@@ -106,6 +133,15 @@ public class GestionEmpleadosController {
      */
     private void configurarTabla() {
         empleadosTable.setItems(empleadosFiltrados);
+        empleadosTable.setRowFactory(_ -> new TableRow<>() {
+            @Override
+            protected void updateItem(Empleado empleado, boolean empty) {
+                super.updateItem(empleado, empty);
+                if (!empty && getIndex() >= empleadosFiltrados.size() - MARGEN_CARGA) {
+                    solicitarSiguientePagina();
+                }
+            }
+        });
         configurarColumnas();
         configurarColumnaActivo();
     }
@@ -145,15 +181,11 @@ public class GestionEmpleadosController {
 
     /**
      * Configura el combo box de filtros con las opciones de ordenamiento.
+     * Al cambiar el orden se vuelve a cargar la lista desde la primera página.
      */
     private void configurarFiltros() {
-        filtroComboBox.getItems().addAll(
-            "Nombre (A-Z)", "Nombre (Z-A)",
-            "Departamento (A-Z)", "Departamento (Z-A)",
-            "Rol",
-            "Estado (Activos primero)", "Estado (Inactivos primero)"
-        );
-        filtroComboBox.setOnAction(event -> aplicarFiltro());
+        filtroComboBox.getItems().addAll(OrdenEmpleado.values());
+        filtroComboBox.setOnAction(event -> cargarEmpleados());
     }
 
     /**
@@ -268,7 +300,7 @@ public class GestionEmpleadosController {
      *
      * @param loader Loader del FXML
      * @param dialogPane Panel del diálogo
-     * @param empleado Empleado a editar
+     * @param empleado Empleado a editar; el diálogo trabaja sobre una copia
      * @return Controlador configurado
      */
     private EditarEmpleadosController configurarControlador(FXMLLoader loader, DialogPane dialogPane, Empleado empleado) {
@@ -276,7 +308,7 @@ public class GestionEmpleadosController {
         controller.setDialogPane(dialogPane);
         controller.setEmpresa(empresaActual);
         if (empleado != null) {
-            controller.setEmpleado(empleado);
+            controller.setEmpleado(new Empleado(empleado));
         }
         return controller;
     }
@@ -296,7 +328,12 @@ public class GestionEmpleadosController {
                 procesarEmpleadoEditado(empleadoResultante, empleadoOriginal);
             }
         } catch (DAOException e) {
-            mostrarError("Error al procesar empleado", e.getMessage());
+            if (e.getError() == DAOErrorTipo.VERSION_CONFLICT) {
+                mostrarError("Empleado modificado", ERROR_MODIFICADO);
+                cargarEmpleados();
+            } else {
+                mostrarError("Error al procesar empleado", e.getMessage());
+            }
         }
     }
 
@@ -309,6 +346,9 @@ public class GestionEmpleadosController {
     private void procesarNuevoEmpleado(Empleado empleado) throws DAOException {
         empleadoDAO.insert(empleado);
         empleados.add(empleado);
+        if (hayMasEmpleados) {
+            nuevosSinPaginar.add(empleado);
+        }
     }
 
     /**
@@ -365,44 +405,53 @@ public class GestionEmpleadosController {
     }
 
     /**
-     * Aplica el filtro seleccionado en el combo box.
+     * Carga la primera página de empleados de la empresa actual en el orden seleccionado.
+     * El resto se carga a medida que el usuario se acerca al final de la tabla.
      */
-    private void aplicarFiltro() {
-        String filtroSeleccionado = filtroComboBox.getValue();
-        if (filtroSeleccionado != null) {
-            aplicarFiltroSeleccionado(filtroSeleccionado);
-        }
+    private void cargarEmpleados() {
+        empleados.clear();
+        nuevosSinPaginar.clear();
+        ultimoCargado = null;
+        hayMasEmpleados = empresaActual != null;
+        cargarSiguientePagina();
     }
 
     /**
-     * Aplica el criterio de ordenamiento seleccionado.
-     *
-     * @param filtro Criterio de ordenamiento
+     * Programa la carga de la siguiente página si quedan empleados y no hay ya una pedida.
+     * La carga se hace fuera del dibujado de la fila que la solicita.
      */
-    private void aplicarFiltroSeleccionado(String filtro) {
-        switch (filtro) {
-            case "Nombre (A-Z)" -> empleados.sort(Comparator.comparing(Empleado::getNombre));
-            case "Nombre (Z-A)" -> empleados.sort(Comparator.comparing(Empleado::getNombre).reversed());
-            case "Departamento (A-Z)" -> empleados.sort(Comparator.comparing(Empleado::getDepartamento));
-            case "Departamento (Z-A)" -> empleados.sort(Comparator.comparing(Empleado::getDepartamento).reversed());
-            case "Rol" -> empleados.sort(Comparator.comparing(Empleado::getRol));
-            case "Estado (Activos primero)" -> empleados.sort(Comparator.comparing(Empleado::getActivo).reversed());
-            case "Estado (Inactivos primero)" -> empleados.sort(Comparator.comparing(Empleado::getActivo));
+    private void solicitarSiguientePagina() {
+        if (hayMasEmpleados && !cargandoPagina) {
+            cargandoPagina = true;
+            Platform.runLater(this::cargarSiguientePagina);
         }
     }
 
     /**
-     * Carga los empleados de la empresa actual.
+     * Carga la siguiente página de empleados y la añade al final de la tabla. La base de
+     * datos devuelve las páginas en el orden seleccionado, o por ID si no hay ninguno,
+     * así que las filas ya cargadas no se reordenan.
      */
-    private void cargarEmpleados() {
+    private void cargarSiguientePagina() {
         try {
-            if (empresaActual != null) {
-                empleados.setAll(empleadoDAO.findByEmpresa(empresaActual));
-            } else {
-                empleados.clear();
+            if (hayMasEmpleados && empresaActual != null) {
+                OrdenEmpleado orden = filtroComboBox.getValue();
+                List<Empleado> pagina = orden == null
+                        ? empleadoDAO.findPageByEmpresa(empresaActual,
+                                ultimoCargado == null ? 0 : ultimoCargado.getIdEmpleado(), TAMANO_PAGINA)
+                        : empleadoDAO.findPageByEmpresa(empresaActual, orden, ultimoCargado, TAMANO_PAGINA);
+                hayMasEmpleados = pagina.size() == TAMANO_PAGINA;
+                if (!pagina.isEmpty()) {
+                    ultimoCargado = pagina.getLast();
+                    pagina.removeAll(nuevosSinPaginar);
+                    empleados.addAll(pagina);
+                }
             }
         } catch (DAOException e) {
+            hayMasEmpleados = false;
             mostrarError("Error al cargar empleados", e.getMessage());
+        } finally {
+            cargandoPagina = false;
         }
     }
 
@@ -2,7 +2,6 @@ package org.dam.fcojavier.gestionpersonal.controllers;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -84,9 +83,6 @@ public class GestionTurnosController {
     /** Lista observable de asignaciones */
     private final ObservableList<PerteneceTurno> asignaciones;
     
-    /** Lista filtrada de asignaciones */
-    private final FilteredList<PerteneceTurno> asignacionesFiltradas;
-    
     /** Empresa actual */
     private Empresa empresaActual;
     
@@ -105,7 +101,6 @@ public class GestionTurnosController {
         this.perteneceTurnoDAO = new PerteneceTurnoDAO();
         this.turnos = FXCollections.observableArrayList();
         this.asignaciones = FXCollections.observableArrayList();
-        this.asignacionesFiltradas = new FilteredList<>(asignaciones, _ -> true);
     }
 
     /**
@@ -150,7 +145,7 @@ public class GestionTurnosController {
         fechaColumn.setCellValueFactory(new PropertyValueFactory<>("fecha"));
         horariosColumn.setCellValueFactory(cellData ->
                 new SimpleStringProperty(formatearHorario(cellData.getValue().getTurno())));
-        asignacionesTable.setItems(asignacionesFiltradas);
+        asignacionesTable.setItems(asignaciones);
     }
 
     /**
@@ -207,25 +202,7 @@ public class GestionTurnosController {
      */
     private void configurarFiltros() {
         fechaFiltro.valueProperty().addListener((_,
-                                                 _, _) -> aplicarFiltros());
-    }
-
-    /**
-     * Aplica los filtros actuales a las asignaciones.
-     */
-    private void aplicarFiltros() {
-        asignacionesFiltradas.setPredicate(this::cumpleFiltroFecha);
-    }
-
-    /**
-     * Verifica si una asignación cumple con el filtro de fecha.
-     *
-     * @param asignacion Asignación a verificar
-     * @return true si cumple con el filtro
-     */
-    private boolean cumpleFiltroFecha(PerteneceTurno asignacion) {
-        if (fechaFiltro.getValue() == null) return true;
-        return asignacion.getFecha().equals(fechaFiltro.getValue());
+                                                 _, _) -> cargarAsignaciones());
     }
 
     /**
@@ -248,14 +225,16 @@ public class GestionTurnosController {
     }
 
     /**
-     * Carga las asignaciones desde la base de datos.
+     * Carga las asignaciones de los empleados de la empresa desde la base de datos. Si hay
+     * una fecha seleccionada en el filtro, solo se leen las asignaciones de ese día.
      */
     private void cargarAsignaciones() {
         try {
             if (fechaFiltro.getValue() != null) {
-                asignaciones.setAll(perteneceTurnoDAO.findByFecha(fechaFiltro.getValue()));
+                asignaciones.setAll(perteneceTurnoDAO.findByEmpresaEntreFechas(empresaActual.getIdEmpresa(),
+                        fechaFiltro.getValue(), fechaFiltro.getValue()));
             } else {
-                asignaciones.setAll(perteneceTurnoDAO.findAll());
+                asignaciones.setAll(perteneceTurnoDAO.findByEmpresa(empresaActual.getIdEmpresa()));
             }
         } catch (DAOException e) {
             mostrarError("Error", "Error al cargar las asignaciones: " + e.getMessage());
@@ -392,8 +371,11 @@ public class GestionTurnosController {
      */
     @FXML
     private void handleLimpiarFiltro() {
-        fechaFiltro.setValue(null);
-        cargarAsignaciones();
+        if (fechaFiltro.getValue() != null) {
+            fechaFiltro.setValue(null);
+        } else {
+            cargarAsignaciones();
+        }
     }
 
     /**
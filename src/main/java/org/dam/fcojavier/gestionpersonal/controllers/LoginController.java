@@ -97,6 +97,8 @@ public class LoginController {
         }
 
         logger.info("Inicio de sesión exitoso para la empresa: {}", empresa.getNombre());
+        // El hash ya no hace falta durante la sesión; al guardar la empresa se conserva el almacenado
+        empresa.setPassword(null);
         iniciarSesionEmpresa(empresa);
     }
 
@@ -73,10 +73,12 @@ public class RegistroController {
         }
 
         try {
-            if (procesarRegistro()) {
+            Empresa empresaInsertada = procesarRegistro();
+            if (empresaInsertada != null) {
                 registroCompletado = true;
                 logger.info("Registro exitoso para el email: {}", emailField.getText());
-                Empresa empresaRegistrada = empresaDAO.findByEmail(emailField.getText());
+                // Se vuelve a leer por su ID, que no incluye el hash de la contraseña
+                Empresa empresaRegistrada = empresaDAO.findById(empresaInsertada.getIdEmpresa());
                 iniciarSesionYMostrarPanel(empresaRegistrada);
             }
         } catch (DAOException e) {
@@ -149,17 +151,17 @@ public class RegistroController {
     /**
      * Procesa el registro de la nueva empresa.
      *
-     * @return true si el registro fue exitoso
+     * @return La empresa insertada con su ID, o null si el registro no se realizó
      * @throws DAOException Si hay un error al acceder a la base de datos
      */
-    private boolean procesarRegistro() throws DAOException {
+    private Empresa procesarRegistro() throws DAOException {
         if (emailExiste(emailField.getText())) {
             mostrarError("Ya existe una cuenta con este email");
-            return false;
+            return null;
         }
 
         Empresa empresa = crearEmpresa();
-        return empresaDAO.insert(empresa) != null;
+        return empresaDAO.insert(empresa);
     }
 
     /**
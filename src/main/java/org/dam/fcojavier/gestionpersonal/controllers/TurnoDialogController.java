@@ -7,6 +7,7 @@ import javafx.scene.control.Tooltip;
 import javafx.stage.Stage;
 import org.dam.fcojavier.gestionpersonal.model.Turno;
 import org.dam.fcojavier.gestionpersonal.DAOs.TurnoDAO;
+import org.dam.fcojavier.gestionpersonal.enums.DAOErrorTipo;
 import org.dam.fcojavier.gestionpersonal.exceptions.DAOException;
 
 import java.time.LocalTime;
@@ -38,6 +39,8 @@ public class TurnoDialogController {
     private static final String ERROR_FORMATO_HORA = "El formato de hora debe ser HH:mm";
     private static final String ERROR_HORA_FIN = "La hora de fin debe ser posterior a la hora de inicio";
     private static final String ERROR_GUARDAR = "No se pudo guardar el turno";
+    private static final String ERROR_MODIFICADO = "Otro usuario ha modificado el turno mientras lo editaba. " +
+            "Se han cargado sus datos actuales; revíselos y vuelva a guardar.";
 
     // Constructor
     public TurnoDialogController() {
@@ -165,7 +168,28 @@ public class TurnoDialogController {
 
             procesarResultado(turnoResultado);
         } catch (DAOException e) {
-            mostrarError("Error", "Error al guardar el turno: " + e.getMessage());
+            if (e.getError() == DAOErrorTipo.VERSION_CONFLICT) {
+                recargarTurno();
+            } else {
+                mostrarError("Error", "Error al guardar el turno: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Vuelve a leer el turno de la base de datos tras un conflicto de versión y
+     * muestra sus datos actuales en el formulario.
+     */
+    private void recargarTurno() {
+        try {
+            Turno actual = turnoDAO.findById(turno.getIdTurno());
+            if (actual != null) {
+                turno = actual;
+                cargarDatosTurno();
+            }
+            mostrarError("Turno modificado", ERROR_MODIFICADO);
+        } catch (DAOException e) {
+            mostrarError("Error", "Error al recargar el turno: " + e.getMessage());
         }
     }
 
@@ -213,16 +237,18 @@ public class TurnoDialogController {
     }
 
     /**
-     * Actualiza un turno existente con los datos del formulario.
+     * Actualiza un turno existente con los datos del formulario. Los cambios se aplican
+     * sobre una copia, de modo que el turno recibido no cambia si no se guardan.
      *
      * @return El turno actualizado y guardado en la base de datos
      * @throws DAOException Si ocurre un error al actualizar en la base de datos
      */
     private Turno actualizarTurnoExistente() throws DAOException {
-        turno.setDescripcion(descripcionField.getText());
-        turno.setHoraInicio(LocalTime.parse(horaInicioField.getText()));
-        turno.setHoraFin(LocalTime.parse(horaFinField.getText()));
-        return turnoDAO.update(turno);
+        Turno editado = new Turno(turno);
+        editado.setDescripcion(descripcionField.getText());
+        editado.setHoraInicio(LocalTime.parse(horaInicioField.getText()));
+        editado.setHoraFin(LocalTime.parse(horaFinField.getText()));
+        return turnoDAO.update(editado);
     }
 
     /**
@@ -10,6 +10,8 @@ public enum DAOErrorTipo {
     DUPLICATE_KEY("Clave duplicada"),
     FOREIGN_KEY_VIOLATION("Violación de clave foránea"),
     CONNECTION_ERROR("Error de conexión"),
+    TIMEOUT("Tiempo de espera agotado"),
+    VERSION_CONFLICT("Modificado por otro usuario"),
     UNKNOWN_ERROR("Error desconocido");
 
     private final String descripcion;
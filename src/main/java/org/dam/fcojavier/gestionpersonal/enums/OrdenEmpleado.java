@@ -0,0 +1,32 @@
+package org.dam.fcojavier.gestionpersonal.enums;
+
+/**
+ * Criterios de ordenación de la lista de empleados
+ */
+public enum OrdenEmpleado {
+    NOMBRE_ASC("Nombre (A-Z)", false),
+    NOMBRE_DESC("Nombre (Z-A)", true),
+    DEPARTAMENTO_ASC("Departamento (A-Z)", false),
+    DEPARTAMENTO_DESC("Departamento (Z-A)", true),
+    ROL("Rol", false),
+    ACTIVOS_PRIMERO("Estado (Activos primero)", true),
+    INACTIVOS_PRIMERO("Estado (Inactivos primero)", false);
+
+    private final String descripcion;
+    private final boolean descendente;
+    OrdenEmpleado(String descripcion, boolean descendente) {
+        this.descripcion = descripcion;
+        this.descendente = descendente;
+    }
+    public String getDescripcion() {
+        return descripcion;
+    }
+    public boolean isDescendente() {
+        return descendente;
+    }
+
+    @Override
+    public String toString() {
+        return descripcion;
+    }
+}
@@ -55,4 +55,16 @@ public interface CrudDAO<T> {
      * @throws DAOException si hay error en la operación
      */
     List<T> findAll() throws DAOException;
+
+    /**
+     * Obtiene una página de entidades ordenadas por su identificador, empezando tras el
+     * último identificador de la página anterior. La consulta usa la clave primaria, por
+     * lo que su coste no depende de cuántas páginas se hayan leído antes.
+     *
+     * @param afterId identificador de la última entidad ya leída, 0 para la primera página
+     * @param limit número máximo de entidades de la página
+     * @return lista con las entidades de la página, vacía si no quedan más
+     * @throws DAOException si hay error en la operación
+     */
+    List<T> findPage(int afterId, int limit) throws DAOException;
 }
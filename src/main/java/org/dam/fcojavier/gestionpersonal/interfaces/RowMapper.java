@@ -0,0 +1,60 @@
+package org.dam.fcojavier.gestionpersonal.interfaces;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Interfaz para convertir las filas de una consulta en objetos del modelo.
+ * La conversión se hace en dos pasos: al empezar a leer un resultado se resuelven una
+ * sola vez las posiciones de las columnas que se necesitan, y el {@link Lector} devuelto
+ * lee después cada fila por posición, sin buscar las columnas por nombre en cada una.
+ *
+ * @param <T> tipo de objeto que se obtiene de cada fila
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    /**
+     * Prepara la lectura de un resultado resolviendo las columnas que se necesitan.
+     *
+     * @param metaData Descripción de las columnas del resultado
+     * @return Lector que convierte cada fila del resultado
+     * @throws SQLException si falta alguna columna o no puede leerse la descripción
+     */
+    Lector<T> preparar(ResultSetMetaData metaData) throws SQLException;
+
+    /**
+     * Obtiene la posición de una columna por su etiqueta, sin distinguir mayúsculas.
+     * Si varias columnas tienen la misma etiqueta se devuelve la primera.
+     *
+     * @param metaData Descripción de las columnas del resultado
+     * @param etiqueta Nombre o alias de la columna
+     * @return Posición de la columna, empezando en 1
+     * @throws SQLException si el resultado no tiene esa columna
+     */
+    static int columna(ResultSetMetaData metaData, String etiqueta) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (metaData.getColumnLabel(i).equalsIgnoreCase(etiqueta)) {
+                return i;
+            }
+        }
+        throw new SQLException("La consulta no devuelve la columna " + etiqueta);
+    }
+
+    /**
+     * Convierte la fila actual de un resultado ya preparado.
+     *
+     * @param <T> tipo de objeto que se obtiene de cada fila
+     */
+    @FunctionalInterface
+    interface Lector<T> {
+        /**
+         * Convierte la fila en la que está posicionado el resultado.
+         *
+         * @param rs Resultado posicionado en una fila
+         * @return Objeto con los datos de la fila
+         * @throws SQLException si falla la lectura de alguna columna
+         */
+        T leer(ResultSet rs) throws SQLException;
+    }
+}
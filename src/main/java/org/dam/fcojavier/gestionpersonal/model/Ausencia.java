@@ -25,6 +25,9 @@ public class Ausencia {
     /** Empleado al que corresponde la ausencia */
     private Empleado empleado;
 
+    /** Versión de la fila leída, que se comprueba y se incrementa al actualizarla */
+    private int version;
+
     /**
      * Constructor por defecto.
      * Crea una nueva instancia de Ausencia sin inicializar sus campos.
@@ -41,6 +44,22 @@ public class Ausencia {
         this.motivo = motivo;
     }
 
+    /**
+     * Constructor de copia. Crea una ausencia con los mismos datos y la misma versión
+     * que otra, para editarla sin modificar la original hasta que se guarde.
+     * El empleado no se copia: ambas comparten la misma instancia.
+     *
+     * @param otra La ausencia a copiar
+     */
+    public Ausencia(Ausencia otra) {
+        this.idAusencia = otra.idAusencia;
+        this.motivo = otra.motivo;
+        this.fechaInicio = otra.fechaInicio;
+        this.fechaFin = otra.fechaFin;
+        this.empleado = otra.empleado;
+        this.version = otra.version;
+    }
+
     /**
      * Obtiene el identificador único de la ausencia.
      *
@@ -131,6 +150,24 @@ public class Ausencia {
         this.empleado = empleado;
     }
 
+    /**
+     * Obtiene la versión de la fila de la que se leyó la ausencia.
+     *
+     * @return La versión leída, 0 si aún no se ha guardado
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Establece la versión de la fila de la que se leyó la ausencia.
+     *
+     * @param version La nueva versión
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Compara esta ausencia con otro objeto para determinar si son iguales.
      * La comparación se basa únicamente en el ID de la ausencia.
@@ -1,7 +1,6 @@
 package org.dam.fcojavier.gestionpersonal.model;
 
 import org.dam.fcojavier.gestionpersonal.enums.TipoEmpleado;
-import java.util.Objects;
 
 /**
  * Clase que representa a un empleado en el sistema de gestión de personal.
@@ -41,6 +40,9 @@ public class Empleado {
     /** Rol del empleado (SUPERVISOR o EMPLEADO) */
     private TipoEmpleado rol;
 
+    /** Versión de la fila leída, que se comprueba y se incrementa al actualizarla */
+    private int version;
+
     /**
      * Constructor por defecto.
      * Crea una nueva instancia de Empleado sin inicializar sus campos.
@@ -70,6 +72,27 @@ public class Empleado {
         this.rol = TipoEmpleado.EMPLEADO;
     }
 
+    /**
+     * Constructor de copia. Crea un empleado con los mismos datos y la misma versión
+     * que otro, para editarlo sin modificar el original hasta que se guarde.
+     * La empresa no se copia: ambos comparten la misma instancia.
+     *
+     * @param otro El empleado a copiar
+     */
+    public Empleado(Empleado otro) {
+        this.idEmpleado = otro.idEmpleado;
+        this.empresa = otro.empresa;
+        this.nombre = otro.nombre;
+        this.apellido = otro.apellido;
+        this.telefono = otro.telefono;
+        this.email = otro.email;
+        this.departamento = otro.departamento;
+        this.activo = otro.activo;
+        this.puesto = otro.puesto;
+        this.rol = otro.rol;
+        this.version = otro.version;
+    }
+
     // Getters y Setters
 
     /**
@@ -212,6 +235,24 @@ public class Empleado {
         this.rol = rol;
     }
 
+    /**
+     * Obtiene la versión de la fila de la que se leyó el empleado.
+     *
+     * @return La versión leída, 0 si aún no se ha guardado
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Establece la versión de la fila de la que se leyó el empleado.
+     *
+     * @param version La nueva versión
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Genera una representación en texto del empleado incluyendo sus datos principales.
      * 
@@ -234,27 +275,28 @@ public class Empleado {
 
     /**
      * Compara este empleado con otro objeto para determinar si son iguales.
-     * La comparación se basa en el nombre, apellidos y email del empleado.
+     * La comparación se basa en el ID del empleado; un empleado aún sin guardar
+     * (con ID 0) solo es igual a sí mismo.
      *
      * @param o El objeto a comparar
      * @return true si son el mismo empleado, false en caso contrario
      */
     @Override
     public boolean equals(Object o) {
+        if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Empleado empleado = (Empleado) o;
-        return Objects.equals(nombre, empleado.nombre) && 
-               Objects.equals(apellido, empleado.apellido) && 
-               Objects.equals(email, empleado.email);
+        return idEmpleado != 0 && idEmpleado == empleado.idEmpleado;
     }
 
     /**
-     * Genera un código hash para este empleado basado en su nombre, apellidos y email.
+     * Genera un código hash para este empleado basado en su ID.
+     * El ID no debe cambiar mientras el empleado esté en una colección basada en hash.
      *
      * @return El código hash generado
      */
     @Override
     public int hashCode() {
-        return Objects.hash(nombre, apellido, email);
+        return idEmpleado != 0 ? Integer.hashCode(idEmpleado) : System.identityHashCode(this);
     }
 }
\ No newline at end of file
@@ -0,0 +1,137 @@
+package org.dam.fcojavier.gestionpersonal.model;
+
+import org.dam.fcojavier.gestionpersonal.enums.TipoEmpleado;
+
+/**
+ * Resumen de un empleado para listas y selectores, con solo los datos que se muestran
+ * en ellos. Se obtiene con una consulta que lee únicamente esas columnas; cuando hace
+ * falta el empleado completo, por ejemplo al abrir su diálogo de edición, se carga
+ * el {@link Empleado} por su ID.
+ */
+public class EmpleadoResumen {
+    /** Identificador único del empleado en la base de datos */
+    private final int idEmpleado;
+
+    /** Nombre del empleado */
+    private final String nombre;
+
+    /** Apellidos del empleado */
+    private final String apellido;
+
+    /** Departamento al que está asignado el empleado */
+    private final String departamento;
+
+    /** Rol del empleado (SUPERVISOR o EMPLEADO) */
+    private final TipoEmpleado rol;
+
+    /** Indica si el empleado está activo en la empresa */
+    private final boolean activo;
+
+    /**
+     * Constructor que inicializa el resumen con los datos leídos del empleado.
+     *
+     * @param idEmpleado ID del empleado
+     * @param nombre Nombre del empleado
+     * @param apellido Apellidos del empleado
+     * @param departamento Departamento del empleado
+     * @param rol Rol del empleado
+     * @param activo Indica si el empleado está activo
+     */
+    public EmpleadoResumen(int idEmpleado, String nombre, String apellido, String departamento,
+                           TipoEmpleado rol, boolean activo) {
+        this.idEmpleado = idEmpleado;
+        this.nombre = nombre;
+        this.apellido = apellido;
+        this.departamento = departamento;
+        this.rol = rol;
+        this.activo = activo;
+    }
+
+    /**
+     * @return El identificador único del empleado
+     */
+    public int getIdEmpleado() {
+        return idEmpleado;
+    }
+
+    /**
+     * @return El nombre del empleado
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * @return Los apellidos del empleado
+     */
+    public String getApellido() {
+        return apellido;
+    }
+
+    /**
+     * @return El nombre seguido de los apellidos del empleado
+     */
+    public String getNombreCompleto() {
+        return nombre + " " + apellido;
+    }
+
+    /**
+     * @return El departamento del empleado
+     */
+    public String getDepartamento() {
+        return departamento;
+    }
+
+    /**
+     * @return El rol del empleado (SUPERVISOR o EMPLEADO)
+     */
+    public TipoEmpleado getRol() {
+        return rol;
+    }
+
+    /**
+     * @return true si el empleado está activo, false en caso contrario
+     */
+    public boolean getActivo() {
+        return activo;
+    }
+
+    /**
+     * Indica si este resumen corresponde a un empleado dado.
+     *
+     * @param empleado Empleado a comparar
+     * @return true si el empleado tiene el mismo ID
+     */
+    public boolean esDe(Empleado empleado) {
+        return empleado != null && empleado.getIdEmpleado() == idEmpleado;
+    }
+
+    @Override
+    public String toString() {
+        return getNombreCompleto();
+    }
+
+    /**
+     * Compara este resumen con otro objeto. Dos resúmenes son iguales si
+     * corresponden al mismo empleado.
+     *
+     * @param o El objeto a comparar
+     * @return true si son resúmenes del mismo empleado, false en caso contrario
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EmpleadoResumen that)) return false;
+        return idEmpleado == that.idEmpleado;
+    }
+
+    /**
+     * Genera un código hash para el resumen basado en el ID del empleado.
+     *
+     * @return El código hash del resumen
+     */
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(idEmpleado);
+    }
+}
@@ -1,7 +1,5 @@
 package org.dam.fcojavier.gestionpersonal.model;
 
-import java.util.Objects;
-
 /**
  * Clase que representa una empresa en el sistema de gestión de personal.
  * Contiene la información básica de una empresa y se corresponde con la tabla 'empresa'
@@ -27,6 +25,9 @@ public class Empresa {
     /** Contraseña hasheada para autenticación */
     private String password;
 
+    /** Versión de la fila leída, que se comprueba y se incrementa al actualizarla */
+    private int version;
+
     /**
      * Constructor por defecto.
      * Crea una nueva instancia de Empresa sin inicializar sus campos.
@@ -52,6 +53,22 @@ public class Empresa {
         this.password = password;
     }
 
+    /**
+     * Constructor de copia. Crea una empresa con los mismos datos y la misma versión
+     * que otra, para editarla sin modificar la original hasta que se guarde.
+     *
+     * @param otra La empresa a copiar
+     */
+    public Empresa(Empresa otra) {
+        this.idEmpresa = otra.idEmpresa;
+        this.nombre = otra.nombre;
+        this.direccion = otra.direccion;
+        this.telefono = otra.telefono;
+        this.email = otra.email;
+        this.password = otra.password;
+        this.version = otra.version;
+    }
+
     /**
      * @return El identificador único de la empresa
      */
@@ -136,28 +153,49 @@ public class Empresa {
         this.password = password;
     }
 
+    /**
+     * Obtiene la versión de la fila de la que se leyó la empresa.
+     *
+     * @return La versión leída, 0 si aún no se ha guardado
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Establece la versión de la fila de la que se leyó la empresa.
+     *
+     * @param version La nueva versión
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Compara esta empresa con otro objeto para determinar si son iguales.
-     * La comparación se basa únicamente en el nombre de la empresa, ya que debe ser único.
+     * La comparación se basa en el ID de la empresa; una empresa aún sin guardar
+     * (con ID 0) solo es igual a sí misma.
      *
      * @param o El objeto a comparar
      * @return true si son la misma empresa, false en caso contrario
      */
     @Override
     public boolean equals(Object o) {
+        if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Empresa empresa = (Empresa) o;
-        return Objects.equals(nombre, empresa.nombre);
+        return idEmpresa != 0 && idEmpresa == empresa.idEmpresa;
     }
 
     /**
-     * Genera un código hash para esta empresa basado en su nombre.
+     * Genera un código hash para esta empresa basado en su ID.
+     * El ID no debe cambiar mientras la empresa esté en una colección basada en hash.
      *
      * @return El código hash generado
      */
     @Override
     public int hashCode() {
-        return Objects.hashCode(nombre);
+        return idEmpresa != 0 ? Integer.hashCode(idEmpresa) : System.identityHashCode(this);
     }
 
     /**
@@ -0,0 +1,60 @@
+package org.dam.fcojavier.gestionpersonal.model;
+
+/**
+ * Cifras del panel principal de una empresa en una fecha: total de empleados,
+ * empleados con turno asignado y ausencias activas. Se calculan en la base de datos
+ * con una única consulta, sin cargar las filas de las que salen.
+ */
+public class ResumenEmpresa {
+    /** Número de empleados de la empresa */
+    private final int empleados;
+
+    /** Número de asignaciones de turno de los empleados de la empresa en la fecha */
+    private final int empleadosTrabajando;
+
+    /** Número de ausencias de los empleados de la empresa en curso en la fecha, incluidas las que no tienen fecha de fin */
+    private final int ausenciasActivas;
+
+    /**
+     * Constructor que inicializa el resumen con las cifras calculadas.
+     *
+     * @param empleados Número de empleados de la empresa
+     * @param empleadosTrabajando Número de asignaciones de turno en la fecha
+     * @param ausenciasActivas Número de ausencias activas en la fecha
+     */
+    public ResumenEmpresa(int empleados, int empleadosTrabajando, int ausenciasActivas) {
+        this.empleados = empleados;
+        this.empleadosTrabajando = empleadosTrabajando;
+        this.ausenciasActivas = ausenciasActivas;
+    }
+
+    /**
+     * @return El número de empleados de la empresa
+     */
+    public int getEmpleados() {
+        return empleados;
+    }
+
+    /**
+     * @return El número de asignaciones de turno de los empleados en la fecha
+     */
+    public int getEmpleadosTrabajando() {
+        return empleadosTrabajando;
+    }
+
+    /**
+     * @return El número de ausencias activas en la fecha
+     */
+    public int getAusenciasActivas() {
+        return ausenciasActivas;
+    }
+
+    @Override
+    public String toString() {
+        return "ResumenEmpresa{" +
+                "empleados=" + empleados +
+                ", empleadosTrabajando=" + empleadosTrabajando +
+                ", ausenciasActivas=" + ausenciasActivas +
+                '}';
+    }
+}
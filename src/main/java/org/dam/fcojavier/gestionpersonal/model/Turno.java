@@ -21,6 +21,9 @@ public class Turno {
     /** Hora de finalización del turno */
     private LocalTime horaFin;
 
+    /** Versión de la fila leída, que se comprueba y se incrementa al actualizarla */
+    private int version;
+
     /**
      * Constructor por defecto.
      * Crea una nueva instancia de Turno sin inicializar sus campos.
@@ -42,6 +45,20 @@ public class Turno {
         this.horaFin = horaFin;
     }
 
+    /**
+     * Constructor de copia. Crea un turno con los mismos datos y la misma versión
+     * que otro, para editarlo sin modificar el original hasta que se guarde.
+     *
+     * @param otro El turno a copiar
+     */
+    public Turno(Turno otro) {
+        this.idTurno = otro.idTurno;
+        this.descripcion = otro.descripcion;
+        this.horaInicio = otro.horaInicio;
+        this.horaFin = otro.horaFin;
+        this.version = otro.version;
+    }
+
     /**
      * Obtiene el identificador único del turno.
      *
@@ -114,6 +131,24 @@ public class Turno {
         this.horaFin = horaFin;
     }
 
+    /**
+     * Obtiene la versión de la fila de la que se leyó el turno.
+     *
+     * @return La versión leída, 0 si aún no se ha guardado
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Establece la versión de la fila de la que se leyó el turno.
+     *
+     * @param version La nueva versión
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Calcula la duración del turno en horas.
      * Si falta la hora de inicio o fin, devuelve 0.
@@ -132,6 +167,33 @@ public class Turno {
         return duracionHoras;
     }
 
+    /**
+     * Compara este turno con otro objeto para determinar si son iguales.
+     * La comparación se basa en el ID del turno; un turno aún sin guardar
+     * (con ID 0) solo es igual a sí mismo.
+     *
+     * @param o El objeto a comparar
+     * @return true si son el mismo turno, false en caso contrario
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Turno turno = (Turno) o;
+        return idTurno != 0 && idTurno == turno.idTurno;
+    }
+
+    /**
+     * Genera un código hash para este turno basado en su ID.
+     * El ID no debe cambiar mientras el turno esté en una colección basada en hash.
+     *
+     * @return El código hash generado
+     */
+    @Override
+    public int hashCode() {
+        return idTurno != 0 ? Integer.hashCode(idTurno) : System.identityHashCode(this);
+    }
+
     /**
      * Genera una representación en texto del turno incluyendo todos sus campos.
      *
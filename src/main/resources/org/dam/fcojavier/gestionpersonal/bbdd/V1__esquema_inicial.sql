@@ -0,0 +1,59 @@
+-- Esquema inicial de la aplicación.
+-- Las tablas solo se crean si no existen, de modo que una base de datos creada
+-- anteriormente con documentacion/ScriptSQL.sql queda registrada en esta versión.
+
+CREATE TABLE IF NOT EXISTS empresa (
+  id_empresa     INT AUTO_INCREMENT PRIMARY KEY,
+  nombre         VARCHAR(100) NOT NULL UNIQUE,
+  direccion      VARCHAR(255) NOT NULL,
+  email          VARCHAR(100) NOT NULL UNIQUE,
+  telefono       VARCHAR(20)  NOT NULL UNIQUE,
+  password_hash  VARCHAR(255) NOT NULL
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS empleado (
+  id_empleado   INT AUTO_INCREMENT PRIMARY KEY,
+  nombre        VARCHAR(100) NOT NULL,
+  apellidos     VARCHAR(100) NOT NULL,
+  telefono      VARCHAR(20)  NOT NULL UNIQUE,
+  email         VARCHAR(100) NOT NULL UNIQUE,
+  activo        BOOLEAN NOT NULL DEFAULT TRUE,
+  departamento  VARCHAR(100),
+  puesto        VARCHAR(100),
+  rol           ENUM('SUPERVISOR', 'EMPLEADO') NOT NULL DEFAULT 'EMPLEADO',
+  id_empresa    INT NOT NULL,
+  FOREIGN KEY (id_empresa)
+    REFERENCES empresa(id_empresa)
+    ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS ausencia (
+  id_ausencia   INT AUTO_INCREMENT PRIMARY KEY,
+  motivo        VARCHAR(255) NOT NULL,
+  fecha_inicio  DATE NOT NULL,
+  fecha_fin     DATE,
+  id_empleado   INT NOT NULL,
+  FOREIGN KEY (id_empleado)
+    REFERENCES empleado(id_empleado)
+    ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS turno (
+  id_turno     INT AUTO_INCREMENT PRIMARY KEY,
+  descripcion  VARCHAR(100) NOT NULL,
+  hora_inicio  TIME         NOT NULL,
+  hora_fin     TIME         NOT NULL
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS pertenece (
+  id_empleado INT NOT NULL,
+  id_turno    INT NOT NULL,
+  fecha       DATE NOT NULL,
+  PRIMARY KEY (id_empleado, id_turno, fecha),
+  FOREIGN KEY (id_empleado)
+    REFERENCES empleado(id_empleado)
+    ON DELETE CASCADE,
+  FOREIGN KEY (id_turno)
+    REFERENCES turno(id_turno)
+    ON DELETE CASCADE
+) ENGINE=InnoDB;
@@ -0,0 +1,17 @@
+-- Índices secundarios para los filtros de los DAOs.
+
+-- PerteneceTurnoDAO.findByFecha: WHERE fecha = ?
+CREATE INDEX idx_pertenece_fecha ON pertenece (fecha);
+
+-- PerteneceTurnoDAO.findByAsignacionesFecha: WHERE id_empleado = ? AND fecha = ?
+-- (la clave primaria solo sirve para el primer campo)
+CREATE INDEX idx_pertenece_empleado_fecha ON pertenece (id_empleado, fecha);
+
+-- Borrado en cascada y consultas de asignaciones por turno
+CREATE INDEX idx_pertenece_turno ON pertenece (id_turno);
+
+-- Ausencias de un empleado ordenadas o filtradas por fecha de inicio
+CREATE INDEX idx_ausencia_empleado_inicio ON ausencia (id_empleado, fecha_inicio);
+
+-- EmpleadoDAO.findByEmpresa y AusenciaDAO.findByEmpresa: WHERE id_empresa = ?
+CREATE INDEX idx_empleado_empresa ON empleado (id_empresa);
@@ -0,0 +1,10 @@
+-- Versión de cada fila de las entidades editables, para el control de concurrencia optimista.
+-- Los DAOs actualizan con WHERE version = ? e incrementan la versión en cada cambio.
+
+ALTER TABLE empresa ADD COLUMN version INT NOT NULL DEFAULT 0;
+
+ALTER TABLE empleado ADD COLUMN version INT NOT NULL DEFAULT 0;
+
+ALTER TABLE ausencia ADD COLUMN version INT NOT NULL DEFAULT 0;
+
+ALTER TABLE turno ADD COLUMN version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,205 @@
+package org.dam.fcojavier.gestionpersonal.DAOs;
+
+import org.dam.fcojavier.gestionpersonal.bbdd.ConnectionDB;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Datos de prueba en la base de datos de {@code connection.xml} para las pruebas que
+ * necesitan un servidor MySQL. Cada instancia crea sus propias empresas, empleados y
+ * turnos, con nombres, emails y teléfonos marcados para no chocar con datos existentes,
+ * y los borra al cerrarse; el borrado de las empresas arrastra en cascada sus empleados,
+ * asignaciones y ausencias.
+ * Las pruebas que la usan solo se ejecutan con {@code -Dgestionpersonal.bd=true}.
+ */
+final class DatosPrueba implements AutoCloseable {
+    /** Propiedad del sistema que activa las pruebas con base de datos */
+    static final String PROPIEDAD = "gestionpersonal.bd";
+
+    /** Número máximo de asignaciones de cada sentencia de {@link #asignar} */
+    private static final int FILAS_POR_SENTENCIA = 1000;
+
+    /** Marca de los datos de esta instancia */
+    private final String marca = String.format("%06d", System.nanoTime() % 1_000_000);
+
+    /** IDs de las empresas creadas */
+    final List<Integer> empresas = new ArrayList<>();
+
+    /** IDs de los empleados creados, agrupados por empresa en el orden de {@link #empresas} */
+    final List<Integer> empleados = new ArrayList<>();
+
+    /** IDs de los turnos creados: mañana, tarde y noche */
+    final List<Integer> turnos = new ArrayList<>();
+
+    /**
+     * Crea las empresas, sus empleados y tres turnos.
+     *
+     * @param numEmpresas Número de empresas
+     * @param empleadosPorEmpresa Número de empleados de cada empresa
+     * @throws SQLException Si falla alguna inserción
+     */
+    DatosPrueba(int numEmpresas, int empleadosPorEmpresa) throws SQLException {
+        try (Connection con = ConnectionDB.getConnection();
+             PreparedStatement empresa = con.prepareStatement("INSERT INTO empresa (nombre, direccion, email, telefono, " +
+                     "password_hash) VALUES (?, 'Calle de prueba', ?, ?, 'x')", Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement empleado = con.prepareStatement("INSERT INTO empleado (nombre, apellidos, telefono, " +
+                     "email, id_empresa) VALUES ('Prueba', 'Prueba', ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement nuevoTurno = con.prepareStatement("INSERT INTO turno (descripcion, hora_inicio, " +
+                     "hora_fin) VALUES (?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < numEmpresas; i++) {
+                EjecutorSql.asignar(empresa, "Prueba-" + marca + "-" + i, "empresa" + i + "-" + marca + "@prueba.test",
+                        telefono(9, i));
+                empresa.executeUpdate();
+                int idEmpresa = generado(empresa);
+                empresas.add(idEmpresa);
+                for (int j = 0; j < empleadosPorEmpresa; j++) {
+                    int n = i * empleadosPorEmpresa + j;
+                    EjecutorSql.asignar(empleado, telefono(1, n), email(n), idEmpresa);
+                    empleado.executeUpdate();
+                    empleados.add(generado(empleado));
+                }
+            }
+            for (int t = 0; t < 3; t++) {
+                LocalTime inicio = LocalTime.of(6 + t * 8, 0);
+                EjecutorSql.asignar(nuevoTurno, "Prueba-" + marca, inicio, inicio.plusHours(8));
+                nuevoTurno.executeUpdate();
+                turnos.add(generado(nuevoTurno));
+            }
+        }
+    }
+
+    /**
+     * Asigna a cada empleado uno de los turnos de prueba en varios días seguidos, rotando
+     * los turnos entre empleados y días como en un cuadrante real. Las filas se envían en sentencias de hasta {@value #FILAS_POR_SENTENCIA} asignaciones.
+     *
+     * @param desde Primer día
+     * @param dias Número de días
+     * @throws SQLException Si falla la inserción
+     */
+    void asignar(LocalDate desde, int dias) throws SQLException {
+        List<Object> valores = new ArrayList<>();
+        try (Connection con = ConnectionDB.getConnection()) {
+            for (int e = 0; e < empleados.size(); e++) {
+                for (int d = 0; d < dias; d++) {
+                    valores.add(empleados.get(e));
+                    valores.add(turnos.get((e + d) % turnos.size()));
+                    valores.add(desde.plusDays(d));
+                    if (valores.size() == FILAS_POR_SENTENCIA * 3) {
+                        insertarAsignaciones(con, valores);
+                    }
+                }
+            }
+            insertarAsignaciones(con, valores);
+        }
+    }
+
+    /**
+     * Inserta en una sola sentencia las asignaciones acumuladas y vacía la lista.
+     *
+     * @param con Conexión con la que se insertan
+     * @param valores Empleado, turno y fecha de cada asignación, seguidos
+     * @throws SQLException Si falla la inserción
+     */
+    private static void insertarAsignaciones(Connection con, List<Object> valores) throws SQLException {
+        if (valores.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO pertenece (id_empleado, id_turno, fecha) VALUES " +
+                String.join(", ", Collections.nCopies(valores.size() / 3, "(?, ?, ?)"));
+        try (PreparedStatement pstm = con.prepareStatement(sql)) {
+            EjecutorSql.asignar(pstm, valores.toArray());
+            pstm.executeUpdate();
+        }
+        valores.clear();
+    }
+
+    /**
+     * Registra varias ausencias de una semana a cada empleado, una por mes desde una fecha.
+     *
+     * @param desde Inicio de la primera ausencia
+     * @param porEmpleado Número de ausencias de cada empleado
+     * @throws SQLException Si falla la inserción
+     */
+    void ausencias(LocalDate desde, int porEmpleado) throws SQLException {
+        try (Connection con = ConnectionDB.getConnection();
+             PreparedStatement pstm = con.prepareStatement("INSERT INTO ausencia (motivo, fecha_inicio, fecha_fin, " +
+                     "id_empleado) VALUES ('Prueba', ?, ?, ?)")) {
+            for (int idEmpleado : empleados) {
+                for (int a = 0; a < porEmpleado; a++) {
+                    LocalDate inicio = desde.plusMonths(a);
+                    EjecutorSql.asignar(pstm, inicio, inicio.plusDays(6), idEmpleado);
+                    pstm.addBatch();
+                }
+            }
+            pstm.executeBatch();
+        }
+    }
+
+    /**
+     * Actualiza las estadísticas de las tablas, para que el optimizador conozca los datos
+     * recién insertados al elegir los índices.
+     *
+     * @throws SQLException Si falla el análisis
+     */
+    void analizar() throws SQLException {
+        try (Connection con = ConnectionDB.getConnection();
+             Statement stmt = con.createStatement()) {
+            stmt.execute("ANALYZE TABLE empresa, empleado, ausencia, turno, pertenece");
+        }
+    }
+
+    /**
+     * Email de un empleado de prueba.
+     *
+     * @param n Número del empleado dentro de los datos de prueba
+     * @return Email único marcado con la marca de los datos
+     */
+    String email(int n) {
+        return "empleado" + n + "-" + marca + "@prueba.test";
+    }
+
+    /**
+     * Teléfono de prueba.
+     *
+     * @param tipo Dígito que distingue las empresas de los empleados
+     * @param n Número de la empresa o del empleado
+     * @return Teléfono único marcado con la marca de los datos
+     */
+    String telefono(int tipo, int n) {
+        return tipo + marca + String.format("%05d", n);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try (Connection con = ConnectionDB.getConnection();
+             Statement stmt = con.createStatement()) {
+            stmt.executeUpdate("DELETE FROM empresa WHERE nombre LIKE 'Prueba-" + marca + "-%'");
+            stmt.executeUpdate("DELETE FROM turno WHERE descripcion = 'Prueba-" + marca + "'");
+        }
+    }
+
+    /**
+     * Lee la clave generada por la última inserción de una sentencia.
+     *
+     * @param pstm Sentencia preparada con {@link Statement#RETURN_GENERATED_KEYS}
+     * @return Clave generada
+     * @throws SQLException Si la sentencia no generó ninguna clave
+     */
+    private static int generado(PreparedStatement pstm) throws SQLException {
+        try (ResultSet rs = pstm.getGeneratedKeys()) {
+            if (!rs.next()) {
+                throw new SQLException("La inserción no generó ninguna clave");
+            }
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.dam.fcojavier.gestionpersonal.DAOs;
+
+import org.dam.fcojavier.gestionpersonal.bbdd.ConnectionDB;
+import org.dam.fcojavier.gestionpersonal.enums.OrdenEmpleado;
+import org.dam.fcojavier.gestionpersonal.model.Empleado;
+import org.dam.fcojavier.gestionpersonal.model.Empresa;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Pruebas de {@link EmpleadoDAO} contra la base de datos de {@code connection.xml}.
+ * Solo se ejecutan con {@code -Dgestionpersonal.bd=true}.
+ */
+@EnabledIfSystemProperty(named = DatosPrueba.PROPIEDAD, matches = "true")
+class EmpleadoDAOTest {
+    /** Empleados de cada empresa de prueba */
+    private static final int EMPLEADOS = 25;
+
+    private static DatosPrueba datos;
+
+    @BeforeAll
+    static void crearDatos() throws SQLException {
+        datos = new DatosPrueba(2, EMPLEADOS);
+    }
+
+    @AfterAll
+    static void borrarDatos() throws SQLException {
+        if (datos != null) {
+            datos.close();
+        }
+    }
+
+    /**
+     * La empresa de cada empleado es la que se pasa a la consulta, así que no debe
+     * lanzarse ninguna sentencia más por empleado para cargarla.
+     */
+    @Test
+    void findByEmpresaEjecutaUnaSolaSentencia() throws Exception {
+        EmpleadoDAO dao = new EmpleadoDAO();
+        Empresa empresa = new EmpresaDAO().findById(datos.empresas.getFirst());
+        long sentencias = ejecuciones("Statements");
+        long llamadas = ejecuciones("DaoStatements");
+
+        List<Empleado> empleados = dao.findByEmpresa(empresa);
+
+        assertEquals(1, ejecuciones("Statements") - sentencias);
+        assertEquals(1, ejecuciones("DaoStatements") - llamadas);
+        assertEquals(EMPLEADOS, empleados.size());
+        for (Empleado empleado : empleados) {
+            assertSame(empresa, empleado.getEmpresa());
+        }
+    }
+
+    @Test
+    void upsertAllDescartaLosEmailsRepetidosEnElLote() throws Exception {
+        Empresa empresa = new EmpresaDAO().findById(datos.empresas.getLast());
+        Empleado primero = empleado(empresa, datos.email(100), datos.telefono(1, 100));
+        Empleado repetido = empleado(empresa, datos.email(100).toUpperCase(), datos.telefono(1, 101));
+
+        ResultadoLote<Empleado> resultado = new EmpleadoDAO().upsertAll(List.of(primero, repetido));
+
+        assertEquals(List.of(primero), resultado.getInsertadas());
+        assertEquals(List.of(repetido), resultado.getDuplicadas());
+        Empleado guardado = new EmpleadoDAO().findByEmail(datos.email(100));
+        assertEquals(primero.getIdEmpleado(), guardado.getIdEmpleado());
+        assertEquals(datos.telefono(1, 100), guardado.getTelefono());
+    }
+
+    @Test
+    void upsertAllNoMueveEmpleadosDeOtraEmpresa() throws Exception {
+        Empresa empresa = new EmpresaDAO().findById(datos.empresas.getLast());
+        Empleado ajeno = empleado(empresa, datos.email(0), datos.telefono(1, 0));
+        Empleado propio = empleado(empresa, datos.email(EMPLEADOS), datos.telefono(1, EMPLEADOS));
+
+        ResultadoLote<Empleado> resultado = new EmpleadoDAO().upsertAll(List.of(ajeno, propio));
+
+        assertEquals(List.of(ajeno), resultado.getDuplicadas());
+        assertEquals(List.of(propio), resultado.getActualizadas());
+        assertEquals(datos.empleados.get(EMPLEADOS), propio.getIdEmpleado());
+        Empleado otro = new EmpleadoDAO().findById(datos.empleados.getFirst());
+        assertEquals(datos.empresas.getFirst(), otro.getEmpresa().getIdEmpresa());
+        assertEquals("Prueba", otro.getNombre());
+    }
+
+    /**
+     * Recorrer los empleados de una empresa en páginas pequeñas debe dar la misma lista que
+     * leerlos en una sola página, en cada orden y aunque muchos compartan el valor del criterio.
+     */
+    @Test
+    void findPageByEmpresaContinuaEnElOrdenSeleccionado() throws Exception {
+        try (Connection con = ConnectionDB.getConnection();
+             PreparedStatement pstm = con.prepareStatement("UPDATE empleado SET " +
+                     "nombre = ELT(1 + id_empleado % 4, 'Ana', 'Luis', 'ana', 'Zoe'), " +
+                     "departamento = IF(id_empleado % 3 = 0, NULL, ELT(1 + id_empleado % 2, 'Cocina', 'Sala')), " +
+                     "rol = IF(id_empleado % 2 = 0, 'SUPERVISOR', 'EMPLEADO'), activo = id_empleado % 5 <> 0 " +
+                     "WHERE id_empresa = ?")) {
+            EjecutorSql.asignar(pstm, datos.empresas.getLast());
+            pstm.executeUpdate();
+        }
+        EmpleadoDAO dao = new EmpleadoDAO();
+        Empresa empresa = new EmpresaDAO().findById(datos.empresas.getLast());
+
+        for (OrdenEmpleado orden : OrdenEmpleado.values()) {
+            List<Empleado> completa = dao.findPageByEmpresa(empresa, orden, null, 1000);
+            List<Empleado> paginada = new ArrayList<>();
+            List<Empleado> pagina = dao.findPageByEmpresa(empresa, orden, null, 7);
+            while (!pagina.isEmpty()) {
+                paginada.addAll(pagina);
+                pagina = dao.findPageByEmpresa(empresa, orden, pagina.getLast(), 7);
+            }
+
+            assertEquals(ids(completa), ids(paginada), orden::name);
+        }
+    }
+
+    /**
+     * Obtiene los IDs de unos empleados.
+     *
+     * @param empleados Empleados en orden
+     * @return IDs en el mismo orden
+     */
+    private static List<Integer> ids(List<Empleado> empleados) {
+        return empleados.stream().map(Empleado::getIdEmpleado).toList();
+    }
+
+    /**
+     * Crea un empleado para guardarlo con {@link EmpleadoDAO#upsertAll}.
+     *
+     * @param empresa Empresa del empleado
+     * @param email Email del empleado
+     * @param telefono Teléfono del empleado
+     * @return Empleado sin ID, con nombre y apellidos distintos de los de los datos de prueba
+     */
+    private static Empleado empleado(Empresa empresa, String email, String telefono) {
+        return new Empleado(empresa, "Sincronizado", "Sincronizado", telefono, email, null);
+    }
+
+    /**
+     * Suma las ejecuciones de unas estadísticas de las sentencias, leídas del MBean
+     * {@code JdbcMetrics} que publica {@link ConnectionDB}.
+     *
+     * @param atributo Atributo del MBean: {@code Statements} para las sentencias enviadas al
+     *                 servidor o {@code DaoStatements} para las llamadas de los DAOs
+     * @return Ejecuciones registradas en total
+     * @throws JMException Si no puede leerse el MBean
+     */
+    private static long ejecuciones(String atributo) throws JMException {
+        CompositeData[] estadisticas = (CompositeData[]) ManagementFactory.getPlatformMBeanServer().getAttribute(
+                new ObjectName("org.dam.fcojavier.gestionpersonal:type=JdbcMetrics"), atributo);
+        return Arrays.stream(estadisticas).mapToLong(e -> (Long) e.get("executions")).sum();
+    }
+}
@@ -0,0 +1,131 @@
+package org.dam.fcojavier.gestionpersonal.DAOs;
+
+import org.dam.fcojavier.gestionpersonal.bbdd.ConnectionDB;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba con EXPLAIN que las consultas más frecuentes de los DAOs usan los índices de
+ * la migración V2 en lugar de recorrer la tabla entera. Necesita un servidor MySQL con la
+ * configuración de {@code connection.xml}, así que solo se ejecuta con
+ * {@code -Dgestionpersonal.bd=true}.
+ */
+@EnabledIfSystemProperty(named = DatosPrueba.PROPIEDAD, matches = "true")
+class IndicesConsultasTest {
+    /** Primer día de las asignaciones de prueba */
+    private static final LocalDate DESDE = LocalDate.of(2030, 1, 1);
+
+    private static DatosPrueba datos;
+
+    /**
+     * Acceso a una tabla elegido por el optimizador.
+     *
+     * @param clave Índice usado, o null si se recorre la tabla entera
+     * @param ref Columnas o constantes comparadas con el índice, separadas por comas
+     */
+    private record Acceso(String clave, String ref) {
+    }
+
+    @BeforeAll
+    static void crearDatos() throws SQLException {
+        datos = new DatosPrueba(10, 20);
+        datos.asignar(DESDE, 365);
+        datos.ausencias(DESDE, 3);
+        datos.analizar();
+    }
+
+    @AfterAll
+    static void borrarDatos() throws SQLException {
+        if (datos != null) {
+            datos.close();
+        }
+    }
+
+    @Test
+    void findByFechaUsaElIndiceDeFecha() throws Exception {
+        Map<String, Acceso> plan = explain(sql(new PerteneceTurnoDAO(), "findByFecha_SQL"), DESDE);
+
+        assertEquals("idx_pertenece_fecha", plan.get("pt").clave());
+    }
+
+    /**
+     * InnoDB añade la clave primaria a cada índice secundario, así que idx_pertenece_fecha
+     * también sirve para buscar por fecha y empleado; basta con que el índice elegido
+     * compare las dos columnas.
+     */
+    @Test
+    void findByAsignacionesFechaUsaUnIndiceDeEmpleadoYFecha() throws Exception {
+        Map<String, Acceso> plan = explain(sql(new PerteneceTurnoDAO(), "findByAsignacionesFecha_SQL"),
+                datos.empleados.getFirst(), DESDE);
+
+        assertTrue(Set.of("idx_pertenece_empleado_fecha", "idx_pertenece_fecha").contains(plan.get("pt").clave()),
+                () -> "Índice usado: " + plan.get("pt").clave());
+        assertEquals("const,const", plan.get("pt").ref());
+    }
+
+    @Test
+    void findByEmpresaDeEmpleadosUsaElIndiceDeEmpresa() throws Exception {
+        Map<String, Acceso> plan = explain(sql(new EmpleadoDAO(), "findByEmpresa_SQL"), datos.empresas.getFirst());
+
+        assertEquals("idx_empleado_empresa", plan.get("empleado").clave());
+    }
+
+    @Test
+    void findByEmpresaDeAusenciasUsaLosIndicesDeEmpresaYEmpleado() throws Exception {
+        Map<String, Acceso> plan = explain(sql(new AusenciaDAO(), "findByEmpresa_SQL"), datos.empresas.getFirst());
+
+        assertEquals("idx_empleado_empresa", plan.get("e").clave());
+        assertEquals("idx_ausencia_empleado_inicio", plan.get("a").clave());
+    }
+
+    /**
+     * Obtiene la consulta SQL de un DAO, para comprobar exactamente la que ejecuta.
+     *
+     * @param dao DAO que declara la consulta
+     * @param campo Nombre del campo con la consulta
+     * @return Consulta SQL
+     * @throws ReflectiveOperationException Si el DAO no declara ese campo
+     */
+    private static String sql(Object dao, String campo) throws ReflectiveOperationException {
+        Field field = dao.getClass().getDeclaredField(campo);
+        field.setAccessible(true);
+        return (String) field.get(dao);
+    }
+
+    /**
+     * Ejecuta EXPLAIN sobre una consulta.
+     *
+     * @param sql Consulta SQL
+     * @param parametros Valores de los parámetros de la consulta, en orden
+     * @return Acceso elegido para cada tabla de la consulta, por su alias
+     * @throws SQLException Si falla el EXPLAIN
+     */
+    private static Map<String, Acceso> explain(String sql, Object... parametros) throws SQLException {
+        Map<String, Acceso> plan = new HashMap<>();
+        try (Connection con = ConnectionDB.getConnection();
+             PreparedStatement pstm = con.prepareStatement("EXPLAIN " + sql)) {
+            EjecutorSql.asignar(pstm, parametros);
+            try (ResultSet rs = pstm.executeQuery()) {
+                while (rs.next()) {
+                    plan.put(rs.getString("table"), new Acceso(rs.getString("key"), rs.getString("ref")));
+                }
+            }
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,187 @@
+package org.dam.fcojavier.gestionpersonal.DAOs;
+
+import org.dam.fcojavier.gestionpersonal.bbdd.ConnectionDB;
+import org.dam.fcojavier.gestionpersonal.model.Empleado;
+import org.dam.fcojavier.gestionpersonal.model.PerteneceTurno;
+import org.dam.fcojavier.gestionpersonal.model.Turno;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link PerteneceTurnoDAO#insertAll} contra la base de datos de
+ * {@code connection.xml}: cada asignación debe contarse como insertada o como duplicada
+ * una sola vez. Solo se ejecutan con {@code -Dgestionpersonal.bd=true}.
+ */
+@EnabledIfSystemProperty(named = DatosPrueba.PROPIEDAD, matches = "true")
+class PerteneceTurnoDAOTest {
+    /** Primer día de las asignaciones de prueba */
+    private static final LocalDate DESDE = LocalDate.of(2030, 1, 1);
+
+    private final PerteneceTurnoDAO dao = new PerteneceTurnoDAO();
+
+    private DatosPrueba datos;
+
+    @BeforeEach
+    void crearDatos() throws SQLException {
+        datos = new DatosPrueba(1, 3);
+    }
+
+    @AfterEach
+    void borrarDatos() throws SQLException {
+        datos.close();
+    }
+
+    @Test
+    void insertAllDescartaLasRepetidasEnElLote() throws Exception {
+        PerteneceTurno primera = asignacion(0, 0, DESDE);
+        PerteneceTurno otra = asignacion(1, 0, DESDE);
+        PerteneceTurno repetida = asignacion(0, 0, DESDE);
+
+        ResultadoLote<PerteneceTurno> resultado = dao.insertAll(List.of(primera, otra, repetida));
+
+        assertEquals(List.of(primera, otra), resultado.getInsertadas());
+        assertSame(repetida, resultado.getDuplicadas().getFirst());
+        assertEquals(1, resultado.getDuplicadas().size());
+        assertEquals(2, filas());
+    }
+
+    @Test
+    void insertAllDescartaLasQueYaEstanEnLaBaseDeDatos() throws Exception {
+        datos.asignar(DESDE, 2);
+        PerteneceTurno existente = asignacion(0, 0, DESDE);
+        PerteneceTurno nueva = asignacion(0, 0, DESDE.plusDays(2));
+
+        ResultadoLote<PerteneceTurno> resultado = dao.insertAll(List.of(existente, nueva));
+
+        assertEquals(List.of(nueva), resultado.getInsertadas());
+        assertEquals(List.of(existente), resultado.getDuplicadas());
+        assertTrue(resultado.getActualizadas().isEmpty());
+        assertEquals(3 * 2 + 1, filas());
+    }
+
+    @Test
+    void insertAllCuentaCadaAsignacionEnLotesDeVariasSentencias() throws Exception {
+        datos.asignar(DESDE, 1);
+        List<PerteneceTurno> asignaciones = new ArrayList<>();
+        for (int d = 0; d < 250; d++) {
+            for (int e = 0; e < 3; e++) {
+                asignaciones.add(asignacion(e, (e + d) % 3, DESDE.plusDays(d)));
+            }
+        }
+        asignaciones.add(asignacion(2, 0, DESDE.plusDays(1)));
+
+        ResultadoLote<PerteneceTurno> resultado = dao.insertAll(asignaciones);
+
+        assertEquals(4, resultado.getDuplicadas().size());
+        assertEquals(asignaciones.size() - 4, resultado.getInsertadas().size());
+        assertEquals(asignaciones.size() - 1, filas());
+    }
+
+    /**
+     * Una asignación que otra transacción inserta después de la consulta de las existentes
+     * no debe hacer fallar el lote: la inserción espera a que se confirme y la deja como
+     * está gracias a {@code ON DUPLICATE KEY UPDATE}, y se cuenta como insertada porque
+     * igualmente queda registrada.
+     */
+    @Test
+    void insertAllNoFallaSiOtraTransaccionInsertaLaMismaAsignacion() throws Exception {
+        PerteneceTurno simultanea = asignacion(0, 0, DESDE);
+        PerteneceTurno nueva = asignacion(1, 0, DESDE);
+
+        try (Connection otra = ConnectionDB.getConnection()) {
+            otra.setAutoCommit(false);
+            try (PreparedStatement pstm = otra.prepareStatement(
+                    "INSERT INTO pertenece (id_empleado, id_turno, fecha) VALUES (?, ?, ?)")) {
+                EjecutorSql.asignar(pstm, datos.empleados.getFirst(), datos.turnos.getFirst(), DESDE);
+                pstm.executeUpdate();
+            }
+
+            CompletableFuture<ResultadoLote<PerteneceTurno>> lote =
+                    CompletableFuture.supplyAsync(() -> dao.insertAll(List.of(simultanea, nueva)));
+            esperarBloqueo();
+            otra.commit();
+            otra.setAutoCommit(true);
+
+            ResultadoLote<PerteneceTurno> resultado = lote.get(10, TimeUnit.SECONDS);
+            assertEquals(List.of(simultanea, nueva), resultado.getInsertadas());
+            assertTrue(resultado.getDuplicadas().isEmpty());
+        }
+        assertEquals(2, filas());
+    }
+
+    /**
+     * Crea una asignación de los datos de prueba.
+     *
+     * @param empleado Posición del empleado en los datos de prueba
+     * @param turno Posición del turno en los datos de prueba
+     * @param fecha Fecha de la asignación
+     * @return Asignación con los IDs del empleado y del turno
+     */
+    private PerteneceTurno asignacion(int empleado, int turno, LocalDate fecha) {
+        Empleado e = new Empleado();
+        e.setIdEmpleado(datos.empleados.get(empleado));
+        Turno t = new Turno();
+        t.setIdTurno(datos.turnos.get(turno));
+        return new PerteneceTurno(e, t, fecha);
+    }
+
+    /**
+     * Cuenta las asignaciones de los empleados de prueba.
+     *
+     * @return Número de filas de pertenece de los empleados de prueba
+     * @throws SQLException Si falla la consulta
+     */
+    private int filas() throws SQLException {
+        try (Connection con = ConnectionDB.getConnection();
+             PreparedStatement pstm = con.prepareStatement("SELECT COUNT(*) FROM pertenece pt " +
+                     "INNER JOIN empleado e ON pt.id_empleado = e.id_empleado WHERE e.id_empresa = ?")) {
+            EjecutorSql.asignar(pstm, datos.empresas.getFirst());
+            try (ResultSet rs = pstm.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Espera a que alguna transacción quede bloqueada esperando un bloqueo de fila.
+     * InnoDB no actualiza {@code innodb_trx} si se leyó hace menos de 100 ms, así que
+     * se consulta con pausas algo mayores.
+     *
+     * @throws Exception Si no se produce la espera en unos segundos
+     */
+    private static void esperarBloqueo() throws Exception {
+        long limite = System.currentTimeMillis() + 10_000;
+        try (Connection con = ConnectionDB.getConnection();
+             Statement stmt = con.createStatement()) {
+            while (System.currentTimeMillis() < limite) {
+                try (ResultSet rs = stmt.executeQuery(
+                        "SELECT COUNT(*) FROM information_schema.innodb_trx WHERE trx_state = 'LOCK WAIT'")) {
+                    rs.next();
+                    if (rs.getInt(1) > 0) {
+                        return;
+                    }
+                }
+                Thread.sleep(200);
+            }
+        }
+        throw new AssertionError("La inserción del lote no llegó a esperar por la otra transacción");
+    }
+}
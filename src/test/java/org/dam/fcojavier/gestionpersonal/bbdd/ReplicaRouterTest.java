@@ -0,0 +1,211 @@
+package org.dam.fcojavier.gestionpersonal.bbdd;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Pruebas del reparto de lecturas de {@link ReplicaRouter} sobre orígenes de conexiones
+ * simulados, sin base de datos.
+ */
+class ReplicaRouterTest {
+    /** Intervalo (ms) de reintento de las réplicas caídas en las pruebas */
+    private static final long RETRY_INTERVAL = 100;
+
+    /** Ventana (ms) de lectura de las propias escrituras en las pruebas */
+    private static final long WINDOW = 1000;
+
+    private final FakeDataSource primary = new FakeDataSource("primary");
+    private final FakeDataSource replica1 = new FakeDataSource("replica-1");
+    private final FakeDataSource replica2 = new FakeDataSource("replica-2");
+
+    /** Instante (ms) de la última escritura que ve el enrutador */
+    private long lastWrite;
+
+    @Test
+    void readsRotateAcrossReplicas() throws SQLException {
+        ReplicaRouter router = router(replica1, replica2);
+
+        List<String> sources = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            sources.add(router.getReadConnection().toString());
+        }
+
+        assertEquals(List.of("replica-1", "replica-2", "replica-1", "replica-2"), sources);
+        assertEquals(0, primary.requests);
+    }
+
+    @Test
+    void writesAlwaysUseThePrimary() throws SQLException {
+        ReplicaRouter router = router(replica1, replica2);
+
+        assertEquals("primary", router.getConnection().toString());
+        assertEquals(0, replica1.requests + replica2.requests);
+    }
+
+    @Test
+    void readsWithoutReplicasUseThePrimary() throws SQLException {
+        ReplicaRouter router = router();
+
+        assertEquals("primary", router.getReadConnection().toString());
+    }
+
+    @Test
+    void readsAfterAWriteUseThePrimaryUntilTheWindowEnds() throws SQLException {
+        ReplicaRouter router = router(replica1, replica2);
+
+        lastWrite = System.currentTimeMillis();
+        assertEquals("primary", router.getReadConnection().toString());
+
+        lastWrite = System.currentTimeMillis() - WINDOW - 1;
+        assertEquals("replica-1", router.getReadConnection().toString());
+        assertEquals(1, primary.requests);
+    }
+
+    @Test
+    void failedReplicaIsSkippedUntilTheRetryInterval() throws Exception {
+        ReplicaRouter router = router(replica1, replica2);
+        replica1.failure = new SQLException("Connection refused");
+
+        assertEquals("replica-2", router.getReadConnection().toString());
+        assertEquals("replica-2", router.getReadConnection().toString());
+        assertEquals(1, replica1.requests);
+
+        replica1.failure = null;
+        Thread.sleep(RETRY_INTERVAL + 50);
+        assertEquals("replica-1", router.getReadConnection().toString());
+        assertEquals(2, replica1.requests);
+    }
+
+    @Test
+    void busyReplicaIsTriedAgainOnTheNextRead() throws SQLException {
+        ReplicaRouter router = router(replica1, replica2);
+        replica1.failure = new SQLTransientConnectionException("Pool agotado");
+
+        assertEquals("replica-2", router.getReadConnection().toString());
+        assertEquals(1, replica1.requests);
+
+        replica1.failure = null;
+        assertEquals("replica-2", router.getReadConnection().toString());
+        assertEquals("replica-1", router.getReadConnection().toString());
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenEveryReplicaFails() throws SQLException {
+        ReplicaRouter router = router(replica1, replica2);
+        replica1.failure = new SQLException("Connection refused");
+        replica2.failure = new SQLTransientConnectionException("Pool agotado");
+
+        assertEquals("primary", router.getReadConnection().toString());
+        assertEquals(1, replica1.requests);
+        assertEquals(1, replica2.requests);
+    }
+
+    @Test
+    void primaryFailureReachesTheCaller() {
+        ReplicaRouter router = router(replica1);
+        replica1.failure = new SQLException("Connection refused");
+        primary.failure = new SQLException("Connection refused");
+
+        assertThrows(SQLException.class, router::getReadConnection);
+    }
+
+    /**
+     * Crea un enrutador con la conexión principal de la prueba y las réplicas indicadas.
+     *
+     * @param replicas Réplicas en el orden del reparto
+     * @return Enrutador de lecturas
+     */
+    private ReplicaRouter router(FakeDataSource... replicas) {
+        Map<String, DataSource> byName = new LinkedHashMap<>();
+        for (FakeDataSource replica : replicas) {
+            byName.put(replica.name, replica);
+        }
+        return new ReplicaRouter(primary, () -> lastWrite, byName, RETRY_INTERVAL, WINDOW);
+    }
+
+    /**
+     * Origen de conexiones simulado que cuenta las peticiones y puede fallar a voluntad.
+     * Sus conexiones solo responden a {@code toString}, con el nombre del origen.
+     */
+    private static final class FakeDataSource implements DataSource {
+        private final String name;
+
+        /** Conexiones pedidas, incluidas las que fallaron */
+        private int requests;
+
+        /** Error con el que fallan las peticiones, o null para prestar conexiones */
+        private SQLException failure;
+
+        private FakeDataSource(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            requests++;
+            if (failure != null) {
+                throw failure;
+            }
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (_, method, _) -> {
+                        if (method.getName().equals("toString")) {
+                            return name;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+
+        @Override
+        public PrintWriter getLogWriter() {
+            return null;
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) {
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) {
+        }
+
+        @Override
+        public int getLoginTimeout() {
+            return 0;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            throw new SQLException("No implementa " + iface.getName());
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return false;
+        }
+    }
+}